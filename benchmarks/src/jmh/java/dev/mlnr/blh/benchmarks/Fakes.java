@@ -0,0 +1,53 @@
+package dev.mlnr.blh.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Creates fake implementations of library interfaces (JDA, Javacord) for benchmarks which don't connect to Discord.
+ */
+final class Fakes {
+	private Fakes() {}
+
+	/**
+	 * Creates a fake answering the mapped methods by name and every other method with a default value.
+	 */
+	static <T> T fake(Class<T> type, Map<String, Supplier<?>> answers) {
+		Object fake = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+			Supplier<?> answer = answers.get(method.getName());
+			if (answer != null)
+				return answer.get();
+			switch (method.getName()) {
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				case "toString":
+					return "Fake" + type.getSimpleName();
+			}
+			return defaultValue(method.getReturnType());
+		});
+		return type.cast(fake);
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (!type.isPrimitive() || type == void.class)
+			return null;
+		if (type == boolean.class)
+			return false;
+		if (type == char.class)
+			return '\0';
+		if (type == long.class)
+			return 0L;
+		if (type == float.class)
+			return 0F;
+		if (type == double.class)
+			return 0D;
+		if (type == int.class)
+			return 0;
+		if (type == short.class)
+			return (short) 0;
+		return (byte) 0;
+	}
+}
@@ -0,0 +1,159 @@
+package dev.mlnr.blh.benchmarks;
+
+import dev.mlnr.blh.core.api.BotListHandler;
+import dev.mlnr.blh.javacord.BLHJavacordListener;
+import dev.mlnr.blh.jda.BLHJDAListener;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.SelfUser;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
+import org.javacord.api.DiscordApi;
+import org.javacord.api.entity.server.Server;
+import org.javacord.api.event.server.ServerJoinEvent;
+import org.javacord.api.event.server.ServerLeaveEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Fires a storm of join/leave events through the JDA and Javacord listeners, as seen during raids or mass kicks.
+ *
+ * <p>Every invocation is one storm on a fresh handler, the reported time is the time the gateway thread spent
+ * in the listener for the whole storm. The coalescing window is a parameter, {@code 0} posts every event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 30)
+@Fork(1)
+public class ListenerEventStormBenchmark {
+	private static final long BOT_ID = 123456789012345678L;
+	private static final int STORM_SIZE = 1_000;
+
+	@Param({"0", "1000"})
+	public long coalescingWindowMillis;
+
+	private MockBotListServer server;
+	private BotListHandler botListHandler;
+	private long guildCount;
+
+	private BLHJDAListener jdaListener;
+	private GuildJoinEvent[] guildJoinEvents;
+	private GuildLeaveEvent[] guildLeaveEvents;
+
+	private BLHJavacordListener javacordListener;
+	private ServerJoinEvent[] serverJoinEvents;
+	private ServerLeaveEvent[] serverLeaveEvents;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException {
+		server = new MockBotListServer();
+
+		JDA jda = fakeJda();
+		Guild guild = Fakes.fake(Guild.class, Collections.emptyMap());
+		guildJoinEvents = new GuildJoinEvent[STORM_SIZE];
+		guildLeaveEvents = new GuildLeaveEvent[STORM_SIZE];
+		for (int i = 0; i < STORM_SIZE; i++) {
+			guildJoinEvents[i] = new GuildJoinEvent(jda, i, guild);
+			guildLeaveEvents[i] = new GuildLeaveEvent(jda, i, guild);
+		}
+
+		DiscordApi discordApi = fakeDiscordApi();
+		Server javacordServer = Fakes.fake(Server.class, Collections.emptyMap());
+		Map<String, Supplier<?>> eventAnswers = new HashMap<>();
+		eventAnswers.put("getApi", () -> discordApi);
+		eventAnswers.put("getServer", () -> javacordServer);
+		serverJoinEvents = new ServerJoinEvent[STORM_SIZE];
+		serverLeaveEvents = new ServerLeaveEvent[STORM_SIZE];
+		for (int i = 0; i < STORM_SIZE; i++) {
+			serverJoinEvents[i] = Fakes.fake(ServerJoinEvent.class, eventAnswers);
+			serverLeaveEvents[i] = Fakes.fake(ServerLeaveEvent.class, eventAnswers);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void setupIteration() {
+		botListHandler = server.newBuilder()
+				.setCoalescingWindow(coalescingWindowMillis, coalescingWindowMillis, TimeUnit.MILLISECONDS)
+				.build();
+		jdaListener = new BLHJDAListener(botListHandler);
+		javacordListener = new BLHJavacordListener(botListHandler);
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDownIteration() {
+		botListHandler.shutdown(Duration.ZERO);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		server.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STORM_SIZE * 2)
+	public void jdaStorm() {
+		for (int i = 0; i < STORM_SIZE; i++) {
+			guildCount++;
+			jdaListener.onGuildJoin(guildJoinEvents[i]);
+			guildCount--;
+			jdaListener.onGuildLeave(guildLeaveEvents[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STORM_SIZE * 2)
+	public void javacordStorm() {
+		for (int i = 0; i < STORM_SIZE; i++) {
+			guildCount++;
+			javacordListener.onServerJoin(serverJoinEvents[i]);
+			guildCount--;
+			javacordListener.onServerLeave(serverLeaveEvents[i]);
+		}
+	}
+
+	// fakes
+
+	private JDA fakeJda() {
+		SelfUser selfUser = Fakes.fake(SelfUser.class, Collections.singletonMap("getIdLong", () -> BOT_ID));
+		@SuppressWarnings("unchecked")
+		SnowflakeCacheView<Guild> guildCache = Fakes.fake(SnowflakeCacheView.class, Collections.singletonMap("size", () -> guildCount));
+
+		Map<String, Supplier<?>> answers = new HashMap<>();
+		answers.put("getSelfUser", () -> selfUser);
+		answers.put("getGuildCache", () -> guildCache);
+		answers.put("getShardInfo", () -> JDA.ShardInfo.SINGLE);
+		return Fakes.fake(JDA.class, answers);
+	}
+
+	private DiscordApi fakeDiscordApi() {
+		Collection<Server> servers = new AbstractCollection<Server>() {
+			@Override
+			public Iterator<Server> iterator() {
+				return Collections.emptyIterator();
+			}
+
+			@Override
+			public int size() {
+				return (int) guildCount;
+			}
+		};
+
+		Map<String, Supplier<?>> answers = new HashMap<>();
+		answers.put("getClientId", () -> BOT_ID);
+		answers.put("getServers", () -> servers);
+		return Fakes.fake(DiscordApi.class, answers);
+	}
+}
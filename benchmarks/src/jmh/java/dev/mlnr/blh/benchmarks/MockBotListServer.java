@@ -0,0 +1,117 @@
+package dev.mlnr.blh.benchmarks;
+
+import dev.mlnr.blh.core.api.BLHBuilder;
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.HttpTransport;
+import dev.mlnr.blh.core.api.StatsRequest;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local HTTP server answering every bot list request with {@code 200}.
+ *
+ * <p>The client returned by {@link #getHttpClient()} and the transports returned by {@link #getTransport(String)}
+ * rewrite the bot list URLs to the server, and release a permit for every completed call so benchmarks can wait for their requests.
+ */
+class MockBotListServer implements AutoCloseable {
+	private final MockWebServer server = new MockWebServer();
+	private final Semaphore completedCalls = new Semaphore(0);
+	private final OkHttpClient httpClient;
+	private final URI serverUri;
+
+	MockBotListServer() throws IOException {
+		server.setDispatcher(new Dispatcher() {
+			@Override
+			public MockResponse dispatch(RecordedRequest request) {
+				// advertise a budget large enough to never delay the benchmark
+				return new MockResponse().setResponseCode(200)
+						.setHeader("X-RateLimit-Limit", 1_000_000)
+						.setHeader("X-RateLimit-Remaining", 1_000_000);
+			}
+		});
+		server.start();
+
+		HttpUrl serverUrl = server.url("/");
+		serverUri = serverUrl.uri();
+		httpClient = new OkHttpClient.Builder()
+				.addInterceptor(chain -> {
+					try {
+						Request request = chain.request();
+						HttpUrl url = request.url().newBuilder()
+								.scheme(serverUrl.scheme())
+								.host(serverUrl.host())
+								.port(serverUrl.port())
+								.build();
+						return chain.proceed(request.newBuilder().url(url).build());
+					}
+					finally {
+						completedCalls.release();
+					}
+				})
+				.build();
+	}
+
+	OkHttpClient getHttpClient() {
+		return httpClient;
+	}
+
+	/**
+	 * Returns a transport sending the requests to this server.
+	 *
+	 * @param  transport
+	 *         {@code okhttp} or {@code jdk}
+	 */
+	HttpTransport getTransport(String transport) {
+		if (transport.equals("okhttp"))
+			return HttpTransport.okHttp(httpClient);
+		// the JDK client is looked up on the first request, like the handler creates its own transport
+		return request -> {
+			URI uri = URI.create(request.getUrl());
+			String url = serverUri.resolve(uri.getRawPath()).toString();
+			return HttpTransport.jdk().send(new StatsRequest(request.getBotList(), url, request.getAuthorization(), request.getBody()))
+					.whenComplete((response, failure) -> completedCalls.release());
+		};
+	}
+
+	BLHBuilder newBuilder() {
+		return newBuilder("okhttp");
+	}
+
+	BLHBuilder newBuilder(String transport) {
+		BLHBuilder builder = new BLHBuilder()
+				.setTransport(getTransport(transport))
+				.setSuccessLoggingEnabled(false)
+				.setNoUpdateNecessaryLoggingEnabled(false)
+				.setRatelimitedLoggingEnabled(false);
+		for (BotList botList : BotList.values())
+			builder.addBotList(botList, "token");
+		return builder;
+	}
+
+	void awaitCalls(int calls) throws InterruptedException {
+		if (!completedCalls.tryAcquire(calls, 30, TimeUnit.SECONDS))
+			throw new IllegalStateException("The mock server didn't receive " + calls + " requests in time");
+	}
+
+	void resetCalls() {
+		completedCalls.drainPermits();
+	}
+
+	@Override
+	public void close() throws IOException {
+		// the dispatcher threads stop on their own, shutting the executor down would reject every queued call recursively
+		httpClient.dispatcher().cancelAll();
+		httpClient.connectionPool().evictAll();
+		server.shutdown();
+	}
+}
@@ -0,0 +1,89 @@
+package dev.mlnr.blh.benchmarks;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.BotListEndpoint;
+import dev.mlnr.blh.core.api.StatsRequest;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import dev.mlnr.blh.core.internal.http.EndpointRenderer;
+import dev.mlnr.blh.core.internal.http.OkHttpTransport;
+import dev.mlnr.blh.core.internal.http.RequestTemplate;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building a stats request and encoding its payload the way it was done before prepared requests
+ * with the {@link RequestTemplate} path, for the built-in endpoint and for a custom {@link BotListEndpoint}.
+ * Every benchmark builds the complete OkHttp request the transport sends, including the URL and the headers.
+ * Run with {@code -prof gc} to compare the allocation rate per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestConstructionBenchmark {
+	private static final long BOT_ID = 123456789012345678L;
+	private static final String TOKEN = "token";
+
+	@Param({"TOP_GG", "DBOTS_GG"})
+	public BotList botList;
+
+	private RequestTemplate template;
+	private RequestTemplate customTemplate;
+	// never sends, only builds the requests
+	private final OkHttpTransport transport = new OkHttpTransport(new OkHttpClient(), false);
+	private final Buffer sink = new Buffer();
+	private long serverCount = 100_000;
+
+	@Setup
+	public void setup() {
+		template = new RequestTemplate(BotListTarget.of(botList), new EndpointRenderer(BotListEndpoint.of(botList)), BOT_ID, TOKEN);
+		BotListEndpoint custom = BotListEndpoint.builder("https://example.com/api/v2/bots/%s/stats", "guilds")
+				.setAuthorization("X-Api-Key", "Bot")
+				.setShardCountField("shards")
+				.build();
+		customTemplate = new RequestTemplate(BotListTarget.of(botList), new EndpointRenderer(custom), BOT_ID, TOKEN);
+	}
+
+	@Benchmark
+	public long formatted() throws IOException {
+		String payload = "{\"" + botList.getServersParam() + "\":" + serverCount++ + "}";
+		String url = String.format(botList.getUrl(), BOT_ID);
+		Request request = new Request.Builder().url(url)
+				.header("Authorization", TOKEN)
+				.post(RequestBody.create(payload, MediaType.parse("application/json")))
+				.build();
+		return write(request);
+	}
+
+	@Benchmark
+	public long prepared() throws IOException {
+		return write(newRequest(template));
+	}
+
+	@Benchmark
+	public long custom() throws IOException {
+		return write(newRequest(customTemplate));
+	}
+
+	private Request newRequest(RequestTemplate template) {
+		StatsRequest request = template.createRequest(serverCount++, null);
+		return transport.newRequest(template.prepare(transport, request), request);
+	}
+
+	private long write(Request request) throws IOException {
+		RequestBody body = request.body();
+		body.writeTo(sink);
+		long written = sink.size();
+		sink.clear();
+		return written;
+	}
+}
@@ -0,0 +1,53 @@
+package dev.mlnr.blh.benchmarks;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.BotListHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cold start of a handler in a fresh JVM, once per transport: the time to build a handler,
+ * and the time to build it and complete its first update cycle, including loading the HTTP client and opening the connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+	private static final long BOT_ID = 123456789012345678L;
+	private static final int BOT_LISTS = BotList.values().length;
+
+	@Param({"okhttp", "jdk"})
+	public String transport;
+
+	private MockBotListServer server;
+	private BotListHandler botListHandler;
+
+	@Setup
+	public void setup() throws IOException {
+		server = new MockBotListServer();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		botListHandler.close();
+		server.close();
+	}
+
+	@Benchmark
+	public BotListHandler build() {
+		botListHandler = server.newBuilder(transport).build();
+		return botListHandler;
+	}
+
+	@Benchmark
+	public void firstUpdate() throws InterruptedException {
+		botListHandler = server.newBuilder(transport).build();
+		botListHandler.updateAllStats(BOT_ID, 1);
+		server.awaitCalls(BOT_LISTS);
+	}
+}
@@ -0,0 +1,49 @@
+package dev.mlnr.blh.benchmarks;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.BotListHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full update cycle: {@link BotListHandler#updateAllStats(long, long)} until every bot list has been answered
+ * by the local mock server, once per transport. Sample time mode reports the latency percentiles of a cycle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpdateAllStatsBenchmark {
+	private static final long BOT_ID = 123456789012345678L;
+	private static final int BOT_LISTS = BotList.values().length;
+
+	@Param({"okhttp", "jdk"})
+	public String transport;
+
+	private MockBotListServer server;
+	private BotListHandler botListHandler;
+	private long serverCount;
+
+	@Setup
+	public void setup() throws IOException {
+		server = new MockBotListServer();
+		botListHandler = server.newBuilder(transport).build();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		botListHandler.close();
+		server.close();
+	}
+
+	@Benchmark
+	public void updateAllStats() throws InterruptedException {
+		// a new count every cycle, so no cycle is deduplicated
+		botListHandler.updateAllStats(BOT_ID, ++serverCount);
+		server.awaitCalls(BOT_LISTS);
+	}
+}
@@ -0,0 +1,56 @@
+package dev.mlnr.blh.benchmarks;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.internal.http.JdkHttpTransports;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs every benchmark once outside of JMH, so a broken fixture fails the build instead of the next benchmark run.
+ */
+public class BenchmarksSmokeTest {
+	@Test
+	public void updatesAllStatsThroughTheMockServer() throws Exception {
+		String[] transports = JdkHttpTransports.isSupported() ? new String[] {"okhttp", "jdk"} : new String[] {"okhttp"};
+		for (String transport : transports) {
+			UpdateAllStatsBenchmark benchmark = new UpdateAllStatsBenchmark();
+			benchmark.transport = transport;
+			benchmark.setup();
+			try {
+				// waits for a request to every bot list, so it throws if any request doesn't reach the server
+				benchmark.updateAllStats();
+				benchmark.updateAllStats();
+			}
+			finally {
+				benchmark.tearDown();
+			}
+		}
+	}
+
+	@Test
+	public void buildsTheSameRequestSizeOnEveryPath() throws Exception {
+		for (BotList botList : new BotList[] {BotList.TOP_GG, BotList.DBOTS_GG}) {
+			RequestConstructionBenchmark benchmark = new RequestConstructionBenchmark();
+			benchmark.botList = botList;
+			benchmark.setup();
+			long formatted = benchmark.formatted();
+			// the same number of digits in the next count
+			assertEquals(formatted, benchmark.prepared());
+			assertTrue(benchmark.custom() > 0);
+		}
+	}
+
+	@Test
+	public void sendsTheFirstUpdate() throws Exception {
+		StartupBenchmark benchmark = new StartupBenchmark();
+		benchmark.transport = "okhttp";
+		benchmark.setup();
+		try {
+			benchmark.firstUpdate();
+		}
+		finally {
+			benchmark.tearDown();
+		}
+	}
+}
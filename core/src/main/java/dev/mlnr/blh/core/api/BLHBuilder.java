@@ -1,13 +1,30 @@
 package dev.mlnr.blh.core.api;
 
 import dev.mlnr.blh.core.internal.config.AutoPostingConfig;
+import dev.mlnr.blh.core.internal.config.CircuitBreakerConfig;
+import dev.mlnr.blh.core.internal.config.ClusterConfig;
+import dev.mlnr.blh.core.internal.config.CoalescingConfig;
+import dev.mlnr.blh.core.internal.config.ExecutionConfig;
+import dev.mlnr.blh.core.internal.config.HttpConfig;
 import dev.mlnr.blh.core.internal.config.LoggingConfig;
+import dev.mlnr.blh.core.internal.executor.VirtualThreads;
+import dev.mlnr.blh.core.internal.state.StateStore;
 import dev.mlnr.blh.core.internal.utils.Checks;
+import okhttp3.OkHttpClient;
 
 import javax.annotation.Nonnull;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
 import java.util.function.Predicate;
 
 /**
@@ -16,20 +33,48 @@ import java.util.function.Predicate;
 @SuppressWarnings({"FieldHasSetterButNoGetter", "unused"})
 public class BLHBuilder {
 	private Map<BotList, String> botLists = new EnumMap<>(BotList.class);
+	private final Map<Long, Map<BotList, String>> bots = new HashMap<>();
+	private final Map<CustomBotList, String> customBotLists = new LinkedHashMap<>();
+	private final Map<Long, Map<CustomBotList, String>> customBots = new HashMap<>();
 
 	private IBLHUpdater updater;
 	private long autoPostInitialDelay;
 	private long autoPostDelay;
+	private long autoPostJitter = TimeUnit.SECONDS.toMillis(30);
+	private ClusterConfig clusterConfig;
 
 	private boolean successLoggingEnabled = true;
 	private boolean noUpdateNecessaryLoggingEnabled = true;
 	private boolean ratelimitedLoggingEnabled = true;
 	private int errorThreshold = 3;
 
-	private Predicate<Long> devModePredicate = o -> false;
+	private LongPredicate devModePredicate = botId -> false;
 
 	private boolean unavailableEventsEnabled = true;
 
+	private PostingPolicy postingPolicy = PostingPolicy.onChange();
+
+	private long coalescingQuietPeriod;
+	private long coalescingMaxLatency;
+
+	private int circuitFailureThreshold = 5;
+	private long circuitBaseBackoff = TimeUnit.SECONDS.toMillis(30);
+	private long circuitMaxBackoff = TimeUnit.MINUTES.toMillis(30);
+
+	private ScheduledExecutorService scheduler;
+	private boolean virtualThreadsEnabled;
+
+	private OkHttpClient httpClient;
+	private long connectTimeout;
+	private long readTimeout;
+	private long callTimeout;
+	private final int[] maxConcurrentRequests = defaultMaxConcurrentRequests();
+	private int customMaxConcurrentRequests = 5;
+	private HttpTransport transport;
+	private final Map<BotList, BotListEndpoint> endpoints = new EnumMap<>(BotList.class);
+
+	private Path stateFile;
+
 	/**
 	 * Creates a BLHBuilder.
 	 *
@@ -114,6 +159,85 @@ public class BLHBuilder {
 		return this;
 	}
 
+	/**
+	 * Adds a bot list to update the stats for a specific bot for.
+	 *
+	 * <br>This allows one handler to serve many bots, sharing the HTTP client, the scheduler and the rate limits of the bot lists.
+	 * Bots with their own bot lists only post to those, bots without their own bot lists post to the bot lists added without a bot id.
+	 *
+	 * @param  botId
+	 *         The id of the bot
+	 * @param  botList
+	 *         The bot list
+	 * @param  token
+	 *         The API token of the bot for the bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot id is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided bot list or token is {@code null} or empty
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder addBotList(long botId, @Nonnull BotList botList, @Nonnull String token) {
+		Checks.notNegative(botId, "The bot id");
+		Checks.checkListAndToken(botList, token);
+
+		bots.computeIfAbsent(botId, id -> new EnumMap<>(BotList.class)).put(botList, token);
+		return this;
+	}
+
+	/**
+	 * Adds a custom bot list to update the stats for, e.g. a bot list which isn't supported by this release yet.
+	 *
+	 * <br>The custom bot list is only known to the handler built by this builder.
+	 * Adding a custom bot list with the name of one which has been added already replaces it.
+	 *
+	 * @param  customBotList
+	 *         The custom bot list
+	 * @param  token
+	 *         The API token for the bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided custom bot list or token is {@code null} or empty
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder addBotList(@Nonnull CustomBotList customBotList, @Nonnull String token) {
+		Checks.checkListAndToken(customBotList, token);
+
+		putCustomBotList(customBotLists, customBotList, token);
+		return this;
+	}
+
+	/**
+	 * Adds a custom bot list to update the stats for a specific bot for.
+	 *
+	 * @param  botId
+	 *         The id of the bot
+	 * @param  customBotList
+	 *         The custom bot list
+	 * @param  token
+	 *         The API token of the bot for the bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot id is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided custom bot list or token is {@code null} or empty
+	 *
+	 * @return This BLHBuilder instance
+	 *
+	 * @see #addBotList(long, BotList, String)
+	 * @see #addBotList(CustomBotList, String)
+	 */
+	public BLHBuilder addBotList(long botId, @Nonnull CustomBotList customBotList, @Nonnull String token) {
+		Checks.notNegative(botId, "The bot id");
+		Checks.checkListAndToken(customBotList, token);
+
+		putCustomBotList(customBots.computeIfAbsent(botId, id -> new LinkedHashMap<>()), customBotList, token);
+		return this;
+	}
+
 	/**
 	 * Sets the bot list map to update the stats for.
 	 *
@@ -171,6 +295,7 @@ public class BLHBuilder {
 	/**
 	 * Sets the autoposting delay.
 	 *
+	 * <br>Every bot list is posted to once per delay, each at its own phase, see {@link #setAutoPostJitter(long, TimeUnit)}.
 	 * <br><b>This only takes effect when using automatic stats posting.</b>
 	 *
 	 * @param  delay
@@ -202,6 +327,89 @@ public class BLHBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the maximum jitter of automatic stats posting.
+	 *
+	 * <br>Every bot list is posted to on its own cadence, starting at a phase derived from the bot id, so bots sharing the same delay
+	 * don't post to the same bot list at the same instant. Every post is then moved by a random jitter of at most the provided amount,
+	 * <b>but never by more than a tenth of the {@link #setAutoPostDelay(long, TimeUnit) delay}.</b>
+	 * If set to {@code 0}, the posts happen exactly at their phase.
+	 *
+	 * <br><b>This only takes effect when using automatic stats posting.</b>
+	 *
+	 * <br>Default: {@code 30} seconds
+	 *
+	 * @param  jitter
+	 *         The maximum jitter to use
+	 * @param  unit
+	 *         The time unit to use
+	 *
+	 * @throws IllegalStateException
+	 *         If no updater instance was set (using other constructor than {@link #BLHBuilder(IBLHUpdater)} or {@link #BLHBuilder(IBLHUpdater, Map)})
+	 * @throws IllegalArgumentException
+	 *         If the provided jitter is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided unit is {@code null}
+	 *
+	 * @see    #BLHBuilder(IBLHUpdater)
+	 * @see    #BLHBuilder(IBLHUpdater, Map)
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setAutoPostJitter(long jitter, @Nonnull TimeUnit unit) {
+		Checks.check(this.updater == null, "The updater instance has to be set to use autoposting");
+		Checks.notNegative(jitter, "The jitter");
+		Checks.notNull(unit, "The time unit");
+
+		this.autoPostJitter = unit.toMillis(jitter);
+		return this;
+	}
+
+	/**
+	 * Enables the cluster mode, for bots whose shards are spread over several processes.
+	 *
+	 * <br>Every process passes the same list of node addresses and its own index in it. The nodes share the counts of their local shards
+	 * over UDP once per second, and only the alive node with the lowest index posts, the sum of the counts of all alive nodes.
+	 * If that node stops, the next node takes over after 5 seconds. A node starts posting at the earliest 5 seconds after it was built.
+	 * <b>Only automatic stats posting is affected, stats updated by hand or by event listeners are posted by the node they were updated on.</b>
+	 *
+	 * <br>Default: disabled
+	 *
+	 * @param  nodeId
+	 *         The index of the address of this node in the provided list
+	 * @param  nodes
+	 *         The addresses of all nodes, usually loopback addresses. Heartbeats are only accepted from the address of their node,
+	 *         so every address has to be resolved and neither a wildcard address nor port {@code 0}
+	 *
+	 * @throws IllegalStateException
+	 *         If no updater instance was set (using other constructor than {@link #BLHBuilder(IBLHUpdater)} or {@link #BLHBuilder(IBLHUpdater, Map)})
+	 * @throws IllegalArgumentException
+	 *         If the provided list is {@code null} or contains {@code null}
+	 * @throws IllegalStateException
+	 *         If the provided list is empty, contains an unresolved or a wildcard address or port {@code 0},
+	 *         or the provided node id isn't an index in it
+	 *
+	 * @see    #BLHBuilder(IBLHUpdater)
+	 * @see    #BLHBuilder(IBLHUpdater, Map)
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setCluster(int nodeId, @Nonnull List<InetSocketAddress> nodes) {
+		Checks.check(this.updater == null, "The updater instance has to be set to use the cluster mode");
+		Checks.notNull(nodes, "The node list");
+		Checks.check(nodes.isEmpty(), "The node list may not be empty");
+		Checks.noneNull(nodes, "The node address");
+		for (InetSocketAddress node : nodes) {
+			Checks.check(node.isUnresolved(), "The node address " + node + " could not be resolved");
+			Checks.check(node.getAddress().isAnyLocalAddress(), "The node address " + node + " may not be a wildcard address");
+			Checks.check(node.getPort() == 0, "The node address " + node + " has to have a port");
+		}
+		Checks.check(nodeId < 0 || nodeId >= nodes.size(), "The node id has to be an index in the node list");
+
+		this.clusterConfig = new ClusterConfig(nodeId, new ArrayList<>(nodes));
+		return this;
+	}
+
 	/**
 	 * Enables/disables logging of successfully updating the stats for a bot list.
 	 *
@@ -283,6 +491,27 @@ public class BLHBuilder {
 	public BLHBuilder setDevModePredicate(@Nonnull Predicate<Long> predicate) {
 		Checks.notNull(predicate, "The dev mode predicate");
 
+		this.devModePredicate = predicate::test;
+		return this;
+	}
+
+	/**
+	 * Sets the predicate which will be tested for dev mode.
+	 *
+	 * <br>Unlike {@link #setDevModePredicate(Predicate)}, the bot id is tested without being boxed.
+	 * <br><b>If testing of the predicate evaluates to {@code false}, BotListHandler will keep updating the stats.</b>
+	 *
+	 * @param  predicate
+	 *         The predicate to test dev mode for
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided predicate is {@code null}
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setDevModeIdPredicate(@Nonnull LongPredicate predicate) {
+		Checks.notNull(predicate, "The dev mode predicate");
+
 		this.devModePredicate = predicate;
 		return this;
 	}
@@ -305,10 +534,408 @@ public class BLHBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the policy deciding whether a server count should be posted to a bot list.
+	 *
+	 * <br>This can be used to ignore small changes, to limit how often a bot list is posted to
+	 * or to refresh a stable count before a bot list marks the bot as stale. See {@link PostingPolicy} for the built-in policies.
+	 *
+	 * <br>Default: {@link PostingPolicy#onChange()}
+	 *
+	 * @param  postingPolicy
+	 *         The posting policy to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided policy is {@code null}
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setPostingPolicy(@Nonnull PostingPolicy postingPolicy) {
+		Checks.notNull(postingPolicy, "The posting policy");
+
+		this.postingPolicy = postingPolicy;
+		return this;
+	}
+
+	/**
+	 * Sets the window in which event based stats updates are coalesced into a single update.
+	 *
+	 * <br>Every call to {@link BotListHandler#updateAllStats(long, long)} only stores the latest server count.
+	 * The stored count is posted once no new count arrived for the quiet period, or once the first pending count
+	 * has waited for the max latency, whichever happens first. This prevents join/leave bursts from firing one request per event.
+	 * <br><b>If the max latency is set to {@code 0}, every update will be posted immediately.</b>
+	 *
+	 * <br>Default: {@code 0} (disabled)
+	 *
+	 * @param  quietPeriod
+	 *         The time without new counts after which the latest count is posted
+	 * @param  maxLatency
+	 *         The maximum time a count may wait before it's posted
+	 * @param  unit
+	 *         The time unit to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided quiet period or max latency is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided unit is {@code null}
+	 * @throws IllegalStateException
+	 *         If the provided quiet period is greater than the max latency
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setCoalescingWindow(long quietPeriod, long maxLatency, @Nonnull TimeUnit unit) {
+		Checks.notNegative(quietPeriod, "The quiet period");
+		Checks.notNegative(maxLatency, "The max latency");
+		Checks.notNull(unit, "The time unit");
+		Checks.check(quietPeriod > maxLatency, "The quiet period cannot be greater than the max latency");
+
+		this.coalescingQuietPeriod = unit.toMillis(quietPeriod);
+		this.coalescingMaxLatency = unit.toMillis(maxLatency);
+		return this;
+	}
+
+	/**
+	 * Sets the circuit breaker used for every bot list.
+	 *
+	 * <br>Once a bot list fails the provided amount of times in a row, its circuit opens and stats updates for it are skipped.
+	 * After the backoff elapsed, a single probe request is sent. If it succeeds, the circuit closes,
+	 * otherwise it opens again and the backoff doubles up to the max backoff. A random part of every backoff is dropped,
+	 * so multiple handlers don't probe at the same time.
+	 * <br>The circuit of a bot list is shared by every bot of the handler, so an outage of the bot list opens it only once.
+	 * <br>Bot lists responding with {@code 404} or {@code 410} are parked regardless of this setting.
+	 * <b>If the failure threshold is set to {@code 0}, the circuit never opens.</b>
+	 *
+	 * <br>Default: {@code 5} failures, {@code 30} seconds base backoff, {@code 30} minutes max backoff
+	 *
+	 * @param  failureThreshold
+	 *         The amount of failures in a row after which the circuit opens
+	 * @param  baseBackoff
+	 *         The backoff after the circuit opened for the first time
+	 * @param  maxBackoff
+	 *         The maximum backoff
+	 * @param  unit
+	 *         The time unit to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided failure threshold, base backoff or max backoff is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided unit is {@code null}
+	 * @throws IllegalStateException
+	 *         If the provided base backoff is greater than the max backoff
+	 *
+	 * @return This BLHBuilder instance
+	 *
+	 * @see BotListHandler#getCircuitState(BotList)
+	 */
+	public BLHBuilder setCircuitBreaker(int failureThreshold, long baseBackoff, long maxBackoff, @Nonnull TimeUnit unit) {
+		Checks.notNegative(failureThreshold, "The failure threshold");
+		Checks.notNegative(baseBackoff, "The base backoff");
+		Checks.notNegative(maxBackoff, "The max backoff");
+		Checks.notNull(unit, "The time unit");
+		Checks.check(baseBackoff > maxBackoff, "The base backoff cannot be greater than the max backoff");
+
+		this.circuitFailureThreshold = failureThreshold;
+		this.circuitBaseBackoff = unit.toMillis(baseBackoff);
+		this.circuitMaxBackoff = unit.toMillis(maxBackoff);
+		return this;
+	}
+
+	/**
+	 * Sets the executor used to schedule automatic posting, coalesced updates and retries.
+	 *
+	 * <br><b>The provided executor won't be shut down by {@link BotListHandler#shutdown(java.time.Duration)},
+	 * only the tasks scheduled by the handler will be cancelled.</b>
+	 *
+	 * <br>Default: a daemon single thread executor owned by the handler
+	 *
+	 * @param  scheduler
+	 *         The executor to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided executor is {@code null}
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setScheduler(@Nonnull ScheduledExecutorService scheduler) {
+		Checks.notNull(scheduler, "The scheduler");
+
+		this.scheduler = scheduler;
+		return this;
+	}
+
+	/**
+	 * Sets whether posting, retries and updater sampling should run on virtual threads.
+	 *
+	 * <br>The scheduler thread then only hands due tasks over to virtual threads and the requests of the handler are executed
+	 * by a dispatcher running on virtual threads, so a slow bot list or a slow {@link IBLHUpdater} only blocks a cheap virtual thread.
+	 * The connection pool of the {@link #setHttpClient(OkHttpClient) HTTP client} is still shared.
+	 * <b>Virtual threads require Java 21 or newer.</b>
+	 *
+	 * <br>Default: {@code false}
+	 *
+	 * @param  enabled
+	 *         Whether virtual threads should be used
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setVirtualThreadsEnabled(boolean enabled) {
+		this.virtualThreadsEnabled = enabled;
+		return this;
+	}
+
+	/**
+	 * Sets the OkHttpClient used to post the stats.
+	 *
+	 * <br><b>OkHttp is an optional dependency, it has to be added to the dependencies to use this method.</b>
+	 * <br>This allows multiple handlers, or the rest of the bot, to share one connection pool and dispatcher.
+	 * <b>The provided client won't be shut down by {@link BotListHandler#shutdown(java.time.Duration)}.</b>
+	 *
+	 * <br>Default: a client shared by all handlers in the process
+	 *
+	 * @param  httpClient
+	 *         The OkHttpClient to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided client is {@code null}
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setHttpClient(@Nonnull OkHttpClient httpClient) {
+		Checks.notNull(httpClient, "The HTTP client");
+
+		this.httpClient = httpClient;
+		return this;
+	}
+
+	/**
+	 * Sets the timeout for establishing a connection to a bot list.
+	 *
+	 * <br>The timeout is applied to a client derived from the {@link #setHttpClient(OkHttpClient) HTTP client},
+	 * so the connection pool is still shared. <b>It's ignored if a {@link #setTransport(HttpTransport) transport} is set,
+	 * or if the requests are sent with the JDK HTTP client because OkHttp isn't on the classpath.</b>
+	 * <b>If set to {@code 0}, the connect timeout of the HTTP client will be used.</b>
+	 *
+	 * <br>Default: {@code 0}
+	 *
+	 * @param  timeout
+	 *         The timeout to use
+	 * @param  unit
+	 *         The time unit to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided timeout is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided unit is {@code null}
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setConnectTimeout(long timeout, @Nonnull TimeUnit unit) {
+		Checks.notNegative(timeout, "The connect timeout");
+		Checks.notNull(unit, "The time unit");
+
+		this.connectTimeout = unit.toMillis(timeout);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum time a bot list may stay silent while the response is read.
+	 *
+	 * <br>The timeout is applied to a client derived from the {@link #setHttpClient(OkHttpClient) HTTP client},
+	 * so the connection pool is still shared. <b>It's ignored if a {@link #setTransport(HttpTransport) transport} is set,
+	 * or if the requests are sent with the JDK HTTP client because OkHttp isn't on the classpath.</b>
+	 * <b>If set to {@code 0}, the read timeout of the HTTP client will be used.</b>
+	 *
+	 * <br>Default: {@code 0}
+	 *
+	 * @param  timeout
+	 *         The timeout to use
+	 * @param  unit
+	 *         The time unit to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided timeout is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided unit is {@code null}
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setReadTimeout(long timeout, @Nonnull TimeUnit unit) {
+		Checks.notNegative(timeout, "The read timeout");
+		Checks.notNull(unit, "The time unit");
+
+		this.readTimeout = unit.toMillis(timeout);
+		return this;
+	}
+
+	/**
+	 * Sets the deadline for a whole stats request, including connecting, writing the payload and reading the response.
+	 *
+	 * <br>The deadline is enforced by the handler, so it applies to every {@link #setTransport(HttpTransport) transport}.
+	 * A request which misses it is cancelled and counts as a failure of the bot list for the {@link #setCircuitBreaker(int, long, long, TimeUnit) circuit breaker}.
+	 * <b>If set to {@code 0}, requests are only limited by the timeouts of the HTTP client.</b>
+	 *
+	 * <br>Default: {@code 0}
+	 *
+	 * @param  timeout
+	 *         The timeout to use
+	 * @param  unit
+	 *         The time unit to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided timeout is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided unit is {@code null}
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setCallTimeout(long timeout, @Nonnull TimeUnit unit) {
+		Checks.notNegative(timeout, "The call timeout");
+		Checks.notNull(unit, "The time unit");
+
+		this.callTimeout = unit.toMillis(timeout);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum amount of requests in flight to every bot list, including custom bot lists and requests waiting for the ratelimit of the bot list.
+	 *
+	 * <br>This keeps a bot list which stalls from taking up the connections and threads needed by the other bot lists.
+	 * Once the limit is reached, further counts for the bot list aren't queued, the latest count is sent once a request finished.
+	 * <b>The dispatcher of the {@link #setHttpClient(OkHttpClient) HTTP client} may allow less requests per host.</b>
+	 *
+	 * <br>Default: {@code 5}
+	 *
+	 * @param  maxConcurrentRequests
+	 *         The maximum amount of requests in flight per bot list
+	 *
+	 * @throws IllegalStateException
+	 *         If the provided amount is less than {@code 1}
+	 *
+	 * @return This BLHBuilder instance
+	 *
+	 * @see #setMaxConcurrentRequests(BotList, int)
+	 */
+	public BLHBuilder setMaxConcurrentRequests(int maxConcurrentRequests) {
+		Checks.check(maxConcurrentRequests < 1, "The maximum amount of concurrent requests cannot be less than 1");
+
+		Arrays.fill(this.maxConcurrentRequests, maxConcurrentRequests);
+		this.customMaxConcurrentRequests = maxConcurrentRequests;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum amount of requests in flight to a bot list, including requests waiting for the ratelimit of the bot list.
+	 *
+	 * <br>Default: {@code 5}
+	 *
+	 * @param  botList
+	 *         The bot list to limit
+	 * @param  maxConcurrentRequests
+	 *         The maximum amount of requests in flight
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot list is {@code null}
+	 * @throws IllegalStateException
+	 *         If the provided amount is less than {@code 1}
+	 *
+	 * @return This BLHBuilder instance
+	 *
+	 * @see #setMaxConcurrentRequests(int)
+	 */
+	public BLHBuilder setMaxConcurrentRequests(@Nonnull BotList botList, int maxConcurrentRequests) {
+		Checks.notNull(botList, "The bot list");
+		Checks.check(maxConcurrentRequests < 1, "The maximum amount of concurrent requests cannot be less than 1");
+
+		this.maxConcurrentRequests[botList.ordinal()] = maxConcurrentRequests;
+		return this;
+	}
+
+	/**
+	 * Sets the transport used to send the stats requests.
+	 *
+	 * <br>Use {@link HttpTransport#jdk()} to post through the {@code java.net.http} client, which multiplexes the requests
+	 * to a bot list over a single HTTP/2 connection where the bot list supports it.
+	 * <b>If a transport is set, the {@link #setHttpClient(OkHttpClient) HTTP client}, the connect and read timeouts
+	 * and the virtual thread dispatcher are ignored, and the transport won't be closed by {@link BotListHandler#shutdown(java.time.Duration)}.</b>
+	 *
+	 * <br>Default: an OkHttp transport using the {@link #setHttpClient(OkHttpClient) HTTP client} if OkHttp is on the classpath,
+	 * otherwise {@link HttpTransport#jdk()}
+	 *
+	 * @param  transport
+	 *         The transport to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided transport is {@code null}
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setTransport(@Nonnull HttpTransport transport) {
+		Checks.notNull(transport, "The transport");
+
+		this.transport = transport;
+		return this;
+	}
+
+	/**
+	 * Replaces the endpoint the stats for a bot list are posted to, e.g. after the bot list changed its API.
+	 *
+	 * <br>The endpoint is compiled once when the handler is built. Endpoints can also be replaced at runtime by
+	 * {@link BotListHandler#setEndpoint(BotList, BotListEndpoint)}.
+	 *
+	 * <br>Default: the built-in endpoint of the bot list, see {@link BotListEndpoint#of(BotList)}
+	 *
+	 * @param  botList
+	 *         The bot list to replace the endpoint for
+	 * @param  endpoint
+	 *         The endpoint to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot list or endpoint is {@code null}
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setEndpoint(@Nonnull BotList botList, @Nonnull BotListEndpoint endpoint) {
+		Checks.notNull(botList, "The bot list");
+		Checks.notNull(endpoint, "The endpoint");
+
+		this.endpoints.put(botList, endpoint);
+		return this;
+	}
+
+	/**
+	 * Sets the file the state of the bot lists is persisted to.
+	 *
+	 * <br>The last acknowledged server count, the end of a ratelimit, rejected tokens and parked bot lists are stored per bot list
+	 * and restored by {@link #build()}, so a restarted bot doesn't post the same count again, doesn't run into the same ratelimit
+	 * and doesn't keep posting with a token which has already been rejected. A token which differs from the rejected one is assumed to be valid.
+	 * <br>Only the state of the built-in bot lists added without a bot id is persisted, as posted by the first bot using them.
+	 * Custom bot lists, bot lists added for a specific bot id and further bots start without persisted state.
+	 * <br>Rejected tokens aren't stored, only the first 64 bits of their SHA-256 hash.
+	 * <br>The file is memory-mapped, updating it doesn't block on disk IO.
+	 * <b>If the file can't be opened, a warning is logged and the state isn't persisted.</b>
+	 *
+	 * <br>Default: none (the state isn't persisted)
+	 *
+	 * @param  stateFile
+	 *         The path of the state file
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided path is {@code null}
+	 *
+	 * @return This BLHBuilder instance
+	 */
+	public BLHBuilder setStateFile(@Nonnull Path stateFile) {
+		Checks.notNull(stateFile, "The state file");
+
+		this.stateFile = stateFile;
+		return this;
+	}
+
 	/**
 	 * Builds BotListHandler.
 	 *
 	 * <br>If autoposting is used, this will start the posting scheduler.
+	 * <br>If a {@link #setStateFile(Path) state file} is set, the persisted state is restored.
 	 * <br>Returned instance can be used to hotswap invalid tokens at runtime.
 	 * <b>Additionally, if autoposting isn't used, the instance can be used in a custom listener implementation
 	 * to update the stats or to be passed into the default listeners.</b>
@@ -317,20 +944,44 @@ public class BLHBuilder {
 	 *         If no bot lists were added
 	 * @throws IllegalStateException
 	 *         If an IBLHUpdater instance was passed into one of the constructors and no delay was set
+	 * @throws IllegalStateException
+	 *         If virtual threads were enabled and the runtime is older than Java 21
+	 * @throws java.io.UncheckedIOException
+	 *         If the {@link #setCluster(int, List) cluster mode} is enabled and the address of this node couldn't be bound
 	 *
 	 * @return The BotListHandler instance
 	 */
 	public BotListHandler build() {
-		checkBotListsMap(botLists);
+		if (bots.isEmpty() && customBotLists.isEmpty() && customBots.isEmpty())
+			checkBotListsMap(botLists);
 		Checks.check(updater != null && autoPostDelay == 0, "The autoposting delay has to be set");
-
-		return new BotListHandler(botLists, devModePredicate, unavailableEventsEnabled,
-				new AutoPostingConfig(updater, autoPostInitialDelay, autoPostDelay),
-				new LoggingConfig(successLoggingEnabled, noUpdateNecessaryLoggingEnabled, ratelimitedLoggingEnabled, errorThreshold));
+		Checks.check(virtualThreadsEnabled && !VirtualThreads.isSupported(), "Virtual threads require Java 21 or newer");
+
+		return new BotListHandler(botLists, bots, customBotLists, customBots, devModePredicate, unavailableEventsEnabled, postingPolicy,
+				new AutoPostingConfig(updater, autoPostInitialDelay, autoPostDelay, autoPostJitter, clusterConfig),
+				new LoggingConfig(successLoggingEnabled, noUpdateNecessaryLoggingEnabled, ratelimitedLoggingEnabled, errorThreshold),
+				new CoalescingConfig(coalescingQuietPeriod, coalescingMaxLatency),
+				new CircuitBreakerConfig(circuitFailureThreshold, circuitBaseBackoff, circuitMaxBackoff),
+				new ExecutionConfig(scheduler, virtualThreadsEnabled),
+				new HttpConfig(httpClient, connectTimeout, readTimeout, callTimeout, maxConcurrentRequests.clone(), customMaxConcurrentRequests,
+						transport, endpoints),
+				stateFile == null ? null : StateStore.open(stateFile));
 	}
 
 	// internal
 
+	private static int[] defaultMaxConcurrentRequests() {
+		int[] maxConcurrentRequests = new int[BotList.values().length];
+		Arrays.fill(maxConcurrentRequests, 5);
+		return maxConcurrentRequests;
+	}
+
+	private static void putCustomBotList(Map<CustomBotList, String> customBotLists, CustomBotList customBotList, String token) {
+		// custom bot lists are equal by name, removing the previous one replaces its key as well
+		customBotLists.remove(customBotList);
+		customBotLists.put(customBotList, token);
+	}
+
 	private void checkBotListsMap(Map<BotList, String> map) {
 		Checks.notEmpty(map, "The bot lists map");
 	}
@@ -0,0 +1,232 @@
+package dev.mlnr.blh.core.api;
+
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import dev.mlnr.blh.core.internal.metrics.BotListMetricsRecorder;
+import dev.mlnr.blh.core.internal.metrics.LatencyHistogram;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A point in time snapshot of the request metrics of a {@link BotListHandler}, obtained by {@link BotListHandler#getMetrics()}.
+ *
+ * <br>Counters are cumulative since the handler was built, so exporters can poll snapshots and compute rates themselves.
+ */
+public class BLHMetrics {
+	private final long timestamp;
+	private final Map<BotList, BotListMetrics> botListMetrics;
+	private final Map<CustomBotList, BotListMetrics> customBotListMetrics;
+
+	BLHMetrics(BotListTarget[] botLists, Function<BotListTarget, BotListMetricsRecorder> recorders) {
+		this.timestamp = System.currentTimeMillis();
+		Map<BotList, BotListMetrics> metrics = new EnumMap<>(BotList.class);
+		Map<CustomBotList, BotListMetrics> customMetrics = new LinkedHashMap<>();
+		for (BotListTarget botList : botLists) {
+			BotListMetrics botListMetrics = new BotListMetrics(recorders.apply(botList));
+			if (botList.isBuiltIn())
+				metrics.put(botList.getBotList(), botListMetrics);
+			else
+				customMetrics.put(botList.getCustomBotList(), botListMetrics);
+		}
+		this.botListMetrics = Collections.unmodifiableMap(metrics);
+		this.customBotListMetrics = Collections.unmodifiableMap(customMetrics);
+	}
+
+	/**
+	 * Returns the time at which this snapshot was taken.
+	 *
+	 * @return The epoch millis timestamp of this snapshot
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Returns the metrics of every bot list, including bot lists which haven't been added.
+	 *
+	 * @return Unmodifiable map of the metrics
+	 */
+	@Nonnull
+	public Map<BotList, BotListMetrics> getBotListMetrics() {
+		return botListMetrics;
+	}
+
+	/**
+	 * Returns the metrics of the provided bot list.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @return The metrics of the bot list
+	 */
+	@Nonnull
+	public BotListMetrics getBotListMetrics(@Nonnull BotList botList) {
+		return botListMetrics.get(botList);
+	}
+
+	/**
+	 * Returns the metrics of every custom bot list added to the handler.
+	 *
+	 * @return Unmodifiable map of the metrics
+	 */
+	@Nonnull
+	public Map<CustomBotList, BotListMetrics> getCustomBotListMetrics() {
+		return customBotListMetrics;
+	}
+
+	/**
+	 * Returns the metrics of the provided custom bot list.
+	 *
+	 * @param  customBotList
+	 *         The custom bot list
+	 *
+	 * @return The metrics of the custom bot list, or {@code null} if it hasn't been added to the handler
+	 */
+	@Nullable
+	public BotListMetrics getBotListMetrics(@Nonnull CustomBotList customBotList) {
+		return customBotListMetrics.get(customBotList);
+	}
+
+	public enum Outcome {
+		/**
+		 * A {@code 2xx} response.
+		 */
+		SUCCESS(BotListMetricsRecorder.SUCCESS),
+		/**
+		 * A {@code 401} response.
+		 */
+		UNAUTHORIZED(BotListMetricsRecorder.UNAUTHORIZED),
+		/**
+		 * A {@code 429} response.
+		 */
+		RATELIMITED(BotListMetricsRecorder.RATELIMITED),
+		/**
+		 * Any other {@code 4xx} (or unexpected) response.
+		 */
+		CLIENT_ERROR(BotListMetricsRecorder.CLIENT_ERROR),
+		/**
+		 * A {@code 5xx} response.
+		 */
+		SERVER_ERROR(BotListMetricsRecorder.SERVER_ERROR),
+		/**
+		 * A request which failed without a response.
+		 */
+		IO_FAILURE(BotListMetricsRecorder.IO_FAILURE);
+
+		private final int index;
+
+		Outcome(int index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * The metrics of a single bot list.
+	 */
+	public static class BotListMetrics {
+		private final long[] counts = new long[BotListMetricsRecorder.OUTCOMES];
+		private final long latencyP50;
+		private final long latencyP99;
+		private final long latencyMax;
+		private final long ratelimitedNanos;
+		private final long lastSuccessTimestamp;
+
+		BotListMetrics(BotListMetricsRecorder recorder) {
+			for (Outcome outcome : Outcome.values())
+				counts[outcome.index] = recorder.getCount(outcome.index);
+			LatencyHistogram latencies = recorder.getLatencies();
+			this.latencyP50 = latencies.getValueAtQuantile(0.5);
+			this.latencyP99 = latencies.getValueAtQuantile(0.99);
+			this.latencyMax = latencies.getMax();
+			this.ratelimitedNanos = recorder.getRatelimitedNanos();
+			this.lastSuccessTimestamp = recorder.getLastSuccessTimestamp();
+		}
+
+		/**
+		 * Returns the amount of requests which ended with the provided outcome.
+		 *
+		 * @param  outcome
+		 *         The outcome
+		 *
+		 * @return The amount of requests
+		 */
+		public long getRequestCount(@Nonnull Outcome outcome) {
+			return counts[outcome.index];
+		}
+
+		/**
+		 * Returns the total amount of requests.
+		 *
+		 * @return The total amount of requests
+		 */
+		public long getTotalRequestCount() {
+			long total = 0;
+			for (long count : counts)
+				total += count;
+			return total;
+		}
+
+		/**
+		 * Returns the median request latency. The value is accurate to 12.5%.
+		 *
+		 * @param  unit
+		 *         The time unit to return the latency in
+		 *
+		 * @return The median latency
+		 */
+		public long getLatencyP50(@Nonnull TimeUnit unit) {
+			return unit.convert(latencyP50, TimeUnit.MICROSECONDS);
+		}
+
+		/**
+		 * Returns the 99th percentile of the request latency. The value is accurate to 12.5%.
+		 *
+		 * @param  unit
+		 *         The time unit to return the latency in
+		 *
+		 * @return The 99th percentile latency
+		 */
+		public long getLatencyP99(@Nonnull TimeUnit unit) {
+			return unit.convert(latencyP99, TimeUnit.MICROSECONDS);
+		}
+
+		/**
+		 * Returns the highest request latency.
+		 *
+		 * @param  unit
+		 *         The time unit to return the latency in
+		 *
+		 * @return The highest latency
+		 */
+		public long getLatencyMax(@Nonnull TimeUnit unit) {
+			return unit.convert(latencyMax, TimeUnit.MICROSECONDS);
+		}
+
+		/**
+		 * Returns the time between getting ratelimited and the next successful request, summed up.
+		 *
+		 * @param  unit
+		 *         The time unit to return the time in
+		 *
+		 * @return The time spent ratelimited
+		 */
+		public long getRatelimitedTime(@Nonnull TimeUnit unit) {
+			return unit.convert(ratelimitedNanos, TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Returns the time of the last successful stats update.
+		 *
+		 * @return The epoch millis timestamp, or {@code 0} if the stats have never been updated successfully
+		 */
+		public long getLastSuccessTimestamp() {
+			return lastSuccessTimestamp;
+		}
+	}
+}
@@ -1,61 +1,71 @@
 package dev.mlnr.blh.core.api;
 
+import javax.annotation.Nullable;
+
 public enum BotList {
 	/**
 	 * Bots on Discord
 	 *
 	 * @see <a href="https://bots.ondiscord.xyz/" target="_blank">Website</a>
 	 */
-	BOTS_ON_DISCORD("https://bots.ondiscord.xyz/bot-api/bots/%s/guilds", "guildCount"),
+	BOTS_ON_DISCORD("https://bots.ondiscord.xyz/bot-api/bots/%s/guilds", "guildCount", null, null, 10, 60_000),
 	/**
 	 * discords.com/bots
 	 *
 	 * @see <a href="https://discords.com/bots/" target="_blank">Website</a>
 	 */
-	DISCORDS("https://discords.com/bots/api/bot/%s", "server_count"),
+	DISCORDS("https://discords.com/bots/api/bot/%s", "server_count", null, null, 10, 60_000),
 	/**
 	 * discordbotlist.com
 	 *
 	 * @see <a href="https://discordbotlist.com/" target="_blank">Website</a>
 	 */
-	DBL("https://discordbotlist.com/api/v1/bots/%s/stats", "guilds"),
+	DBL("https://discordbotlist.com/api/v1/bots/%s/stats", "guilds", null, null, 60, 60_000),
 	/**
 	 * discordbots.co
 	 *
 	 * @see <a href="https://discordbots.co/" target="_blank">Website</a>
 	 */
-	DBOTS_CO("https://api.discordbots.co/v1/public/bot/%s/stats", "serverCount"),
+	DBOTS_CO("https://api.discordbots.co/v1/public/bot/%s/stats", "serverCount", "shardCount", null, 10, 60_000),
 	/**
 	 * discord.bots.gg
 	 *
 	 * @see <a href="https://discord.bots.gg/" target="_blank">Website</a>
 	 */
-	DBOTS_GG("https://discord.bots.gg/api/v1/bots/%s/stats", "guildCount"),
+	DBOTS_GG("https://discord.bots.gg/api/v1/bots/%s/stats", "guildCount", "shardCount", null, 10, 60_000),
 	/**
 	 * Discord Extreme List
 	 *
 	 * @see <a href="https://discordextremelist.xyz/" target="_blank">Website</a>
 	 */
-	DEL("https://api.discordextremelist.xyz/v2/bot/%s/stats", "guildCount"),
+	DEL("https://api.discordextremelist.xyz/v2/bot/%s/stats", "guildCount", "shardCount", null, 10, 60_000),
 	/**
 	 * Discord Services
 	 *
 	 * @see <a href="https://discordservices.net/" target="_blank">Website</a>
 	 */
-	DSERVICES("https://api.discordservices.net/bot/%s/stats", "servers"),
+	DSERVICES("https://api.discordservices.net/bot/%s/stats", "servers", "shards", null, 10, 60_000),
 	/**
 	 * Top.gg
 	 *
 	 * @see <a href="https://top.gg/" target="_blank">Website</a>
 	 */
-	TOP_GG("https://top.gg/api/bots/%s/stats", "server_count");
+	TOP_GG("https://top.gg/api/bots/%s/stats", "server_count", "shard_count", "shards", 60, 60_000);
 
 	private final String url;
 	private final String serversParam;
+	private final String shardCountParam;
+	private final String shardsParam;
+	private final int ratelimit;
+	private final long ratelimitPeriod;
 
-	BotList(String url, String serversParam) {
+	BotList(String url, String serversParam, String shardCountParam, String shardsParam, int ratelimit, long ratelimitPeriod) {
 		this.url = url;
 		this.serversParam = serversParam;
+		this.shardCountParam = shardCountParam;
+		this.shardsParam = shardsParam;
+		this.ratelimit = ratelimit;
+		this.ratelimitPeriod = ratelimitPeriod;
 	}
 
 	public String getUrl() {
@@ -65,4 +75,22 @@ public enum BotList {
 	public String getServersParam() {
 		return serversParam;
 	}
+
+	@Nullable
+	public String getShardCountParam() {
+		return shardCountParam;
+	}
+
+	@Nullable
+	public String getShardsParam() {
+		return shardsParam;
+	}
+
+	public int getRatelimit() {
+		return ratelimit;
+	}
+
+	public long getRatelimitPeriod() {
+		return ratelimitPeriod;
+	}
 }
\ No newline at end of file
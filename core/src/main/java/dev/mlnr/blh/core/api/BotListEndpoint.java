@@ -0,0 +1,207 @@
+package dev.mlnr.blh.core.api;
+
+import dev.mlnr.blh.core.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Describes the stats endpoint of a bot list: where the stats are posted, how the token is sent and how the payload is named.
+ *
+ * <p>Every {@link BotList} has a built-in endpoint, see {@link #of(BotList)}. If a bot list changes its API,
+ * the endpoint can be replaced by {@link BLHBuilder#setEndpoint(BotList, BotListEndpoint)}
+ * or {@link BotListHandler#setEndpoint(BotList, BotListEndpoint)} without waiting for a new release.
+ * An endpoint is compiled once when it's registered, so posting to it is as cheap as posting to a built-in one.
+ *
+ * <p>Example:
+ * <pre>{@code
+ * BotListEndpoint endpoint = BotListEndpoint.builder("https://example.com/api/v2/bots/%s/stats", "guilds")
+ *     .setAuthorization("Authorization", "Bot")
+ *     .setShardCountField("shards")
+ *     .build();
+ * }</pre>
+ */
+public final class BotListEndpoint {
+	/**
+	 * The placeholder for the bot id in the URL template.
+	 */
+	public static final String BOT_ID_PLACEHOLDER = "%s";
+
+	private final String urlTemplate;
+	private final String authorizationHeader;
+	private final String authorizationScheme;
+	private final String serversField;
+	private final String shardCountField;
+	private final String shardsField;
+
+	private BotListEndpoint(Builder builder) {
+		this.urlTemplate = builder.urlTemplate;
+		this.authorizationHeader = builder.authorizationHeader;
+		this.authorizationScheme = builder.authorizationScheme;
+		this.serversField = builder.serversField;
+		this.shardCountField = builder.shardCountField;
+		this.shardsField = builder.shardsField;
+	}
+
+	/**
+	 * Returns the built-in endpoint of a bot list.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot list is {@code null}
+	 *
+	 * @return The built-in endpoint
+	 */
+	@Nonnull
+	public static BotListEndpoint of(@Nonnull BotList botList) {
+		Checks.notNull(botList, "The bot list");
+
+		return builder(botList.getUrl(), botList.getServersParam())
+				.setShardCountField(botList.getShardCountParam())
+				.setShardsField(botList.getShardsParam())
+				.build();
+	}
+
+	/**
+	 * Creates a builder for an endpoint.
+	 *
+	 * @param  urlTemplate
+	 *         The URL of the stats endpoint, containing {@value #BOT_ID_PLACEHOLDER} exactly once in place of the bot id
+	 * @param  serversField
+	 *         The name of the JSON field holding the server count
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided URL template or field is {@code null}, or if the URL template doesn't contain the placeholder exactly once
+	 * @throws IllegalStateException
+	 *         If the provided field is empty
+	 *
+	 * @return The builder
+	 */
+	@Nonnull
+	public static Builder builder(@Nonnull String urlTemplate, @Nonnull String serversField) {
+		Checks.notNull(urlTemplate, "The URL template");
+		int placeholder = urlTemplate.indexOf(BOT_ID_PLACEHOLDER);
+		if (placeholder == -1 || urlTemplate.indexOf(BOT_ID_PLACEHOLDER, placeholder + 1) != -1)
+			throw new IllegalArgumentException("The URL template must contain " + BOT_ID_PLACEHOLDER + " exactly once");
+		Checks.notEmpty(serversField, "The servers field");
+
+		return new Builder(urlTemplate, serversField);
+	}
+
+	@Nonnull
+	public String getUrlTemplate() {
+		return urlTemplate;
+	}
+
+	@Nonnull
+	public String getAuthorizationHeader() {
+		return authorizationHeader;
+	}
+
+	@Nullable
+	public String getAuthorizationScheme() {
+		return authorizationScheme;
+	}
+
+	@Nonnull
+	public String getServersField() {
+		return serversField;
+	}
+
+	@Nullable
+	public String getShardCountField() {
+		return shardCountField;
+	}
+
+	@Nullable
+	public String getShardsField() {
+		return shardsField;
+	}
+
+	@Override
+	public String toString() {
+		return "BotListEndpoint{url=" + urlTemplate + ", authorization=" + authorizationHeader
+				+ (authorizationScheme == null ? "" : " " + authorizationScheme) + ", servers=" + serversField + "}";
+	}
+
+	public static final class Builder {
+		private final String urlTemplate;
+		private final String serversField;
+		private String authorizationHeader = "Authorization";
+		private String authorizationScheme;
+		private String shardCountField;
+		private String shardsField;
+
+		private Builder(String urlTemplate, String serversField) {
+			this.urlTemplate = urlTemplate;
+			this.serversField = serversField;
+		}
+
+		/**
+		 * Sets the header the token is sent in.
+		 *
+		 * <br>Default: the token as is in the {@code Authorization} header
+		 *
+		 * @param  header
+		 *         The name of the header
+		 * @param  scheme
+		 *         The scheme put in front of the token, e.g. {@code Bot} or {@code Bearer}, or {@code null} to send the token as is
+		 *
+		 * @throws IllegalArgumentException
+		 *         If the provided header is {@code null}
+		 * @throws IllegalStateException
+		 *         If the provided header or scheme is empty
+		 *
+		 * @return This Builder instance
+		 */
+		@Nonnull
+		public Builder setAuthorization(@Nonnull String header, @Nullable String scheme) {
+			Checks.notEmpty(header, "The authorization header");
+			if (scheme != null)
+				Checks.notEmpty(scheme, "The authorization scheme");
+
+			this.authorizationHeader = header;
+			this.authorizationScheme = scheme;
+			return this;
+		}
+
+		/**
+		 * Sets the name of the JSON field holding the shard count of a sharded bot.
+		 *
+		 * <br>Default: {@code null}
+		 *
+		 * @param  shardCountField
+		 *         The name of the field, or {@code null} if the bot list doesn't accept the shard count
+		 *
+		 * @return This Builder instance
+		 */
+		@Nonnull
+		public Builder setShardCountField(@Nullable String shardCountField) {
+			this.shardCountField = shardCountField;
+			return this;
+		}
+
+		/**
+		 * Sets the name of the JSON field holding the array of per-shard server counts of a sharded bot.
+		 *
+		 * <br>Default: {@code null}
+		 *
+		 * @param  shardsField
+		 *         The name of the field, or {@code null} if the bot list doesn't accept the per-shard server counts
+		 *
+		 * @return This Builder instance
+		 */
+		@Nonnull
+		public Builder setShardsField(@Nullable String shardsField) {
+			this.shardsField = shardsField;
+			return this;
+		}
+
+		@Nonnull
+		public BotListEndpoint build() {
+			return new BotListEndpoint(this);
+		}
+	}
+}
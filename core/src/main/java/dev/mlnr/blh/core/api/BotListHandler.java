@@ -1,57 +1,156 @@
 package dev.mlnr.blh.core.api;
 
 import dev.mlnr.blh.core.internal.config.AutoPostingConfig;
+import dev.mlnr.blh.core.internal.cluster.ClusterNode;
+import dev.mlnr.blh.core.internal.config.CircuitBreakerConfig;
+import dev.mlnr.blh.core.internal.config.ClusterConfig;
+import dev.mlnr.blh.core.internal.config.CoalescingConfig;
+import dev.mlnr.blh.core.internal.config.ExecutionConfig;
+import dev.mlnr.blh.core.internal.config.HttpConfig;
 import dev.mlnr.blh.core.internal.config.LoggingConfig;
+import dev.mlnr.blh.core.internal.dispatch.AutoPoster;
+import dev.mlnr.blh.core.internal.dispatch.StatsCoalescer;
+import dev.mlnr.blh.core.internal.dispatch.StatsSampler;
+import dev.mlnr.blh.core.internal.executor.Bulkheads;
+import dev.mlnr.blh.core.internal.executor.InFlightTracker;
+import dev.mlnr.blh.core.internal.executor.TaskScheduler;
+import dev.mlnr.blh.core.internal.executor.VirtualThreads;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import dev.mlnr.blh.core.internal.http.DefaultTransports;
+import dev.mlnr.blh.core.internal.http.EndpointRegistry;
+import dev.mlnr.blh.core.internal.http.EndpointRenderer;
+import dev.mlnr.blh.core.internal.http.PreparingTransport;
+import dev.mlnr.blh.core.internal.http.RequestTemplate;
+import dev.mlnr.blh.core.internal.metrics.BotListMetricsRecorder;
+import dev.mlnr.blh.core.internal.ratelimit.RateLimiter;
+import dev.mlnr.blh.core.internal.state.BotContext;
+import dev.mlnr.blh.core.internal.state.BotListState;
+import dev.mlnr.blh.core.internal.state.BotListStates;
+import dev.mlnr.blh.core.internal.state.CircuitBreakers;
+import dev.mlnr.blh.core.internal.state.StateStore;
+import dev.mlnr.blh.core.internal.state.StatsSnapshot;
 import dev.mlnr.blh.core.internal.utils.Checks;
-import okhttp3.*;
+import dev.mlnr.blh.core.internal.utils.LongObjectMap;
+import dev.mlnr.blh.core.internal.utils.SlotArray;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
-import java.util.*;
-import java.util.concurrent.*;
-import java.util.function.Predicate;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongPredicate;
 
-public class BotListHandler {
-	private final Map<BotList, String> botLists;
-	private final Predicate<Long> devModePredicate;
+public class BotListHandler implements AutoCloseable {
+	// the bot lists added without a bot id, used by the first bot without its own bot lists
+	private final BotContext defaultContext;
+	private final AtomicLong defaultBotId = new AtomicLong(UNBOUND);
+	// the other bots without their own bot lists, sharing the tokens of the default context
+	private final LongObjectMap<BotContext> defaultBots = new LongObjectMap<>();
+	private final LongObjectMap<BotContext> bots = new LongObjectMap<>();
+	private final LongPredicate devModePredicate;
 	private final boolean unavailableEventsEnabled;
 	private final AutoPostingConfig autoPostingConfig;
+	// set once autoposting started, custom bot lists added at runtime get their auto poster once they're added
+	private final SlotArray<AtomicBoolean> startedAutoPosters = new SlotArray<>(BotList.values().length, AtomicBoolean::new);
+	private volatile StatsSampler autoPostingSampler;
+	private long autoPostingPhaseBotId;
 	private final LoggingConfig loggingConfig;
+	// shared by every bot, an outage of a bot list opens its circuit once
+	private final CircuitBreakers circuitBreakers;
+	private final PostingPolicy postingPolicy;
+	private final CoalescingConfig coalescingConfig;
 
 	private static final Logger logger = LoggerFactory.getLogger(BotListHandler.class);
-	private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor();
-	private final OkHttpClient httpClient = new OkHttpClient();
+	private static final long DEFAULT_RETRY_DELAY = TimeUnit.SECONDS.toNanos(15);
+	private static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+	private static final Duration DEFAULT_REPORT_TIMEOUT = Duration.ofSeconds(30);
+	private static final long RECONCILIATION_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+	private static final long UNBOUND = -1;
+	private final TaskScheduler scheduler;
+	private final boolean virtualThreadsEnabled;
+	private final HttpConfig httpConfig;
+	private final EndpointRegistry endpoints;
+	private final boolean ownsTransport;
+	private final Object transportLock = new Object();
+	private volatile HttpTransport transport;
+	private boolean transportClosed;
+	private final AtomicBoolean reconciliationScheduled = new AtomicBoolean();
+	private final Set<CompletableFuture<StatsResponse>> calls = ConcurrentHashMap.newKeySet();
+	private final long callTimeout;
+	private final Bulkheads bulkheads;
+	private final InFlightTracker inFlightRequests = new InFlightTracker();
+	private final AtomicBoolean shutdown = new AtomicBoolean();
+	private final Set<UpdateCycle> pendingCycles = ConcurrentHashMap.newKeySet();
+	private final SlotArray<BotListMetricsRecorder> metricsRecorders = new SlotArray<>(BotList.values().length, BotListMetricsRecorder::new);
 
-	private final Set<BotList> ratelimitedBotLists;
-	private final Set<BotList> unauthorizedBotLists;
+	// shared by all bots, as the bot lists limit per host, custom bot lists get theirs on first use
+	private final SlotArray<AtomicReference<RateLimiter>> rateLimiters = new SlotArray<>(BotList.values().length, AtomicReference::new);
+	private final StateStore stateStore;
+	private final ClusterNode cluster;
 
-	private final Map<BotList, Integer> errorOccurrences;
-
-	private long previousGuildCount = -1;
-
-	BotListHandler(Map<BotList, String> botListMap, Predicate<Long> devModePredicate, boolean unavailableEventsEnabled,
-	               AutoPostingConfig autoPostingConfig, LoggingConfig loggingConfig) {
-		this.botLists = botListMap;
+	BotListHandler(Map<BotList, String> botListMap, Map<Long, Map<BotList, String>> botMap, Map<CustomBotList, String> customBotListMap,
+	               Map<Long, Map<CustomBotList, String>> customBotMap, LongPredicate devModePredicate,
+	               boolean unavailableEventsEnabled, PostingPolicy postingPolicy, AutoPostingConfig autoPostingConfig,
+	               LoggingConfig loggingConfig, CoalescingConfig coalescingConfig, CircuitBreakerConfig circuitBreakerConfig,
+	               ExecutionConfig executionConfig, HttpConfig httpConfig, StateStore stateStore) {
+		this.virtualThreadsEnabled = executionConfig.isVirtualThreadsEnabled();
+		this.scheduler = new TaskScheduler(executionConfig.getScheduler(),
+				virtualThreadsEnabled ? VirtualThreads.newExecutor("BotListHandler-Task-") : null);
+		this.httpConfig = httpConfig;
+		Set<CustomBotList> customBotLists = new LinkedHashSet<>(customBotListMap.keySet());
+		customBotMap.values().forEach(botLists -> customBotLists.addAll(botLists.keySet()));
+		this.endpoints = new EndpointRegistry(httpConfig.getEndpoints(), customBotLists);
+		this.callTimeout = httpConfig.getCallTimeout();
+		this.bulkheads = new Bulkheads(httpConfig.getMaxConcurrentRequests(), httpConfig.getCustomMaxConcurrentRequests());
+		this.ownsTransport = httpConfig.getTransport() == null;
+		this.coalescingConfig = coalescingConfig;
+		this.defaultContext = newContext(BotContext.newTokens());
+		botListMap.forEach((botList, token) -> defaultContext.getTokens().get(botList.ordinal()).set(token));
+		customBotListMap.forEach((botList, token) -> defaultContext.getTokens().get(endpoints.find(botList).getIndex()).set(token));
+		botMap.forEach((botId, botLists) -> {
+			BotContext context = bots.computeIfAbsent(botId, id -> newContext(BotContext.newTokens()));
+			botLists.forEach((botList, token) -> context.getTokens().get(botList.ordinal()).set(token));
+		});
+		customBotMap.forEach((botId, botLists) -> {
+			BotContext context = bots.computeIfAbsent(botId, id -> newContext(BotContext.newTokens()));
+			botLists.forEach((botList, token) -> context.getTokens().get(endpoints.find(botList).getIndex()).set(token));
+		});
 		this.devModePredicate = devModePredicate;
 		this.unavailableEventsEnabled = unavailableEventsEnabled;
 		this.autoPostingConfig = autoPostingConfig;
 		this.loggingConfig = loggingConfig;
-		this.ratelimitedBotLists = EnumSet.noneOf(BotList.class);
-		this.unauthorizedBotLists = EnumSet.noneOf(BotList.class);
-
-		this.errorOccurrences = new EnumMap<>(BotList.class);
+		this.circuitBreakers = new CircuitBreakers(circuitBreakerConfig);
+		this.postingPolicy = postingPolicy;
+		this.stateStore = stateStore;
+		if (stateStore != null)
+			restoreState();
 
-		if (autoPostingConfig.isAutoPostingEnabled()) {
-			SCHEDULER.scheduleAtFixedRate(() -> updateAllStats(autoPostingConfig.getUpdater()), autoPostingConfig.getInitialDelay(),
-					autoPostingConfig.getDelay(), TimeUnit.MILLISECONDS);
-		}
+		this.cluster = openCluster(autoPostingConfig);
+		if (autoPostingConfig.isAutoPostingEnabled())
+			startAutoPosting(autoPostingConfig);
 	}
 
 	/**
 	 * Used to add bot lists at runtime.
 	 *
+	 * <br>Adding a {@link CircuitState#PARKED parked} bot list again resumes posting to it.
+	 *
 	 * @param  botList
 	 *         The bot list to add
 	 * @param  token
@@ -63,7 +162,101 @@ public class BotListHandler {
 	public void addBotList(@Nonnull BotList botList, @Nonnull String token) {
 		Checks.checkListAndToken(botList, token);
 
-		botLists.put(botList, token);
+		addBotList(defaultContext, BotListTarget.of(botList), token);
+		if (stateStore != null)
+			stateStore.parked(botList, false);
+	}
+
+	/**
+	 * Used to add custom bot lists at runtime, e.g. a bot list which isn't supported by this release yet.
+	 *
+	 * <br>The custom bot list is only known to this handler. Adding a custom bot list with the name of one which has been added already
+	 * replaces its endpoint and ratelimit and keeps its state.
+	 * <br>Adding a {@link CircuitState#PARKED parked} bot list again resumes posting to it.
+	 *
+	 * @param  customBotList
+	 *         The custom bot list to add
+	 * @param  token
+	 *         The token for the bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided custom bot list or token is {@code null} or empty
+	 */
+	public void addBotList(@Nonnull CustomBotList customBotList, @Nonnull String token) {
+		Checks.checkListAndToken(customBotList, token);
+
+		addBotList(defaultContext, register(customBotList), token);
+	}
+
+	/**
+	 * Used to add bot lists for a specific bot at runtime.
+	 *
+	 * <br>Bots with their own bot lists only post to those, bots without their own bot lists post to the bot lists added without a bot id.
+	 * All bots share the HTTP client, the scheduler and the rate limits of the bot lists, so one handler can serve many bots.
+	 * <br>Adding a {@link CircuitState#PARKED parked} bot list again resumes posting to it.
+	 *
+	 * @param  botId
+	 *         The id of the bot
+	 * @param  botList
+	 *         The bot list to add
+	 * @param  token
+	 *         The token of the bot for the bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot id is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided bot list or token is {@code null} or empty
+	 */
+	public void addBotList(long botId, @Nonnull BotList botList, @Nonnull String token) {
+		Checks.notNegative(botId, "The bot id");
+		Checks.checkListAndToken(botList, token);
+
+		addBotList(botId, BotListTarget.of(botList), token);
+	}
+
+	/**
+	 * Used to add custom bot lists for a specific bot at runtime.
+	 *
+	 * @param  botId
+	 *         The id of the bot
+	 * @param  customBotList
+	 *         The custom bot list to add
+	 * @param  token
+	 *         The token of the bot for the bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot id is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided custom bot list or token is {@code null} or empty
+	 *
+	 * @see #addBotList(long, BotList, String)
+	 * @see #addBotList(CustomBotList, String)
+	 */
+	public void addBotList(long botId, @Nonnull CustomBotList customBotList, @Nonnull String token) {
+		Checks.notNegative(botId, "The bot id");
+		Checks.checkListAndToken(customBotList, token);
+
+		addBotList(botId, register(customBotList), token);
+	}
+
+	/**
+	 * Removes a bot and all of its bot lists which were added using {@link #addBotList(long, BotList, String)}.
+	 * Afterwards, the bot posts to the bot lists added without a bot id, if there are any.
+	 *
+	 * @param  botId
+	 *         The id of the bot
+	 *
+	 * @return Whether the bot had its own bot lists
+	 */
+	public boolean removeBot(long botId) {
+		BotContext shared = defaultBots.remove(botId);
+		if (shared != null)
+			discard(shared);
+		BotContext context = bots.remove(botId);
+		if (context == null)
+			return false;
+		discard(context);
+		return true;
 	}
 
 	/**
@@ -80,12 +273,280 @@ public class BotListHandler {
 	 *         If the provided token is the same as the previous one
 	 */
 	public void swapToken(@Nonnull BotList botList, @Nonnull String newToken) {
-		String previousToken = botLists.get(botList);
-		Checks.check(previousToken == null, "The bot list hasn't been added");
-		Checks.check(previousToken.equals(newToken), "The new token may not be the same as the previous one");
+		Checks.notNull(botList, "The bot list");
+
+		swapToken(defaultContext, BotListTarget.of(botList), newToken);
+		if (stateStore != null)
+			stateStore.authorized(botList);
+	}
+
+	/**
+	 * Used to hotswap invalid tokens of custom bot lists at runtime.
+	 *
+	 * @param  customBotList
+	 *         The custom bot list to replace the token for
+	 * @param  newToken
+	 *         The new token to use for the provided bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided custom bot list is {@code null}
+	 * @throws IllegalStateException
+	 *         If the bot list hasn't been added
+	 * @throws IllegalStateException
+	 *         If the provided token is the same as the previous one
+	 */
+	public void swapToken(@Nonnull CustomBotList customBotList, @Nonnull String newToken) {
+		swapToken(defaultContext, findCustom(customBotList), newToken);
+	}
+
+	/**
+	 * Used to hotswap invalid tokens of a specific bot at runtime.
+	 *
+	 * @param  botId
+	 *         The id of the bot
+	 * @param  botList
+	 *         The bot list to replace the token for
+	 * @param  newToken
+	 *         The new token to use for the provided bot list
+	 *
+	 * @throws IllegalStateException
+	 *         If the bot or the bot list hasn't been added
+	 * @throws IllegalStateException
+	 *         If the provided token is the same as the previous one
+	 *
+	 * @see #addBotList(long, BotList, String)
+	 */
+	public void swapToken(long botId, @Nonnull BotList botList, @Nonnull String newToken) {
+		Checks.notNull(botList, "The bot list");
+		BotContext context = bots.get(botId);
+		Checks.check(context == null, "The bot hasn't been added");
+
+		swapToken(context, BotListTarget.of(botList), newToken);
+	}
+
+	/**
+	 * Used to hotswap invalid tokens of custom bot lists of a specific bot at runtime.
+	 *
+	 * @param  botId
+	 *         The id of the bot
+	 * @param  customBotList
+	 *         The custom bot list to replace the token for
+	 * @param  newToken
+	 *         The new token to use for the provided bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided custom bot list is {@code null}
+	 * @throws IllegalStateException
+	 *         If the bot or the bot list hasn't been added
+	 * @throws IllegalStateException
+	 *         If the provided token is the same as the previous one
+	 *
+	 * @see #addBotList(long, CustomBotList, String)
+	 */
+	public void swapToken(long botId, @Nonnull CustomBotList customBotList, @Nonnull String newToken) {
+		BotListTarget botList = findCustom(customBotList);
+		BotContext context = bots.get(botId);
+		Checks.check(context == null, "The bot hasn't been added");
+
+		swapToken(context, botList, newToken);
+	}
+
+	/**
+	 * Replaces the endpoint the stats for a bot list are posted to, e.g. after the bot list changed its API.
+	 *
+	 * <br>The endpoint is compiled once and used by all bots from the next post on.
+	 *
+	 * @param  botList
+	 *         The bot list to replace the endpoint for
+	 * @param  endpoint
+	 *         The new endpoint
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot list or endpoint is {@code null}
+	 *
+	 * @see BLHBuilder#setEndpoint(BotList, BotListEndpoint)
+	 */
+	public void setEndpoint(@Nonnull BotList botList, @Nonnull BotListEndpoint endpoint) {
+		Checks.notNull(botList, "The bot list");
+		Checks.notNull(endpoint, "The endpoint");
+
+		endpoints.set(botList, endpoint);
+	}
+
+	/**
+	 * Restores the built-in endpoint of a bot list.
+	 *
+	 * @param  botList
+	 *         The bot list to restore the endpoint for
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot list is {@code null}
+	 *
+	 * @see BotListEndpoint#of(BotList)
+	 */
+	public void resetEndpoint(@Nonnull BotList botList) {
+		Checks.notNull(botList, "The bot list");
+
+		endpoints.reset(botList);
+	}
+
+	/**
+	 * Returns the endpoint the stats for a bot list are posted to.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot list is {@code null}
+	 *
+	 * @return The endpoint
+	 */
+	@Nonnull
+	public BotListEndpoint getEndpoint(@Nonnull BotList botList) {
+		Checks.notNull(botList, "The bot list");
+
+		return endpoints.get(botList).getEndpoint();
+	}
+
+	/**
+	 * Shuts down this handler.
+	 *
+	 * <br>Pending coalesced updates are posted, scheduled posts and retries are cancelled and requests which are in flight
+	 * are awaited until the timeout elapses. Afterwards, remaining requests of this handler are cancelled and the executor threads are released.
+	 * <b>Provided executors and HTTP clients are not shut down, only the tasks and requests of this handler are cancelled.</b>
+	 * The threads of the shared HTTP client stop on their own once they have been idle.
+	 * <br>Once shut down, stats updates are ignored. Calling this method again has no effect.
+	 *
+	 * @param  timeout
+	 *         The maximum time to wait for requests in flight
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided timeout is {@code null} or negative
+	 *
+	 * @return Whether all requests in flight were answered before the timeout elapsed
+	 */
+	public boolean shutdown(@Nonnull Duration timeout) {
+		Checks.notNull(timeout, "The timeout");
+		Checks.notNegative(timeout.toNanos(), "The timeout");
+		if (!shutdown.compareAndSet(false, true))
+			return true;
+
+		flushCoalescer(defaultContext);
+		defaultBots.forEachValue(BotListHandler::flushCoalescer);
+		bots.forEachValue(BotListHandler::flushCoalescer);
+		scheduler.shutdown();
+		pendingCycles.forEach(UpdateCycle::timeout);
+		boolean drained;
+		try {
+			drained = inFlightRequests.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			drained = false;
+		}
+		calls.forEach(call -> call.cancel(true));
+		synchronized (transportLock) {
+			transportClosed = true;
+			if (ownsTransport && transport != null)
+				transport.close();
+		}
+		if (stateStore != null)
+			stateStore.close();
+		if (cluster != null)
+			cluster.close();
+		return drained;
+	}
+
+	/**
+	 * Shuts down this handler, waiting up to 10 seconds for requests in flight.
+	 *
+	 * @see #shutdown(Duration)
+	 */
+	@Override
+	public void close() {
+		shutdown(DEFAULT_SHUTDOWN_TIMEOUT);
+	}
+
+	/**
+	 * Returns whether this handler has been shut down.
+	 *
+	 * @return Whether this handler has been shut down
+	 */
+	public boolean isShutdown() {
+		return shutdown.get();
+	}
+
+	/**
+	 * Returns a snapshot of the request metrics of this handler.
+	 *
+	 * <br>Request counts by outcome, latencies, time spent ratelimited and the time of the last successful update are tracked per bot list.
+	 *
+	 * @return The metrics snapshot
+	 */
+	@Nonnull
+	public BLHMetrics getMetrics() {
+		return new BLHMetrics(endpoints.targets(), this::metricsRecorder);
+	}
+
+	/**
+	 * Returns the state of the circuit breaker of the provided bot list.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot list is {@code null}
+	 *
+	 * @return The circuit state
+	 *
+	 * @see BLHBuilder#setCircuitBreaker(int, long, long, TimeUnit)
+	 */
+	@Nonnull
+	public CircuitState getCircuitState(@Nonnull BotList botList) {
+		Checks.notNull(botList, "The bot list");
+
+		return circuitState(defaultContext, BotListTarget.of(botList));
+	}
+
+	/**
+	 * Returns the state of the circuit breaker of the provided custom bot list.
+	 *
+	 * @param  customBotList
+	 *         The custom bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided custom bot list is {@code null}
+	 *
+	 * @return The circuit state, {@link CircuitState#CLOSED} if the custom bot list hasn't been added
+	 */
+	@Nonnull
+	public CircuitState getCircuitState(@Nonnull CustomBotList customBotList) {
+		Checks.notNull(customBotList, "The custom bot list");
+
+		BotListTarget botList = endpoints.find(customBotList);
+		return botList == null ? CircuitState.CLOSED : circuitState(defaultContext, botList);
+	}
+
+	/**
+	 * Returns the state of the circuit breaker of the provided bot list for a specific bot.
+	 * The circuit of a bot list is shared by every bot, but a bot list is only {@link CircuitState#PARKED parked} for the bot
+	 * whose request got {@code 404} or {@code 410}.
+	 *
+	 * @param  botId
+	 *         The id of the bot
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided bot list is {@code null}
+	 *
+	 * @return The circuit state
+	 */
+	@Nonnull
+	public CircuitState getCircuitState(long botId, @Nonnull BotList botList) {
+		Checks.notNull(botList, "The bot list");
 
-		addBotList(botList, newToken);
-		unauthorizedBotLists.remove(botList); // if the bot list isn't unauthorized, nothing will happen
+		return circuitState(findContext(botId), BotListTarget.of(botList));
 	}
 
 	// "internal" methods
@@ -110,14 +571,11 @@ public class BotListHandler {
 		return unavailableEventsEnabled;
 	}
 
-	void updateAllStats(IBLHUpdater updater) {
-		updateAllStats(updater.getBotId(), updater.getServerCount());
-	}
-
 	/**
 	 * A method to update the stats for all added {@link BotList BotLists}.
 	 *
-	 * <br><b>If the current saved server count is the same as the provided one, the call will be ignored.</b>
+	 * <br><b>If the {@link PostingPolicy posting policy} declines the provided server count for a bot list, it won't be posted to that bot list.</b>
+	 * <br>If a coalescing window was set, this only stores the count and the latest stored count will be posted once the window elapses.
 	 *
 	 * @param  botId
 	 *         The id of the bot to update the stats for
@@ -128,72 +586,621 @@ public class BotListHandler {
 	 *         If the provided server amount is negative
 	 */
 	public void updateAllStats(long botId, long serverCount) {
+		updateAllStats(botId, serverCount, null, true);
+	}
+
+	/**
+	 * A method to update the stats of a sharded bot for all added {@link BotList BotLists}.
+	 *
+	 * <br>The total server amount is posted to every bot list, the shard counts are sent along in the same request
+	 * to bot lists which accept them. No request per shard is made.
+	 * <br><b>If the {@link PostingPolicy posting policy} declines the sum of the provided server amounts for a bot list, it won't be posted to that bot list.</b>
+	 *
+	 * @param  botId
+	 *         The id of the bot to update the stats for
+	 * @param  shardServerCounts
+	 *         The amount of servers of every shard, indexed by the shard id
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided array is {@code null} or contains a negative server amount
+	 * @throws IllegalStateException
+	 *         If the provided array is empty
+	 */
+	public void updateAllShardStats(long botId, @Nonnull long[] shardServerCounts) {
+		Checks.notNull(shardServerCounts, "The shard server amounts");
+		Checks.check(shardServerCounts.length == 0, "The shard server amounts may not be empty");
+
+		long[] shards = shardServerCounts.clone();
+		long serverCount = 0;
+		for (long shardServerCount : shards) {
+			Checks.notNegative(shardServerCount, "The shard server amount");
+			serverCount += shardServerCount;
+		}
+		updateAllStats(botId, serverCount, shards, true);
+	}
+
+	/**
+	 * A method to update the stats for all added {@link BotList BotLists} and to get notified about the results.
+	 *
+	 * <br>The returned future completes once every bot list has answered or 30 seconds have elapsed.
+	 * Bot lists which got ratelimited are reported as such, their retry runs in the background.
+	 * <br><b>Unlike {@link #updateAllStats(long, long)}, the count is posted right away even if a coalescing window was set.</b>
+	 *
+	 * @param  botId
+	 *         The id of the bot to update the stats for
+	 * @param  serverCount
+	 *         The amount of servers
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided server amount is negative
+	 *
+	 * @return A future completing with the report of this update cycle
+	 *
+	 * @see    #updateAllStatsAsync(long, long, Duration)
+	 */
+	@Nonnull
+	public CompletableFuture<UpdateReport> updateAllStatsAsync(long botId, long serverCount) {
+		return updateAllStatsAsync(botId, serverCount, DEFAULT_REPORT_TIMEOUT);
+	}
+
+	/**
+	 * A method to update the stats for all added {@link BotList BotLists} and to get notified about the results.
+	 *
+	 * <br>The returned future completes once every bot list has answered or the timeout has elapsed.
+	 * Bot lists which haven't answered by then are reported as {@link UpdateResult.Status#TIMED_OUT timed out}.
+	 *
+	 * @param  botId
+	 *         The id of the bot to update the stats for
+	 * @param  serverCount
+	 *         The amount of servers
+	 * @param  timeout
+	 *         The maximum time to wait for the bot lists
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided server amount is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided timeout is {@code null} or negative
+	 *
+	 * @return A future completing with the report of this update cycle
+	 */
+	@Nonnull
+	public CompletableFuture<UpdateReport> updateAllStatsAsync(long botId, long serverCount, @Nonnull Duration timeout) {
+		Checks.notNull(timeout, "The timeout");
+		Checks.notNegative(timeout.toNanos(), "The timeout");
+		Checks.notNegative(botId, "The bot id");
+		Checks.notNegative(serverCount, "The server amount");
+
+		UpdateCycle cycle = new UpdateCycle(serverCount, endpoints.targets());
+		if (shutdown.get() || devModePredicate.test(botId)) {
+			cycle.seal(null);
+			return cycle.getFuture();
+		}
+		pendingCycles.add(cycle);
+		cycle.getFuture().whenComplete((report, throwable) -> pendingCycles.remove(cycle));
+		Future<?> timeoutTask = scheduler.schedule(cycle::timeout, timeout.toNanos(), TimeUnit.NANOSECONDS);
+		postAllStats(context(botId), botId, serverCount, null, cycle);
+		cycle.seal(timeoutTask);
+		return cycle.getFuture();
+	}
+
+	private void updateAllStats(long botId, long serverCount, long[] shardServerCounts, boolean coalesce) {
+		if (shutdown.get() || devModePredicate.test(botId))
+			return;
+		Checks.notNegative(botId, "The bot id");
+		Checks.notNegative(serverCount, "The server amount");
+
+		BotContext context = context(botId);
+		StatsCoalescer coalescer = context.getCoalescer();
+		if (coalesce && coalescer != null)
+			coalescer.mark(botId, serverCount, shardServerCounts);
+		else
+			postAllStats(context, botId, serverCount, shardServerCounts, null);
+	}
+
+	private void postAllStats(BotContext context, long botId, long serverCount, long[] shardServerCounts, UpdateCycle cycle) {
+		context.getLatestStats().set(new StatsSnapshot(botId, serverCount, shardServerCounts));
+		boolean updated = false;
+		// a cycle expects the bot lists of the handler when it started
+		BotListTarget[] botLists = cycle == null ? endpoints.targets() : cycle.getTargets();
+		for (BotListTarget botList : botLists) {
+			String token = context.getTokens().get(botList.getIndex()).get();
+			if (token == null)
+				continue;
+			updated |= postStats(context, botList, token, botId, serverCount, shardServerCounts, cycle);
+		}
+		if (!updated && loggingConfig.isNoUpdateNecessaryLoggingEnabled())
+			logger.info("No stats updating was necessary.");
+	}
+
+	private boolean postStats(BotContext context, BotListTarget botList, String token, long botId, long serverCount, long[] shardServerCounts,
+	                          UpdateCycle cycle) {
+		if (cycle != null)
+			cycle.expect(botList);
+		if (!context.getStates().claim(botList, serverCount, postingPolicy)) {
+			if (cycle != null)
+				cycle.complete(botList, UpdateResult.Status.SKIPPED);
+			return false;
+		}
+		updateStats(context, botList, token, botId, serverCount, shardServerCounts, false, cycle);
+		return true;
+	}
+
+	/**
+	 * Starts an {@link AutoPoster} for every bot list, bot lists which haven't been added are skipped on every run,
+	 * so bot lists added at runtime are picked up.
+	 */
+	private void startAutoPosting(AutoPostingConfig autoPostingConfig) {
+		IBLHUpdater updater = autoPostingConfig.getUpdater();
+		if (cluster != null)
+			scheduler.scheduleAtFixedRate(cluster::heartbeat, 0, cluster.getHeartbeatInterval(), TimeUnit.MILLISECONDS);
+		try {
+			autoPostingPhaseBotId = updater.getBotId();
+		}
+		catch (RuntimeException e) {
+			// the bot isn't logged in yet, the phases are still spread, but not stable across restarts
+			autoPostingPhaseBotId = ThreadLocalRandom.current().nextLong();
+		}
+		// the stats are sampled once per period and shared by the staggered bot lists
+		autoPostingSampler = new StatsSampler(() -> cluster == null
+				? new StatsSnapshot(updater.getBotId(), updater.getServerCount(), updater.getShardServerCounts())
+				: cluster.aggregate(), autoPostingConfig.getDelay());
+		for (BotListTarget botList : endpoints.targets())
+			startAutoPoster(botList);
+	}
+
+	private void startAutoPoster(BotListTarget botList) {
+		StatsSampler sampler = autoPostingSampler;
+		if (sampler == null || !startedAutoPosters.get(botList.getIndex()).compareAndSet(false, true))
+			return;
+		IBLHUpdater updater = autoPostingConfig.getUpdater();
+		AutoPoster autoPoster = new AutoPoster(scheduler, botList, autoPostingConfig.getDelay(), autoPostingConfig.getJitter(),
+				() -> autoPost(updater, sampler, botList));
+		autoPoster.start(autoPostingConfig.getInitialDelay(), AutoPoster.phaseSeed(autoPostingPhaseBotId, botList));
+	}
+
+	private static ClusterNode openCluster(AutoPostingConfig autoPostingConfig) {
+		ClusterConfig clusterConfig = autoPostingConfig.getClusterConfig();
+		if (clusterConfig == null)
+			return null;
+		try {
+			return ClusterNode.open(clusterConfig, autoPostingConfig.getUpdater());
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Could not bind the cluster socket to " + clusterConfig.getNodes().get(clusterConfig.getNodeId()), e);
+		}
+	}
+
+	private void autoPost(IBLHUpdater updater, StatsSampler sampler, BotListTarget botList) {
+		if (shutdown.get())
+			return;
+		// only the poster posts the stats of a cluster
+		if (cluster != null && !cluster.isPoster())
+			return;
+		long botId = updater.getBotId();
 		if (devModePredicate.test(botId))
 			return;
+		BotContext context = context(botId);
+		String token = context.getTokens().get(botList.getIndex()).get();
+		if (token == null)
+			return;
+		StatsSnapshot stats = sampler.sample();
+		long serverCount = stats.getServerCount();
 		Checks.notNegative(botId, "The bot id");
 		Checks.notNegative(serverCount, "The server amount");
+		long[] shardServerCounts = stats.getShardServerCounts();
+		context.getLatestStats().set(stats);
+		if (!postStats(context, botList, token, botId, serverCount, shardServerCounts, null) && loggingConfig.isNoUpdateNecessaryLoggingEnabled())
+			logger.info("No stats updating was necessary for bot list {}.", botList.getName());
+	}
+
+	/**
+	 * Sends the claimed count again to every bot list which hasn't acknowledged it and has no request pending,
+	 * e.g. after a server error or an IO error. Bot lists which are up to date aren't posted to.
+	 * Runs every {@link #RECONCILIATION_INTERVAL} once something was posted, package-private so tests don't have to wait for it.
+	 */
+	void reconcile() {
+		if (shutdown.get())
+			return;
+		reconcile(defaultContext);
+		defaultBots.forEachValue(this::reconcile);
+		bots.forEachValue(this::reconcile);
+	}
+
+	private void reconcile(BotContext context) {
+		StatsSnapshot latest = context.getLatestStats().get();
+		if (latest == null)
+			return;
+		for (BotListTarget botList : endpoints.targets())
+			reconcile(context, latest, botList);
+	}
 
-		if (serverCount == previousGuildCount) {
-			if (loggingConfig.isNoUpdateNecessaryLoggingEnabled())
-				logger.info("No stats updating was necessary.");
+	/**
+	 * Sends the counts which a full bulkhead refused to the bot list, once a request to it released its permit.
+	 */
+	private void reconcileBlocked(BotListTarget botList) {
+		if (shutdown.get())
 			return;
+		reconcileBlocked(defaultContext, botList);
+		defaultBots.forEachValue(context -> reconcileBlocked(context, botList));
+		bots.forEachValue(context -> reconcileBlocked(context, botList));
+	}
+
+	private void reconcileBlocked(BotContext context, BotListTarget botList) {
+		StatsSnapshot latest = context.getLatestStats().get();
+		if (latest != null)
+			reconcile(context, latest, botList);
+	}
+
+	private void reconcile(BotContext context, StatsSnapshot latest, BotListTarget botList) {
+		int index = botList.getIndex();
+		String token = context.getTokens().get(index).get();
+		if (token == null)
+			return;
+		BotListState state = context.getStates().get(botList);
+		AtomicInteger pendingRequests = context.getPendingRequests().get(index);
+		if (!state.needsReconciliation() || !pendingRequests.compareAndSet(0, 1))
+			return;
+		try {
+			long serverCount = state.getLastPostedCount();
+			// the shard counts are only known for the latest count
+			long[] shardServerCounts = serverCount == latest.getServerCount() ? latest.getShardServerCounts() : null;
+			updateStats(context, botList, token, latest.getBotId(), serverCount, shardServerCounts, false, null);
+		}
+		finally {
+			pendingRequests.decrementAndGet();
 		}
-		previousGuildCount = serverCount;
-		botLists.forEach((botList, token) -> updateStats(botList, token, botId, serverCount, false));
 	}
 
-	void updateStats(BotList botList, String token, long botId, long serverCount, boolean retriedRequest) {
-		if (ratelimitedBotLists.contains(botList) && !retriedRequest)
+	private void updateStats(BotContext context, BotListTarget botList, String token, long botId, long serverCount, long[] shardServerCounts,
+	                         boolean retriedRequest, UpdateCycle cycle) {
+		BotListStates states = context.getStates();
+		BotListState.Status status = states.get(botList).getStatus();
+		if (status == BotListState.Status.PARKED) {
+			if (cycle != null)
+				cycle.complete(botList, UpdateResult.Status.BLOCKED);
+			return;
+		}
+		if (status == BotListState.Status.RATELIMITED && !retriedRequest) {
+			// the scheduled retry posts the newest count instead of the ratelimited one
+			context.getRetries().replace(botList, new StatsSnapshot(botId, serverCount, shardServerCounts));
+			if (cycle != null)
+				cycle.complete(botList, UpdateResult.Status.RATELIMITED);
 			return;
-		String botListName = botList.name();
-		if (unauthorizedBotLists.contains(botList)) {
+		}
+		String botListName = botList.getName();
+		if (status == BotListState.Status.UNAUTHORIZED) {
 			logger.warn("Dropping stats update for bot list {} as the provided token is invalid. " +
 					"You can hotswap the token by calling swapToken on the BotListHandler instance.", botListName);
+			if (cycle != null)
+				cycle.complete(botList, UpdateResult.Status.UNAUTHORIZED);
 			return;
 		}
-		String payload = "{\"" + botList.getServersParam() + "\":" + serverCount + "}";
-		String url = String.format(botList.getUrl(), botId);
-		Request.Builder requestBuilder = new Request.Builder().url(url)
-				.header("Authorization", token)
-				.post(RequestBody.create(payload, MediaType.parse("application/json")));
+		if (!bulkheads.tryAcquire(botList)) {
+			// the count stays unacknowledged and is reconciled once a request in flight finished
+			if (cycle != null)
+				cycle.complete(botList, UpdateResult.Status.BLOCKED);
+			return;
+		}
+		if (!circuitBreakers.tryAcquire(botList)) {
+			bulkheads.release(botList);
+			// the count stays unacknowledged and is reconciled once the circuit lets requests through
+			if (cycle != null)
+				cycle.complete(botList, UpdateResult.Status.BLOCKED);
+			return;
+		}
+		context.getPendingRequests().get(botList.getIndex()).incrementAndGet();
+		RateLimiter rateLimiter = rateLimiter(botList);
+		long delay = rateLimiter.reserve();
+		if (delay > 0) {
+			scheduler.schedule(() -> sendStats(context, botList, token, botId, serverCount, shardServerCounts, cycle), delay, TimeUnit.NANOSECONDS);
+			return;
+		}
+		sendStats(context, botList, token, botId, serverCount, shardServerCounts, cycle);
+	}
 
-		httpClient.newCall(requestBuilder.build()).enqueue(new Callback() {
-			@Override
-			public void onFailure(Call call, IOException e) {
-				logger.error("There was an error while updating the stats for bot list {}", botListName, e);
-			}
+	private void sendStats(BotContext context, BotListTarget botList, String token, long botId, long serverCount, long[] shardServerCounts,
+	                       UpdateCycle cycle) {
+		String botListName = botList.getName();
+		BotListStates states = context.getStates();
+		AtomicInteger pendingRequests = context.getPendingRequests().get(botList.getIndex());
+		// the state file only holds the state of the bot lists added without a bot id
+		StateStore stateStore = context == defaultContext && botList.isBuiltIn() ? this.stateStore : null;
+		RateLimiter rateLimiter = rateLimiter(botList);
+		BotListMetricsRecorder metrics = metricsRecorder(botList);
+		RequestTemplate template = getRequestTemplate(context, botList, botId, token);
+		StatsRequest request = template.createRequest(serverCount, shardServerCounts);
+		long startNanos = System.nanoTime();
+		// the reconciliation only has work once something was posted, handlers which never post don't start the scheduler thread
+		if (reconciliationScheduled.compareAndSet(false, true))
+			scheduler.scheduleAtFixedRate(this::reconcile, RECONCILIATION_INTERVAL, RECONCILIATION_INTERVAL, TimeUnit.MILLISECONDS);
 
-			@Override
-			public void onResponse(Call call, Response response) {
-				response.close();
-				if (response.isSuccessful()) {
-					if (loggingConfig.isSuccessLoggingEnabled())
-						logger.info("Successfully updated stats for bot list {}", botListName);
+		inFlightRequests.begin();
+		CompletableFuture<StatsResponse> call = send(template, request);
+		calls.add(call);
+		// cancelling the call makes the transport abort the request
+		Future<?> deadline = callTimeout == 0 ? null : scheduler.schedule(() -> call.cancel(true), callTimeout, TimeUnit.MILLISECONDS);
+		call.whenComplete((response, failure) -> {
+			calls.remove(call);
+			if (deadline != null)
+				deadline.cancel(false);
+			inFlightRequests.end();
+			bulkheads.release(botList);
+			pendingRequests.decrementAndGet();
+			if (failure != null) {
+				Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+				metrics.recordFailure(System.nanoTime() - startNanos);
+				// cancelled by the deadline or the shutdown, or timed out within the HTTP client
+				boolean timedOut = cause instanceof CancellationException || cause instanceof InterruptedIOException;
+				if (timedOut && !shutdown.get())
+					logger.error("Bot list {} didn't answer in time", botListName);
+				else if (!timedOut)
+					logger.error("There was an error while updating the stats for bot list {}", botListName, cause);
+				onFailed(states, botList);
+				if (cycle != null)
+					cycle.complete(botList, timedOut ? UpdateResult.Status.TIMED_OUT : UpdateResult.Status.IO_ERROR, -1, startNanos);
+				return;
+			}
+			rateLimiter.update(response);
+			persistRatelimit(botList);
+			int code = response.getCode();
+			metrics.recordResponse(code, System.nanoTime() - startNanos);
+			if (code >= 200 && code < 300) {
+				if (loggingConfig.isSuccessLoggingEnabled())
+					logger.info("Successfully updated stats for bot list {}", botListName);
 
-					ratelimitedBotLists.remove(botList); // if the bot list isn't in either of the sets, nothing will happen
-					errorOccurrences.remove(botList);
+				states.update(botList, state -> state.succeeded().acknowledged(serverCount));
+				circuitBreakers.onAnswered(botList);
+				if (stateStore != null)
+					stateStore.acknowledged(botList.getBotList(), serverCount, System.currentTimeMillis());
+				if (cycle != null)
+					cycle.complete(botList, UpdateResult.Status.SUCCESS, code, startNanos);
+			}
+			else {
+				if (code == 401) {
+					logger.error("Failed to update the stats for bot list {} as the provided token is invalid. " +
+								"You can hotswap the token by calling swapToken on the BotListHandler instance.", botListName);
+					states.update(botList, BotListState::unauthorized);
+					circuitBreakers.onAnswered(botList);
+					if (stateStore != null)
+						stateStore.unauthorized(botList.getBotList(), token);
+					if (cycle != null)
+						cycle.complete(botList, UpdateResult.Status.UNAUTHORIZED, code, startNanos);
+					return;
 				}
-				else {
-					int code = response.code();
-					if (code == 401) {
-						logger.error("Failed to update the stats for bot list {} as the provided token is invalid. " +
-									"You can hotswap the token by calling swapToken on the BotListHandler instance.", botListName);
-						unauthorizedBotLists.add(botList);
-						return;
-					}
-					if (code == 429) {
-						if (loggingConfig.isRatelimitedLoggingEnabled())
-							logger.warn("Failed to update the stats for bot list {} as we got ratelimited. Retrying in 15 seconds", botListName);
-						ratelimitedBotLists.add(botList);
-						SCHEDULER.schedule(() -> updateStats(botList, token, botId, serverCount, true), 15, TimeUnit.SECONDS);
-						return;
-					}
-					int occurrences = errorOccurrences.merge(botList, 1, Integer::sum);
-					int threshold = loggingConfig.getErrorThreshold();
-					if (threshold == 0 || occurrences <= threshold)
-						logger.error("Failed to update the stats for bot list {} with code {}", botListName, code);
+				if (code == 404 || code == 410) {
+					logger.error("Failed to update the stats for bot list {} with code {}. No more stats will be posted to it " +
+							"until it's added again by calling addBotList on the BotListHandler instance.", botListName, code);
+					states.update(botList, BotListState::parked);
+					circuitBreakers.onAnswered(botList);
+					if (stateStore != null)
+						stateStore.parked(botList.getBotList(), true);
+					if (cycle != null)
+						cycle.complete(botList, UpdateResult.Status.FAILED, code, startNanos);
+					return;
 				}
+				if (code == 429) {
+					long retryAfter = rateLimiter.onRatelimited(response, DEFAULT_RETRY_DELAY);
+					if (loggingConfig.isRatelimitedLoggingEnabled())
+						logger.warn("Failed to update the stats for bot list {} as we got ratelimited. Retrying in {} ms",
+								botListName, TimeUnit.NANOSECONDS.toMillis(retryAfter));
+					states.update(botList, BotListState::ratelimited);
+					circuitBreakers.onAnswered(botList);
+					persistRatelimit(botList);
+					if (cycle != null)
+						cycle.complete(botList, UpdateResult.Status.RATELIMITED, code, startNanos);
+					// a retry which is already scheduled posts these stats instead of the ones it was scheduled with
+					if (context.getRetries().offer(botList, new StatsSnapshot(botId, serverCount, shardServerCounts)))
+						scheduler.schedule(() -> retry(context, botList), retryAfter, TimeUnit.NANOSECONDS);
+					return;
+				}
+				int occurrences = onFailed(states, botList).getErrorCount();
+				int threshold = loggingConfig.getErrorThreshold();
+				if (threshold == 0 || occurrences <= threshold)
+					logger.error("Failed to update the stats for bot list {} with code {}", botListName, code);
+				if (cycle != null)
+					cycle.complete(botList, UpdateResult.Status.FAILED, code, startNanos);
 			}
+		}).whenComplete((ignored, ignoredFailure) -> {
+			// the counts refused by the full bulkhead are sent once this request is fully handled, so its own count isn't sent twice
+			if (bulkheads.takeBlocked(botList))
+				scheduler.schedule(() -> reconcileBlocked(botList), 0, TimeUnit.MILLISECONDS);
 		});
 	}
+
+	private void retry(BotContext context, BotListTarget botList) {
+		StatsSnapshot stats = context.getRetries().take(botList);
+		if (stats == null || shutdown.get())
+			return;
+		// the token may have been swapped or the bot list removed since the request got ratelimited
+		String token = context.getTokens().get(botList.getIndex()).get();
+		if (token == null)
+			return;
+		updateStats(context, botList, token, stats.getBotId(), stats.getServerCount(), stats.getShardServerCounts(), true, null);
+	}
+
+	private void restoreState() {
+		long now = System.currentTimeMillis();
+		// only the built-in bot lists are persisted, custom bot lists start from scratch
+		for (BotList botList : BotList.values()) {
+			BotListTarget target = BotListTarget.of(botList);
+			long lastAcknowledgedCount = stateStore.getLastAcknowledgedCount(botList);
+			long acknowledgedAt = stateStore.getAcknowledgedAt(botList);
+			String token = defaultContext.getTokens().get(botList.ordinal()).get();
+			boolean unauthorized = token != null && stateStore.isUnauthorized(botList, token);
+			boolean parked = stateStore.isParked(botList);
+			defaultContext.getStates().update(target, state -> {
+				BotListState restored = state.posted(lastAcknowledgedCount, acknowledgedAt).acknowledged(lastAcknowledgedCount);
+				if (unauthorized)
+					restored = restored.unauthorized();
+				return parked ? restored.parked() : restored;
+			});
+			rateLimiter(target).restoreBlock(TimeUnit.MILLISECONDS.toNanos(stateStore.getRatelimitedUntil(botList) - now));
+		}
+	}
+
+	private void persistRatelimit(BotListTarget botList) {
+		if (stateStore == null || !botList.isBuiltIn())
+			return;
+		long blocked = rateLimiter(botList).getBlockedNanos();
+		if (blocked > 0)
+			stateStore.ratelimitedUntil(botList.getBotList(), System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(blocked));
+	}
+
+	private RateLimiter rateLimiter(BotListTarget botList) {
+		AtomicReference<RateLimiter> holder = rateLimiters.get(botList.getIndex());
+		RateLimiter rateLimiter = holder.get();
+		if (rateLimiter == null) {
+			holder.compareAndSet(null, new RateLimiter(botList));
+			rateLimiter = holder.get();
+		}
+		return rateLimiter;
+	}
+
+	private BotListMetricsRecorder metricsRecorder(BotListTarget botList) {
+		return metricsRecorders.get(botList.getIndex());
+	}
+
+	private BotListTarget register(CustomBotList customBotList) {
+		BotListTarget previous = endpoints.find(customBotList);
+		BotListTarget botList = endpoints.register(customBotList);
+		// a changed ratelimit takes effect with a new bucket
+		if (previous != null && (previous.getRatelimit() != botList.getRatelimit() || previous.getRatelimitPeriod() != botList.getRatelimitPeriod()))
+			rateLimiters.get(botList.getIndex()).set(null);
+		return botList;
+	}
+
+	private BotListTarget findCustom(CustomBotList customBotList) {
+		Checks.notNull(customBotList, "The custom bot list");
+		BotListTarget botList = endpoints.find(customBotList);
+		Checks.check(botList == null, "The bot list hasn't been added");
+		return botList;
+	}
+
+	/**
+	 * Returns the context of a bot. The first bot without its own bot lists uses the default context, so the state file applies to it,
+	 * every other bot without its own bot lists gets a context sharing the tokens of the default context.
+	 */
+	private BotContext context(long botId) {
+		BotContext context = bots.get(botId);
+		if (context != null)
+			return context;
+		long bound = defaultBotId.get();
+		if (bound == UNBOUND) {
+			defaultBotId.compareAndSet(UNBOUND, botId);
+			bound = defaultBotId.get();
+		}
+		if (bound == botId)
+			return defaultContext;
+		return defaultBots.computeIfAbsent(botId, id -> newContext(defaultContext.getTokens()));
+	}
+
+	// looks the context up without creating it, null if the bot hasn't posted yet
+	private BotContext findContext(long botId) {
+		BotContext context = bots.get(botId);
+		if (context != null)
+			return context;
+		long bound = defaultBotId.get();
+		return bound == botId || bound == UNBOUND ? defaultContext : defaultBots.get(botId);
+	}
+
+	private BotContext newContext(SlotArray<AtomicReference<String>> tokens) {
+		return new BotContext(tokens, coalescingConfig.isCoalescingEnabled()
+				? context -> new StatsCoalescer(scheduler, coalescingConfig,
+						(botId, serverCount, shardServerCounts) -> postAllStats(context, botId, serverCount, shardServerCounts, null))
+				: null);
+	}
+
+	private static void discard(BotContext context) {
+		// pending coalesced stats are posted through the removed context, so they never reach the bot lists of another bot
+		flushCoalescer(context);
+		context.getRetries().clear();
+	}
+
+	private void addBotList(long botId, BotListTarget botList, String token) {
+		addBotList(bots.computeIfAbsent(botId, id -> newContext(BotContext.newTokens())), botList, token);
+		// the bot stops posting to the bot lists added without a bot id
+		BotContext previous = defaultBots.remove(botId);
+		if (previous != null)
+			flushCoalescer(previous);
+	}
+
+	private void addBotList(BotContext context, BotListTarget botList, String token) {
+		context.getTokens().get(botList.getIndex()).set(token);
+		context.getStates().update(botList, BotListState::unparked);
+		startAutoPoster(botList);
+	}
+
+	private void swapToken(BotContext context, BotListTarget botList, String newToken) {
+		AtomicReference<String> token = context.getTokens().get(botList.getIndex());
+		String previousToken = token.get();
+		Checks.check(previousToken == null, "The bot list hasn't been added");
+		Checks.check(previousToken.equals(newToken), "The new token may not be the same as the previous one");
+
+		token.set(newToken);
+		context.getStates().update(botList, BotListState::authorized); // if the bot list isn't unauthorized, nothing will happen
+	}
+
+	private static void flushCoalescer(BotContext context) {
+		if (context.getCoalescer() != null)
+			context.getCoalescer().flushNow();
+	}
+
+	private CircuitBreakers.Circuit onFailed(BotListStates states, BotListTarget botList) {
+		states.update(botList, BotListState::failed);
+		CircuitBreakers.Circuit circuit = circuitBreakers.onFailure(botList);
+		// only the failure which opened the circuit is logged, not the ones of the other bots' requests already in flight
+		if (circuit.isOpened()) {
+			long backoff = Math.max(0, circuit.getOpenUntil() - System.nanoTime());
+			logger.warn("Bot list {} failed {} times in a row, pausing stats updates for {} ms", botList.getName(),
+					circuit.getErrorCount(), TimeUnit.NANOSECONDS.toMillis(backoff));
+		}
+		return circuit;
+	}
+
+	// parking depends on the token of the bot, the circuit is shared by every bot
+	private CircuitState circuitState(BotContext context, BotListTarget botList) {
+		if (context != null && context.getStates().get(botList).getStatus() == BotListState.Status.PARKED)
+			return CircuitState.PARKED;
+		return circuitBreakers.get(botList).getState();
+	}
+
+	private RequestTemplate getRequestTemplate(BotContext context, BotListTarget botList, long botId, String token) {
+		AtomicReference<RequestTemplate> requestTemplate = context.getRequestTemplates().get(botList.getIndex());
+		RequestTemplate template = requestTemplate.get();
+		EndpointRenderer renderer = endpoints.get(botList);
+		if (template == null || !template.matches(renderer, botId, token)) {
+			template = new RequestTemplate(botList, renderer, botId, token);
+			requestTemplate.set(template);
+		}
+		return template;
+	}
+
+	private CompletableFuture<StatsResponse> send(RequestTemplate template, StatsRequest request) {
+		try {
+			HttpTransport transport = transport();
+			// built-in transports reuse the URL and the headers they prepared for the template
+			if (transport instanceof PreparingTransport)
+				return template.send((PreparingTransport<?>) transport, request);
+			return transport.send(request);
+		}
+		catch (RuntimeException e) {
+			CompletableFuture<StatsResponse> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+	}
+
+	private HttpTransport transport() {
+		HttpTransport transport = this.transport;
+		if (transport != null)
+			return transport;
+		synchronized (transportLock) {
+			if (this.transport == null) {
+				Checks.check(transportClosed, "The handler has been shut down");
+				// the HTTP client is only created on the first post, so handlers which never post don't load it
+				this.transport = ownsTransport ? DefaultTransports.create(httpConfig, virtualThreadsEnabled) : httpConfig.getTransport();
+			}
+			return this.transport;
+		}
+	}
 }
\ No newline at end of file
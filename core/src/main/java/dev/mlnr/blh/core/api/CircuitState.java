@@ -0,0 +1,27 @@
+package dev.mlnr.blh.core.api;
+
+/**
+ * The state of the circuit breaker of a bot list.
+ *
+ * @see BotListHandler#getCircuitState(BotList)
+ */
+public enum CircuitState {
+	/**
+	 * Stats are posted to the bot list.
+	 */
+	CLOSED,
+	/**
+	 * The bot list failed too many times in a row, stats updates are skipped until the backoff elapses.
+	 */
+	OPEN,
+	/**
+	 * The backoff elapsed and a single probe request is in flight. If it succeeds, the circuit is closed, otherwise it's opened again
+	 * with a longer backoff.
+	 */
+	HALF_OPEN,
+	/**
+	 * The bot list responded with {@code 404} or {@code 410}, stats won't be posted to it until it's added again
+	 * using {@link BotListHandler#addBotList(BotList, String)}.
+	 */
+	PARKED
+}
@@ -0,0 +1,102 @@
+package dev.mlnr.blh.core.api;
+
+import dev.mlnr.blh.core.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes a bot list which isn't a {@link BotList}, e.g. a bot list which isn't supported by this release yet.
+ *
+ * <p>A custom bot list is only known to the builders and handlers it's added to, there's no process-wide registry.
+ * Its endpoint is compiled once when it's added, so posting to it takes the same path as posting to a built-in bot list.
+ * Custom bot lists are identified by their name, adding a custom bot list with the name of one which has been added already
+ * replaces its endpoint and ratelimit, e.g. after a configuration reload.
+ *
+ * <p>Example:
+ * <pre>{@code
+ * CustomBotList exampleList = CustomBotList.of("example",
+ *     BotListEndpoint.builder("https://example.com/api/bots/%s/stats", "guilds").setAuthorization("Authorization", "Bot").build(),
+ *     30, 1, TimeUnit.MINUTES);
+ * BotListHandler botListHandler = new BLHBuilder().addBotList(exampleList, "example_token").build();
+ * }</pre>
+ */
+public final class CustomBotList {
+	private final String name;
+	private final BotListEndpoint endpoint;
+	private final int ratelimit;
+	private final long ratelimitPeriod;
+
+	private CustomBotList(String name, BotListEndpoint endpoint, int ratelimit, long ratelimitPeriod) {
+		this.name = name;
+		this.endpoint = endpoint;
+		this.ratelimit = ratelimit;
+		this.ratelimitPeriod = ratelimitPeriod;
+	}
+
+	/**
+	 * Describes a custom bot list.
+	 *
+	 * @param  name
+	 *         The name of the bot list, used in logs and identifying the bot list within a handler
+	 * @param  endpoint
+	 *         The stats endpoint of the bot list
+	 * @param  ratelimit
+	 *         The amount of requests the bot list allows per ratelimit period
+	 * @param  ratelimitPeriod
+	 *         The ratelimit period
+	 * @param  unit
+	 *         The time unit of the ratelimit period
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided name, endpoint or unit is {@code null}
+	 * @throws IllegalStateException
+	 *         If the provided name is empty, or if the ratelimit or the ratelimit period is less than 1 (millisecond)
+	 *
+	 * @return The custom bot list
+	 */
+	@Nonnull
+	public static CustomBotList of(@Nonnull String name, @Nonnull BotListEndpoint endpoint, int ratelimit, long ratelimitPeriod,
+	                               @Nonnull TimeUnit unit) {
+		Checks.notEmpty(name, "The name");
+		Checks.notNull(endpoint, "The endpoint");
+		Checks.notNull(unit, "The time unit");
+		Checks.check(ratelimit < 1, "The ratelimit cannot be less than 1");
+		Checks.check(unit.toMillis(ratelimitPeriod) < 1, "The ratelimit period cannot be less than 1 millisecond");
+
+		return new CustomBotList(name, endpoint, ratelimit, unit.toMillis(ratelimitPeriod));
+	}
+
+	@Nonnull
+	public String getName() {
+		return name;
+	}
+
+	@Nonnull
+	public BotListEndpoint getEndpoint() {
+		return endpoint;
+	}
+
+	public int getRatelimit() {
+		return ratelimit;
+	}
+
+	public long getRatelimitPeriod() {
+		return ratelimitPeriod;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof CustomBotList && name.equals(((CustomBotList) o).name);
+	}
+
+	@Override
+	public int hashCode() {
+		return name.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
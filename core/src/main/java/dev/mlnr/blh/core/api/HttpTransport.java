@@ -0,0 +1,90 @@
+package dev.mlnr.blh.core.api;
+
+import dev.mlnr.blh.core.internal.http.JdkHttpTransports;
+import dev.mlnr.blh.core.internal.http.OkHttpTransport;
+import dev.mlnr.blh.core.internal.http.SharedHttpClient;
+import dev.mlnr.blh.core.internal.utils.Checks;
+import okhttp3.OkHttpClient;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends stats requests to the bot lists.
+ *
+ * <br>Two transports are built in: {@link #okHttp()}, and {@link #jdk()}, which uses the HTTP client of the JDK
+ * and multiplexes requests over HTTP/2 to hosts which offer it. OkHttp is an optional dependency, the OkHttp transport is the default
+ * if OkHttp is on the classpath, the JDK transport otherwise. Other HTTP clients can be plugged in by implementing this interface.
+ *
+ * @see BLHBuilder#setTransport(HttpTransport)
+ */
+public interface HttpTransport {
+	/**
+	 * Sends the request asynchronously. This method must not block.
+	 *
+	 * <br>The returned future completes with the response once the status code and the headers have been received,
+	 * or exceptionally if the request failed. If the future is cancelled, the request should be cancelled as well.
+	 *
+	 * @param  request
+	 *         The request to send
+	 *
+	 * @return A future completing with the response
+	 */
+	@Nonnull
+	CompletableFuture<StatsResponse> send(@Nonnull StatsRequest request);
+
+	/**
+	 * Releases the resources owned by this transport. Called by the handler only for transports created by the handler.
+	 */
+	default void close() {}
+
+	/**
+	 * Returns the transport backed by the OkHttpClient shared by all handlers in the process.
+	 *
+	 * <br><b>OkHttp is an optional dependency, it has to be added to the dependencies to use this transport.</b>
+	 *
+	 * @return The OkHttp transport
+	 */
+	@Nonnull
+	static HttpTransport okHttp() {
+		return okHttp(SharedHttpClient.get());
+	}
+
+	/**
+	 * Returns a transport backed by the provided OkHttpClient.
+	 *
+	 * <br><b>OkHttp is an optional dependency, it has to be added to the dependencies to use this transport.</b>
+	 *
+	 * @param  httpClient
+	 *         The OkHttpClient to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided client is {@code null}
+	 *
+	 * @return The OkHttp transport
+	 */
+	@Nonnull
+	static HttpTransport okHttp(@Nonnull OkHttpClient httpClient) {
+		Checks.notNull(httpClient, "The HTTP client");
+
+		return new OkHttpTransport(httpClient, false);
+	}
+
+	/**
+	 * Returns the transport backed by the {@code java.net.http.HttpClient} shared by all handlers in the process.
+	 *
+	 * <br>The client prefers HTTP/2, so requests to the same host share one connection if the host supports it.
+	 * Neither OkHttp nor the Kotlin standard library are loaded when using this transport.
+	 *
+	 * @throws IllegalStateException
+	 *         If the runtime is older than Java 11
+	 *
+	 * @return The JDK transport
+	 */
+	@Nonnull
+	static HttpTransport jdk() {
+		Checks.check(!JdkHttpTransports.isSupported(), "The JDK HTTP client requires Java 11 or newer");
+
+		return JdkHttpTransports.shared();
+	}
+}
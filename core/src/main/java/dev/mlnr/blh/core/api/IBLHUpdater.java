@@ -1,9 +1,26 @@
 package dev.mlnr.blh.core.api;
 
+import javax.annotation.Nullable;
+
 /**
  * An interface to provide the bot id and the server amount for automatic stats posting.
  */
 public interface IBLHUpdater {
 	long getBotId();
 	long getServerCount();
+
+	/**
+	 * Returns the server amount of every shard, indexed by the shard id.
+	 *
+	 * <br>If provided, the shard counts are posted together with the total server amount in one request per bot list,
+	 * for bot lists which accept shard stats. The total server amount is still taken from {@link #getServerCount()}.
+	 *
+	 * <br>Default: {@code null}
+	 *
+	 * @return The server amount of every shard, or {@code null} if the bot isn't sharded
+	 */
+	@Nullable
+	default long[] getShardServerCounts() {
+		return null;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,178 @@
+package dev.mlnr.blh.core.api;
+
+import dev.mlnr.blh.core.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a server count should be posted to a bot list.
+ *
+ * <br>The policy is asked for every bot list on every stats update, so it should be cheap and must not block.
+ * Policies can be combined using {@link #and(PostingPolicy)} and {@link #or(PostingPolicy)}, for example
+ * <pre>{@code
+ * PostingPolicy.absoluteDelta(10)
+ *         .and(PostingPolicy.minInterval(5, TimeUnit.MINUTES))
+ *         .or(PostingPolicy.maxStaleness(12, TimeUnit.HOURS))
+ * }</pre>
+ * posts once the count changed by at least 10 servers but at most every 5 minutes, and at least every 12 hours.
+ * <b>Policies are only evaluated when the stats are updated, so a staleness refresh needs autoposting or events to happen.</b>
+ *
+ * @see BLHBuilder#setPostingPolicy(PostingPolicy)
+ */
+@FunctionalInterface
+public interface PostingPolicy {
+	/**
+	 * Returns whether the server count should be posted to the bot list.
+	 *
+	 * @param  botList
+	 *         The bot list, or {@code null} if the count is posted to a {@link CustomBotList custom bot list}
+	 * @param  serverCount
+	 *         The server count to post
+	 * @param  lastAcknowledgedCount
+	 *         The last server count acknowledged by the bot list, or {@code -1} if no count has been acknowledged yet
+	 * @param  lastPostedAt
+	 *         The epoch millis of the last request to the bot list, or {@code 0} if no count has been posted yet
+	 *
+	 * @return {@code true} if the server count should be posted
+	 */
+	boolean shouldPost(@Nullable BotList botList, long serverCount, long lastAcknowledgedCount, long lastPostedAt);
+
+	/**
+	 * Returns a policy which posts if both this and the other policy want to post.
+	 *
+	 * @param  other
+	 *         The other policy
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided policy is {@code null}
+	 *
+	 * @return The combined policy
+	 */
+	@Nonnull
+	default PostingPolicy and(@Nonnull PostingPolicy other) {
+		Checks.notNull(other, "The posting policy");
+
+		return (botList, serverCount, lastAcknowledgedCount, lastPostedAt) -> shouldPost(botList, serverCount, lastAcknowledgedCount, lastPostedAt)
+				&& other.shouldPost(botList, serverCount, lastAcknowledgedCount, lastPostedAt);
+	}
+
+	/**
+	 * Returns a policy which posts if this or the other policy wants to post.
+	 *
+	 * @param  other
+	 *         The other policy
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided policy is {@code null}
+	 *
+	 * @return The combined policy
+	 */
+	@Nonnull
+	default PostingPolicy or(@Nonnull PostingPolicy other) {
+		Checks.notNull(other, "The posting policy");
+
+		return (botList, serverCount, lastAcknowledgedCount, lastPostedAt) -> shouldPost(botList, serverCount, lastAcknowledgedCount, lastPostedAt)
+				|| other.shouldPost(botList, serverCount, lastAcknowledgedCount, lastPostedAt);
+	}
+
+	/**
+	 * Returns a policy which posts every count which differs from the last acknowledged one. This is the default policy.
+	 *
+	 * @return The policy
+	 */
+	@Nonnull
+	static PostingPolicy onChange() {
+		return (botList, serverCount, lastAcknowledgedCount, lastPostedAt) -> serverCount != lastAcknowledgedCount;
+	}
+
+	/**
+	 * Returns a policy which posts once the count differs from the last acknowledged one by at least the provided amount of servers.
+	 *
+	 * @param  delta
+	 *         The minimum difference
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided delta is negative
+	 *
+	 * @return The policy
+	 */
+	@Nonnull
+	static PostingPolicy absoluteDelta(long delta) {
+		Checks.notNegative(delta, "The delta");
+
+		return (botList, serverCount, lastAcknowledgedCount, lastPostedAt) -> lastAcknowledgedCount < 0
+				|| (serverCount != lastAcknowledgedCount && Math.abs(serverCount - lastAcknowledgedCount) >= delta);
+	}
+
+	/**
+	 * Returns a policy which posts once the count differs from the last acknowledged one by at least the provided percentage of the last acknowledged count.
+	 *
+	 * @param  percentage
+	 *         The minimum difference in percent, e.g. {@code 1.5}
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided percentage is negative or NaN
+	 *
+	 * @return The policy
+	 */
+	@Nonnull
+	static PostingPolicy percentageDelta(double percentage) {
+		Checks.notNegative(percentage, "The percentage");
+
+		return (botList, serverCount, lastAcknowledgedCount, lastPostedAt) -> lastAcknowledgedCount < 0
+				|| (serverCount != lastAcknowledgedCount && Math.abs(serverCount - lastAcknowledgedCount) * 100d >= lastAcknowledgedCount * percentage);
+	}
+
+	/**
+	 * Returns a policy which posts if at least the provided time has passed since the last post to the bot list.
+	 * Combine it with another policy using {@link #and(PostingPolicy)} to limit how often changes are posted.
+	 *
+	 * @param  interval
+	 *         The minimum interval
+	 * @param  unit
+	 *         The time unit to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided interval is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided unit is {@code null}
+	 *
+	 * @return The policy
+	 */
+	@Nonnull
+	static PostingPolicy minInterval(long interval, @Nonnull TimeUnit unit) {
+		Checks.notNegative(interval, "The interval");
+		Checks.notNull(unit, "The time unit");
+
+		long intervalMillis = unit.toMillis(interval);
+		return (botList, serverCount, lastAcknowledgedCount, lastPostedAt) -> System.currentTimeMillis() - lastPostedAt >= intervalMillis;
+	}
+
+	/**
+	 * Returns a policy which posts if the last post to the bot list is older than the provided time, even if the count didn't change.
+	 * Combine it with another policy using {@link #or(PostingPolicy)} to refresh stable counts.
+	 *
+	 * @param  staleness
+	 *         The maximum age of the last post
+	 * @param  unit
+	 *         The time unit to use
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided staleness is negative
+	 * @throws IllegalArgumentException
+	 *         If the provided unit is {@code null}
+	 *
+	 * @return The policy
+	 */
+	@Nonnull
+	static PostingPolicy maxStaleness(long staleness, @Nonnull TimeUnit unit) {
+		Checks.notNegative(staleness, "The staleness");
+		Checks.notNull(unit, "The time unit");
+
+		long stalenessMillis = unit.toMillis(staleness);
+		return (botList, serverCount, lastAcknowledgedCount, lastPostedAt) -> lastAcknowledgedCount < 0
+				|| System.currentTimeMillis() - lastPostedAt >= stalenessMillis;
+	}
+}
@@ -0,0 +1,155 @@
+package dev.mlnr.blh.core.api;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A stats request to be sent by a {@link HttpTransport}: a JSON payload posted to the stats endpoint of a bot list.
+ */
+public final class StatsRequest {
+	/**
+	 * The content type of every stats payload.
+	 */
+	public static final String CONTENT_TYPE = "application/json";
+
+	private final BotList botList;
+	private final CustomBotList customBotList;
+	private final String url;
+	private final String authorizationHeader;
+	private final String authorization;
+	private final byte[] body;
+
+	/**
+	 * Creates a stats request sending the token in the {@code Authorization} header.
+	 *
+	 * @param  botList
+	 *         The bot list the request is sent to
+	 * @param  url
+	 *         The URL of the stats endpoint
+	 * @param  authorization
+	 *         The value of the {@code Authorization} header
+	 * @param  body
+	 *         The encoded JSON payload, which won't be copied
+	 */
+	public StatsRequest(@Nonnull BotList botList, @Nonnull String url, @Nonnull String authorization, @Nonnull byte[] body) {
+		this(botList, url, "Authorization", authorization, body);
+	}
+
+	/**
+	 * Creates a stats request.
+	 *
+	 * @param  botList
+	 *         The bot list the request is sent to
+	 * @param  url
+	 *         The URL of the stats endpoint
+	 * @param  authorizationHeader
+	 *         The name of the header the token is sent in
+	 * @param  authorization
+	 *         The value of the authorization header
+	 * @param  body
+	 *         The encoded JSON payload, which won't be copied
+	 */
+	public StatsRequest(@Nonnull BotList botList, @Nonnull String url, @Nonnull String authorizationHeader, @Nonnull String authorization,
+	                    @Nonnull byte[] body) {
+		this(botList, null, url, authorizationHeader, authorization, body);
+	}
+
+	/**
+	 * Creates a stats request to a custom bot list.
+	 *
+	 * @param  customBotList
+	 *         The custom bot list the request is sent to
+	 * @param  url
+	 *         The URL of the stats endpoint
+	 * @param  authorizationHeader
+	 *         The name of the header the token is sent in
+	 * @param  authorization
+	 *         The value of the authorization header
+	 * @param  body
+	 *         The encoded JSON payload, which won't be copied
+	 */
+	public StatsRequest(@Nonnull CustomBotList customBotList, @Nonnull String url, @Nonnull String authorizationHeader,
+	                    @Nonnull String authorization, @Nonnull byte[] body) {
+		this(null, customBotList, url, authorizationHeader, authorization, body);
+	}
+
+	private StatsRequest(BotList botList, CustomBotList customBotList, String url, String authorizationHeader, String authorization,
+	                     byte[] body) {
+		this.botList = botList;
+		this.customBotList = customBotList;
+		this.url = url;
+		this.authorizationHeader = authorizationHeader;
+		this.authorization = authorization;
+		this.body = body;
+	}
+
+	/**
+	 * Returns the bot list the request is sent to.
+	 *
+	 * @return The bot list, or {@code null} if the request is sent to a {@link #getCustomBotList() custom bot list}
+	 */
+	@Nullable
+	public BotList getBotList() {
+		return botList;
+	}
+
+	/**
+	 * Returns the custom bot list the request is sent to.
+	 *
+	 * @return The custom bot list, or {@code null} if the request is sent to a {@link #getBotList() built-in bot list}
+	 */
+	@Nullable
+	public CustomBotList getCustomBotList() {
+		return customBotList;
+	}
+
+	/**
+	 * Returns the name of the bot list the request is sent to, either the name of the {@link BotList} or of the {@link CustomBotList}.
+	 *
+	 * @return The name of the bot list
+	 */
+	@Nonnull
+	public String getBotListName() {
+		return botList != null ? botList.name() : customBotList.getName();
+	}
+
+	/**
+	 * Returns the URL of the stats endpoint.
+	 *
+	 * @return The URL
+	 */
+	@Nonnull
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * Returns the name of the header the token is sent in, {@code Authorization} unless the {@link BotListEndpoint endpoint} says otherwise.
+	 *
+	 * @return The name of the authorization header
+	 */
+	@Nonnull
+	public String getAuthorizationHeader() {
+		return authorizationHeader;
+	}
+
+	/**
+	 * Returns the value of the authorization header.
+	 *
+	 * @return The token of the bot list, prefixed by the authorization scheme of the endpoint if it has one
+	 */
+	@Nonnull
+	public String getAuthorization() {
+		return authorization;
+	}
+
+	/**
+	 * Returns the encoded JSON payload. <b>The returned array must not be modified.</b>
+	 *
+	 * @return The payload
+	 */
+	@Nonnull
+	public byte[] getBody() {
+		return body;
+	}
+}
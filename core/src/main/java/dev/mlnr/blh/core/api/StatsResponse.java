@@ -0,0 +1,27 @@
+package dev.mlnr.blh.core.api;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The response of a bot list to a {@link StatsRequest}. Only the status code and the headers are needed, the body is discarded.
+ */
+public interface StatsResponse {
+	/**
+	 * Returns the HTTP status code.
+	 *
+	 * @return The status code
+	 */
+	int getCode();
+
+	/**
+	 * Returns the first value of the provided header, the name is case-insensitive.
+	 *
+	 * @param  name
+	 *         The name of the header
+	 *
+	 * @return The value, or {@code null} if the response doesn't have the header
+	 */
+	@Nullable
+	String getHeader(@Nonnull String name);
+}
@@ -0,0 +1,106 @@
+package dev.mlnr.blh.core.api;
+
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Collects the results of one update cycle and completes the report future once every bot list has answered.
+ *
+ * <p>Each expected bot list holds a pending marker until it completes, so a bot list can only complete once
+ * and results arriving after the timeout are ignored.
+ */
+class UpdateCycle {
+	private static final UpdateResult PENDING = new UpdateResult(UpdateResult.Status.TIMED_OUT, -1, 0);
+
+	private final long serverCount;
+	// the bot lists of the handler when the cycle started, indexed like the results
+	private final BotListTarget[] targets;
+	private final AtomicReferenceArray<UpdateResult> results;
+	// starts at 1 so the report can't complete before all bot lists have been registered
+	private final AtomicInteger remaining = new AtomicInteger(1);
+	private final CompletableFuture<UpdateReport> future = new CompletableFuture<>();
+
+	private volatile Future<?> timeoutTask;
+
+	UpdateCycle(long serverCount, BotListTarget[] targets) {
+		this.serverCount = serverCount;
+		this.targets = targets;
+		this.results = new AtomicReferenceArray<>(targets.length);
+	}
+
+	CompletableFuture<UpdateReport> getFuture() {
+		return future;
+	}
+
+	BotListTarget[] getTargets() {
+		return targets;
+	}
+
+	void expect(BotListTarget botList) {
+		remaining.incrementAndGet();
+		results.set(botList.getIndex(), PENDING);
+	}
+
+	/**
+	 * Marks the end of the registration of bot lists.
+	 *
+	 * @param timeoutTask
+	 *        The task completing the cycle once the timeout elapses, cancelled when the cycle completes earlier
+	 */
+	void seal(Future<?> timeoutTask) {
+		this.timeoutTask = timeoutTask;
+		finish();
+		if (future.isDone() && timeoutTask != null)
+			timeoutTask.cancel(false);
+	}
+
+	void complete(BotListTarget botList, UpdateResult.Status status) {
+		complete(botList, new UpdateResult(status, -1, 0));
+	}
+
+	void complete(BotListTarget botList, UpdateResult.Status status, int code, long startNanos) {
+		complete(botList, new UpdateResult(status, code, System.nanoTime() - startNanos));
+	}
+
+	/**
+	 * Completes every bot list which hasn't answered yet as timed out.
+	 */
+	void timeout() {
+		for (BotListTarget botList : targets)
+			complete(botList, UpdateResult.Status.TIMED_OUT);
+	}
+
+	// internal
+
+	private void complete(BotListTarget botList, UpdateResult result) {
+		if (results.compareAndSet(botList.getIndex(), PENDING, result))
+			finish();
+	}
+
+	private void finish() {
+		if (remaining.decrementAndGet() != 0)
+			return;
+		Future<?> task = timeoutTask;
+		if (task != null)
+			task.cancel(false);
+		Map<BotList, UpdateResult> report = new EnumMap<>(BotList.class);
+		Map<CustomBotList, UpdateResult> customReport = new LinkedHashMap<>();
+		for (BotListTarget botList : targets) {
+			UpdateResult result = results.get(botList.getIndex());
+			if (result == null)
+				continue;
+			if (botList.isBuiltIn())
+				report.put(botList.getBotList(), result);
+			else
+				customReport.put(botList.getCustomBotList(), result);
+		}
+		future.complete(new UpdateReport(serverCount, report, customReport));
+	}
+}
@@ -0,0 +1,101 @@
+package dev.mlnr.blh.core.api;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The results of one stats update cycle, returned by {@link BotListHandler#updateAllStatsAsync(long, long)}.
+ */
+public class UpdateReport {
+	private final long serverCount;
+	private final Map<BotList, UpdateResult> results;
+	private final Map<CustomBotList, UpdateResult> customResults;
+
+	UpdateReport(long serverCount, Map<BotList, UpdateResult> results, Map<CustomBotList, UpdateResult> customResults) {
+		this.serverCount = serverCount;
+		this.results = Collections.unmodifiableMap(results);
+		this.customResults = Collections.unmodifiableMap(customResults);
+	}
+
+	/**
+	 * Returns the server count which was posted in this cycle.
+	 *
+	 * @return The posted server count
+	 */
+	public long getServerCount() {
+		return serverCount;
+	}
+
+	/**
+	 * Returns the results for every bot list which was added when the cycle started.
+	 *
+	 * @return Unmodifiable map of the results
+	 */
+	@Nonnull
+	public Map<BotList, UpdateResult> getResults() {
+		return results;
+	}
+
+	/**
+	 * Returns the result for the provided bot list.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @return The result, or {@code null} if the bot list wasn't added when the cycle started
+	 */
+	@Nullable
+	public UpdateResult getResult(@Nonnull BotList botList) {
+		return results.get(botList);
+	}
+
+	/**
+	 * Returns the results for every custom bot list which was added when the cycle started.
+	 *
+	 * @return Unmodifiable map of the results
+	 */
+	@Nonnull
+	public Map<CustomBotList, UpdateResult> getCustomResults() {
+		return customResults;
+	}
+
+	/**
+	 * Returns the result for the provided custom bot list.
+	 *
+	 * @param  customBotList
+	 *         The custom bot list
+	 *
+	 * @return The result, or {@code null} if the custom bot list wasn't added when the cycle started
+	 */
+	@Nullable
+	public UpdateResult getResult(@Nonnull CustomBotList customBotList) {
+		return customResults.get(customBotList);
+	}
+
+	/**
+	 * Returns whether every bot list either accepted the stats or didn't need an update.
+	 *
+	 * @return Whether the cycle was successful
+	 */
+	public boolean isSuccessful() {
+		return isSuccessful(results) && isSuccessful(customResults);
+	}
+
+	@Override
+	public String toString() {
+		return "UpdateReport{serverCount=" + serverCount + ", results=" + results + ", customResults=" + customResults + "}";
+	}
+
+	// internal
+
+	private static boolean isSuccessful(Map<?, UpdateResult> results) {
+		for (UpdateResult result : results.values()) {
+			UpdateResult.Status status = result.getStatus();
+			if (status != UpdateResult.Status.SUCCESS && status != UpdateResult.Status.SKIPPED)
+				return false;
+		}
+		return true;
+	}
+}
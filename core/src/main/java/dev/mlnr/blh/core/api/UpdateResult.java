@@ -0,0 +1,92 @@
+package dev.mlnr.blh.core.api;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of updating the stats for a single {@link BotList} within an {@link UpdateReport}.
+ */
+public class UpdateResult {
+	private final Status status;
+	private final int code;
+	private final long latencyNanos;
+
+	UpdateResult(Status status, int code, long latencyNanos) {
+		this.status = status;
+		this.code = code;
+		this.latencyNanos = latencyNanos;
+	}
+
+	/**
+	 * Returns the status of the update.
+	 *
+	 * @return The status of the update
+	 */
+	@Nonnull
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns the HTTP code returned by the bot list.
+	 *
+	 * @return The HTTP code, or {@code -1} if no response was received
+	 */
+	public int getCode() {
+		return code;
+	}
+
+	/**
+	 * Returns the time between sending the request and receiving the response or the failure.
+	 *
+	 * @param  unit
+	 *         The time unit to return the latency in
+	 *
+	 * @return The latency, or {@code 0} if no request was sent
+	 */
+	public long getLatency(@Nonnull TimeUnit unit) {
+		return unit.convert(latencyNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return "UpdateResult{status=" + status + ", code=" + code + ", latency=" + TimeUnit.NANOSECONDS.toMillis(latencyNanos) + "ms}";
+	}
+
+	public enum Status {
+		/**
+		 * The bot list accepted the stats.
+		 */
+		SUCCESS,
+		/**
+		 * No request was sent, as the count didn't change, the posting policy declined it or the handler is in dev mode.
+		 */
+		SKIPPED,
+		/**
+		 * No request was sent, as the circuit of the bot list is open or parked or too many requests to it are in flight.
+		 * The count stays unacknowledged and is posted once requests to the bot list are let through again.
+		 */
+		BLOCKED,
+		/**
+		 * The bot list rejected the token, or no request was sent as it rejected the token before.
+		 */
+		UNAUTHORIZED,
+		/**
+		 * The bot list ratelimited the request, or no request was sent as it's still ratelimited.
+		 * The newest count will be retried in the background.
+		 */
+		RATELIMITED,
+		/**
+		 * The bot list responded with an error code.
+		 */
+		FAILED,
+		/**
+		 * The request failed without a response, for example because of a connection error.
+		 */
+		IO_ERROR,
+		/**
+		 * The bot list didn't answer within the timeout, or the handler was shut down before it answered.
+		 */
+		TIMED_OUT
+	}
+}
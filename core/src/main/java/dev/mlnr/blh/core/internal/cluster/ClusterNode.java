@@ -0,0 +1,266 @@
+package dev.mlnr.blh.core.internal.cluster;
+
+import dev.mlnr.blh.core.api.IBLHUpdater;
+import dev.mlnr.blh.core.internal.config.ClusterConfig;
+import dev.mlnr.blh.core.internal.state.StatsSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A node of a bot whose shards are spread over several processes.
+ *
+ * <p>Every node knows the addresses of all nodes and sends a heartbeat with its partial counts, the server count and the per-shard
+ * server counts of its local shards, to every other node once per heartbeat interval. Heartbeats are single UDP datagrams,
+ * received heartbeats are polled when sending, so a node doesn't need a thread of its own.
+ *
+ * <p>A node is alive while its heartbeats arrive within the node timeout. The alive node with the lowest id is the poster,
+ * which posts the sum of the partial counts of all alive nodes. If the poster fails, the next node takes over once the poster timed out.
+ * A node only becomes the poster after it has been running for the timeout, so it can't post before it heard of the nodes with lower ids.
+ *
+ * <p>Heartbeat layout: magic, version, node id, bot id, server count, amount of shards ({@code -1} without shards), per-shard server counts.
+ */
+public class ClusterNode {
+	private static final Logger logger = LoggerFactory.getLogger(ClusterNode.class);
+
+	private static final int MAGIC = 0x424C4843; // BLHC
+	private static final byte VERSION = 1;
+	private static final int HEADER_SIZE = 4 + 1 + 4 + 8 + 8 + 4;
+	private static final int MAX_DATAGRAM_SIZE = 65_507;
+	private static final int MAX_SHARDS = (MAX_DATAGRAM_SIZE - HEADER_SIZE) / 8;
+
+	private final int nodeId;
+	private final List<InetSocketAddress> nodes;
+	private final IBLHUpdater updater;
+	private final long heartbeatInterval;
+	private final long nodeTimeoutNanos;
+	private final DatagramChannel channel;
+	private final long startNanos = System.nanoTime();
+	private final ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_SIZE);
+
+	// the latest partial of every node, the own partial is sampled when needed
+	private final Partial[] partials;
+
+	private volatile boolean poster;
+
+	private ClusterNode(ClusterConfig config, IBLHUpdater updater, DatagramChannel channel) {
+		this.nodeId = config.getNodeId();
+		this.nodes = config.getNodes();
+		this.updater = updater;
+		this.heartbeatInterval = config.getHeartbeatInterval();
+		this.nodeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getNodeTimeout());
+		this.channel = channel;
+		this.partials = new Partial[nodes.size()];
+	}
+
+	/**
+	 * Binds the socket of this node.
+	 *
+	 * @param  config
+	 *         The cluster config
+	 * @param  updater
+	 *         The updater providing the partial counts of this node
+	 *
+	 * @throws IOException
+	 *         If the socket couldn't be bound
+	 *
+	 * @return The node
+	 */
+	public static ClusterNode open(ClusterConfig config, IBLHUpdater updater) throws IOException {
+		DatagramChannel channel = DatagramChannel.open();
+		try {
+			channel.bind(config.getNodes().get(config.getNodeId()));
+			channel.configureBlocking(false);
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		return new ClusterNode(config, updater, channel);
+	}
+
+	/**
+	 * Returns how often {@link #heartbeat()} should be called.
+	 *
+	 * @return The heartbeat interval in milliseconds
+	 */
+	public long getHeartbeatInterval() {
+		return heartbeatInterval;
+	}
+
+	/**
+	 * Receives the pending heartbeats of the other nodes, sends the heartbeat of this node and elects the poster.
+	 */
+	public synchronized void heartbeat() {
+		try {
+			receive();
+		}
+		catch (IOException e) {
+			logger.warn("Could not receive the heartbeats of the cluster", e);
+		}
+		try {
+			send(sample());
+		}
+		catch (RuntimeException e) {
+			// the updater may not be ready yet, the other nodes see this node once it is
+			logger.debug("Could not sample the counts of node {}", nodeId, e);
+		}
+		boolean wasPoster = poster;
+		poster = electPoster();
+		if (poster != wasPoster)
+			logger.info(poster ? "Node {} is now posting the stats of the cluster" : "Node {} stopped posting the stats of the cluster", nodeId);
+	}
+
+	/**
+	 * Returns whether this node posts the stats of the cluster.
+	 *
+	 * @return Whether this node is the poster
+	 */
+	public boolean isPoster() {
+		return poster;
+	}
+
+	/**
+	 * Sums up the partial counts of all alive nodes.
+	 * The per-shard server counts are only included if every node provided them.
+	 *
+	 * @return The stats of the whole bot
+	 */
+	public synchronized StatsSnapshot aggregate() {
+		long now = System.nanoTime();
+		Partial own = sample();
+		long serverCount = own.serverCount;
+		long[] shardServerCounts = own.shardServerCounts == null ? null : own.shardServerCounts.clone();
+		boolean sharded = shardServerCounts != null;
+		for (int id = 0; id < partials.length; id++) {
+			Partial partial = partials[id];
+			// a misconfigured node of another bot isn't counted
+			if (id == nodeId || !isAlive(partial, now) || partial.botId != own.botId)
+				continue;
+			serverCount += partial.serverCount;
+			if (partial.shardServerCounts == null) {
+				sharded = false;
+				continue;
+			}
+			if (!sharded)
+				continue;
+			// every shard runs on a single node, the other nodes report it as 0
+			if (partial.shardServerCounts.length > shardServerCounts.length)
+				shardServerCounts = Arrays.copyOf(shardServerCounts, partial.shardServerCounts.length);
+			for (int shard = 0; shard < partial.shardServerCounts.length; shard++)
+				shardServerCounts[shard] += partial.shardServerCounts[shard];
+		}
+		return new StatsSnapshot(own.botId, serverCount, sharded ? shardServerCounts : null);
+	}
+
+	public void close() {
+		try {
+			channel.close();
+		}
+		catch (IOException e) {
+			logger.warn("Could not close the cluster socket", e);
+		}
+	}
+
+	// internal
+
+	private Partial sample() {
+		return new Partial(updater.getBotId(), updater.getServerCount(), updater.getShardServerCounts(), System.nanoTime());
+	}
+
+	private boolean electPoster() {
+		if (System.nanoTime() - startNanos < nodeTimeoutNanos)
+			return false;
+		long now = System.nanoTime();
+		for (int id = 0; id < nodeId; id++) {
+			if (isAlive(partials[id], now))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean isAlive(Partial partial, long now) {
+		return partial != null && now - partial.receivedNanos < nodeTimeoutNanos;
+	}
+
+	private void receive() throws IOException {
+		SocketAddress source;
+		while (true) {
+			buffer.clear();
+			source = channel.receive(buffer);
+			if (source == null)
+				return;
+			buffer.flip();
+			if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.get() != VERSION)
+				continue;
+			int id = buffer.getInt();
+			// only accept heartbeats from the configured address of the node
+			if (id < 0 || id >= nodes.size() || id == nodeId || !nodes.get(id).equals(source))
+				continue;
+			long botId = buffer.getLong();
+			long serverCount = buffer.getLong();
+			int shards = buffer.getInt();
+			if (shards > buffer.remaining() / 8)
+				continue;
+			long[] shardServerCounts = null;
+			if (shards >= 0) {
+				shardServerCounts = new long[shards];
+				for (int shard = 0; shard < shards; shard++)
+					shardServerCounts[shard] = buffer.getLong();
+			}
+			partials[id] = new Partial(botId, serverCount, shardServerCounts, System.nanoTime());
+		}
+	}
+
+	private void send(Partial own) {
+		long[] shardServerCounts = own.shardServerCounts;
+		if (shardServerCounts != null && shardServerCounts.length > MAX_SHARDS) {
+			logger.warn("The bot has more than {} shards, only the total server count is shared with the cluster", MAX_SHARDS);
+			shardServerCounts = null;
+		}
+		buffer.clear();
+		buffer.putInt(MAGIC).put(VERSION).putInt(nodeId).putLong(own.botId).putLong(own.serverCount);
+		if (shardServerCounts == null) {
+			buffer.putInt(-1);
+		}
+		else {
+			buffer.putInt(shardServerCounts.length);
+			for (long shardServerCount : shardServerCounts)
+				buffer.putLong(shardServerCount);
+		}
+		buffer.flip();
+		for (int id = 0; id < nodes.size(); id++) {
+			if (id == nodeId)
+				continue;
+			try {
+				channel.send(buffer, nodes.get(id));
+			}
+			catch (IOException e) {
+				logger.debug("Could not send the heartbeat to node {}", id, e);
+			}
+			buffer.rewind();
+		}
+	}
+
+	private static class Partial {
+		private final long botId;
+		private final long serverCount;
+		private final long[] shardServerCounts;
+		private final long receivedNanos;
+
+		private Partial(long botId, long serverCount, long[] shardServerCounts, long receivedNanos) {
+			this.botId = botId;
+			this.serverCount = serverCount;
+			this.shardServerCounts = shardServerCounts;
+			this.receivedNanos = receivedNanos;
+		}
+	}
+}
@@ -6,11 +6,15 @@ public class AutoPostingConfig {
 	private final IBLHUpdater updater;
 	private final long initialDelay;
 	private final long delay;
+	private final long jitter;
+	private final ClusterConfig clusterConfig;
 
-	public AutoPostingConfig(IBLHUpdater updater, long initialDelay, long delay) {
+	public AutoPostingConfig(IBLHUpdater updater, long initialDelay, long delay, long jitter, ClusterConfig clusterConfig) {
 		this.updater = updater;
 		this.initialDelay = initialDelay;
 		this.delay = delay;
+		this.jitter = jitter;
+		this.clusterConfig = clusterConfig;
 	}
 
 	public boolean isAutoPostingEnabled() {
@@ -28,4 +32,12 @@ public class AutoPostingConfig {
 	public long getDelay() {
 		return delay;
 	}
+
+	public long getJitter() {
+		return jitter;
+	}
+
+	public ClusterConfig getClusterConfig() {
+		return clusterConfig;
+	}
 }
\ No newline at end of file
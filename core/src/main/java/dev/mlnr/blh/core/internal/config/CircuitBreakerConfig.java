@@ -0,0 +1,37 @@
+package dev.mlnr.blh.core.internal.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class CircuitBreakerConfig {
+	private final int failureThreshold;
+	private final long baseBackoff;
+	private final long maxBackoff;
+
+	public CircuitBreakerConfig(int failureThreshold, long baseBackoff, long maxBackoff) {
+		this.failureThreshold = failureThreshold;
+		this.baseBackoff = baseBackoff;
+		this.maxBackoff = maxBackoff;
+	}
+
+	public boolean isCircuitBreakerEnabled() {
+		return failureThreshold > 0;
+	}
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	/**
+	 * Returns the time in nanoseconds to keep the circuit open for, doubling with every failed attempt.
+	 * A random half of the delay is dropped, so handlers failing at the same time don't probe at the same time.
+	 *
+	 * @param  attempt
+	 *         How many times the circuit has been reopened in a row, starting at {@code 0}
+	 */
+	public long getBackoff(int attempt) {
+		long backoff = attempt >= Long.numberOfLeadingZeros(baseBackoff) - 1 ? maxBackoff : Math.min(maxBackoff, baseBackoff << attempt);
+		long half = backoff / 2;
+		return TimeUnit.MILLISECONDS.toNanos(half + ThreadLocalRandom.current().nextLong(half + 1));
+	}
+}
@@ -0,0 +1,44 @@
+package dev.mlnr.blh.core.internal.config;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ClusterConfig {
+	private static final long DEFAULT_HEARTBEAT_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+	private static final long DEFAULT_NODE_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+	private final int nodeId;
+	private final List<InetSocketAddress> nodes;
+	private final long heartbeatInterval;
+	private final long nodeTimeout;
+
+	public ClusterConfig(int nodeId, List<InetSocketAddress> nodes) {
+		this(nodeId, nodes, DEFAULT_HEARTBEAT_INTERVAL, DEFAULT_NODE_TIMEOUT);
+	}
+
+	public ClusterConfig(int nodeId, List<InetSocketAddress> nodes, long heartbeatInterval, long nodeTimeout) {
+		this.nodeId = nodeId;
+		this.nodes = nodes;
+		this.heartbeatInterval = heartbeatInterval;
+		this.nodeTimeout = nodeTimeout;
+	}
+
+	public int getNodeId() {
+		return nodeId;
+	}
+
+	public List<InetSocketAddress> getNodes() {
+		return nodes;
+	}
+
+	// in milliseconds
+	public long getHeartbeatInterval() {
+		return heartbeatInterval;
+	}
+
+	// in milliseconds, a node whose heartbeats stopped for this long is considered dead
+	public long getNodeTimeout() {
+		return nodeTimeout;
+	}
+}
@@ -0,0 +1,23 @@
+package dev.mlnr.blh.core.internal.config;
+
+public class CoalescingConfig {
+	private final long quietPeriod;
+	private final long maxLatency;
+
+	public CoalescingConfig(long quietPeriod, long maxLatency) {
+		this.quietPeriod = quietPeriod;
+		this.maxLatency = maxLatency;
+	}
+
+	public boolean isCoalescingEnabled() {
+		return maxLatency > 0;
+	}
+
+	public long getQuietPeriod() {
+		return quietPeriod;
+	}
+
+	public long getMaxLatency() {
+		return maxLatency;
+	}
+}
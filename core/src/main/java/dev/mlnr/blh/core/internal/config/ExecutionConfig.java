@@ -0,0 +1,21 @@
+package dev.mlnr.blh.core.internal.config;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+public class ExecutionConfig {
+	private final ScheduledExecutorService scheduler;
+	private final boolean virtualThreadsEnabled;
+
+	public ExecutionConfig(ScheduledExecutorService scheduler, boolean virtualThreadsEnabled) {
+		this.scheduler = scheduler;
+		this.virtualThreadsEnabled = virtualThreadsEnabled;
+	}
+
+	public ScheduledExecutorService getScheduler() {
+		return scheduler;
+	}
+
+	public boolean isVirtualThreadsEnabled() {
+		return virtualThreadsEnabled;
+	}
+}
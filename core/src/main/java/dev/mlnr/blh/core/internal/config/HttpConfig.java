@@ -0,0 +1,63 @@
+package dev.mlnr.blh.core.internal.config;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.BotListEndpoint;
+import dev.mlnr.blh.core.api.HttpTransport;
+import okhttp3.OkHttpClient;
+
+import java.util.Map;
+
+public class HttpConfig {
+	private final OkHttpClient httpClient;
+	private final long connectTimeout;
+	private final long readTimeout;
+	private final long callTimeout;
+	private final int[] maxConcurrentRequests;
+	private final int customMaxConcurrentRequests;
+	private final HttpTransport transport;
+	private final Map<BotList, BotListEndpoint> endpoints;
+
+	public HttpConfig(OkHttpClient httpClient, long connectTimeout, long readTimeout, long callTimeout, int[] maxConcurrentRequests,
+	                  int customMaxConcurrentRequests, HttpTransport transport, Map<BotList, BotListEndpoint> endpoints) {
+		this.httpClient = httpClient;
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+		this.callTimeout = callTimeout;
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.customMaxConcurrentRequests = customMaxConcurrentRequests;
+		this.transport = transport;
+		this.endpoints = endpoints;
+	}
+
+	public OkHttpClient getHttpClient() {
+		return httpClient;
+	}
+
+	public long getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	public long getReadTimeout() {
+		return readTimeout;
+	}
+
+	public long getCallTimeout() {
+		return callTimeout;
+	}
+
+	public int[] getMaxConcurrentRequests() {
+		return maxConcurrentRequests;
+	}
+
+	public int getCustomMaxConcurrentRequests() {
+		return customMaxConcurrentRequests;
+	}
+
+	public HttpTransport getTransport() {
+		return transport;
+	}
+
+	public Map<BotList, BotListEndpoint> getEndpoints() {
+		return endpoints;
+	}
+}
@@ -0,0 +1,98 @@
+package dev.mlnr.blh.core.internal.dispatch;
+
+import dev.mlnr.blh.core.internal.executor.TaskScheduler;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the automatic stats posting for a single bot list on its own cadence.
+ *
+ * <p>The period is the autoposting delay, but never shorter than the spacing the rate limit of the bot list allows.
+ * Every bot list of every bot starts at a phase derived from the bot id and the bot list, so a fleet of bots posting
+ * on the same delay spreads its requests over the period instead of hitting the same hosts at the same instant.
+ * Every run is moved by a bounded random jitter around the slot of the phase.
+ *
+ * <p>The next run is scheduled once the current run is done. If the runs stalled, the missed slots are skipped
+ * and the next run happens in the next slot, so a stall never fires a backlog of runs.
+ */
+public class AutoPoster {
+	// the jitter may move a run by at most a tenth of the period
+	private static final int MAX_JITTER_FRACTION = 10;
+
+	private final TaskScheduler scheduler;
+	private final long periodNanos;
+	private final long jitterNanos;
+	private final Runnable task;
+
+	private long nextSlotNanos;
+
+	public AutoPoster(TaskScheduler scheduler, BotListTarget botList, long delay, long jitter, Runnable task) {
+		this.scheduler = scheduler;
+		long spacingNanos = TimeUnit.MILLISECONDS.toNanos(botList.getRatelimitPeriod()) / botList.getRatelimit();
+		this.periodNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(delay), spacingNanos);
+		this.jitterNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(jitter), periodNanos / MAX_JITTER_FRACTION);
+		this.task = task;
+	}
+
+	/**
+	 * Schedules the first run after the initial delay and the phase of the bot list.
+	 *
+	 * @param initialDelay
+	 *        The initial delay in milliseconds
+	 * @param phaseSeed
+	 *        The seed of the phase, derived from the bot id and the bot list
+	 */
+	public void start(long initialDelay, long phaseSeed) {
+		long phaseNanos = Math.floorMod(mix(phaseSeed), periodNanos);
+		nextSlotNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(initialDelay) + phaseNanos;
+		scheduleNext();
+	}
+
+	/**
+	 * Derives the seed of the phase of a bot list of a bot.
+	 *
+	 * @param  botId
+	 *         The id of the bot
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @return The seed
+	 */
+	public static long phaseSeed(long botId, BotListTarget botList) {
+		return botId * 31 + botList.getIndex();
+	}
+
+	// internal
+
+	private void run() {
+		try {
+			task.run();
+		}
+		finally {
+			long now = System.nanoTime();
+			nextSlotNanos += periodNanos;
+			// skip the slots missed during a stall instead of catching up on them
+			if (nextSlotNanos - now < 0)
+				nextSlotNanos += ((now - nextSlotNanos) / periodNanos + 1) * periodNanos;
+			scheduleNext();
+		}
+	}
+
+	private void scheduleNext() {
+		long jitter = jitterNanos == 0 ? 0 : ThreadLocalRandom.current().nextLong(-jitterNanos, jitterNanos + 1);
+		long delay = Math.max(0, nextSlotNanos + jitter - System.nanoTime());
+		scheduler.schedule(this::run, delay, TimeUnit.NANOSECONDS);
+	}
+
+	// the finalizer of MurmurHash3, consecutive bot ids and bot lists end up in unrelated phases
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return value;
+	}
+}
@@ -0,0 +1,72 @@
+package dev.mlnr.blh.core.internal.dispatch;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import dev.mlnr.blh.core.internal.state.StatsSnapshot;
+import dev.mlnr.blh.core.internal.utils.SlotArray;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the stats to retry per bot list after the bot list ratelimited a request.
+ *
+ * <p>Every bot list has a single slot holding the latest stats to retry, so the mailbox is bounded by the amount of bot lists.
+ * The caller which fills an empty slot schedules the retry, every other caller only replaces the stats, so repeated ratelimits
+ * collapse into one retry which posts the newest count. The retry takes the stats out of the slot when it runs,
+ * the token is looked up at that point, so a token swapped in the meantime is used.
+ */
+public class RetryMailbox {
+	private final SlotArray<AtomicReference<StatsSnapshot>> pending = new SlotArray<>(BotList.values().length, AtomicReference::new);
+
+	/**
+	 * Stores the stats to retry for a bot list.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 * @param  stats
+	 *         The stats to retry
+	 *
+	 * @return Whether the slot was empty, in which case the caller has to schedule the retry
+	 */
+	public boolean offer(BotListTarget botList, StatsSnapshot stats) {
+		return pending.get(botList.getIndex()).getAndSet(stats) == null;
+	}
+
+	/**
+	 * Replaces the stats to retry for a bot list if a retry is scheduled.
+	 *
+	 * @param botList
+	 *        The bot list
+	 * @param stats
+	 *        The newer stats
+	 */
+	public void replace(BotListTarget botList, StatsSnapshot stats) {
+		AtomicReference<StatsSnapshot> slot = pending.get(botList.getIndex());
+		StatsSnapshot current;
+		do {
+			current = slot.get();
+			if (current == null)
+				return;
+		}
+		while (!slot.compareAndSet(current, stats));
+	}
+
+	/**
+	 * Takes the stats to retry for a bot list out of the mailbox.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @return The stats, or {@code null} if there's nothing to retry
+	 */
+	public StatsSnapshot take(BotListTarget botList) {
+		return pending.get(botList.getIndex()).getAndSet(null);
+	}
+
+	/**
+	 * Drops every pending retry, the scheduled retries find nothing to post.
+	 */
+	public void clear() {
+		pending.forEach(slot -> slot.set(null));
+	}
+}
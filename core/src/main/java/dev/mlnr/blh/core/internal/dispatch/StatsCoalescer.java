@@ -0,0 +1,69 @@
+package dev.mlnr.blh.core.internal.dispatch;
+
+import dev.mlnr.blh.core.internal.config.CoalescingConfig;
+import dev.mlnr.blh.core.internal.executor.TaskScheduler;
+import dev.mlnr.blh.core.internal.state.StatsSnapshot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Collapses bursts of stats updates into a single latest-value update.
+ *
+ * <p>Callers only store the newest stats, the bot id, the count and the shard counts are swapped in as a single snapshot,
+ * so a flush never mixes the values of two updates. The caller which moves the coalescer from clean to dirty schedules the flush,
+ * every other caller returns after an atomic store. The flush runs once the counts have been quiet for the quiet period
+ * or once the oldest pending count has waited for the max latency, whichever comes first.
+ */
+public class StatsCoalescer {
+	private final TaskScheduler scheduler;
+	private final long quietPeriodNanos;
+	private final long maxLatencyNanos;
+	private final Flusher flusher;
+
+	private final AtomicReference<StatsSnapshot> pending = new AtomicReference<>();
+	private volatile long lastMarkNanos;
+	private volatile long firstMarkNanos;
+
+	public StatsCoalescer(TaskScheduler scheduler, CoalescingConfig config, Flusher flusher) {
+		this.scheduler = scheduler;
+		this.quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(config.getQuietPeriod());
+		this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxLatency());
+		this.flusher = flusher;
+	}
+
+	public void mark(long botId, long serverCount, long[] shardServerCounts) {
+		long now = System.nanoTime();
+		lastMarkNanos = now;
+		if (pending.getAndSet(new StatsSnapshot(botId, serverCount, shardServerCounts)) == null) {
+			firstMarkNanos = now;
+			scheduler.schedule(this::flush, quietPeriodNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private void flush() {
+		long now = System.nanoTime();
+		long quietRemaining = quietPeriodNanos - (now - lastMarkNanos);
+		long latencyRemaining = maxLatencyNanos - (now - firstMarkNanos);
+		long wait = Math.min(quietRemaining, latencyRemaining);
+		if (wait > 0) {
+			scheduler.schedule(this::flush, wait, TimeUnit.NANOSECONDS);
+			return;
+		}
+		flushNow();
+	}
+
+	/**
+	 * Posts the pending count right away, regardless of the window.
+	 */
+	public void flushNow() {
+		StatsSnapshot stats = pending.getAndSet(null);
+		if (stats != null)
+			flusher.flush(stats.getBotId(), stats.getServerCount(), stats.getShardServerCounts());
+	}
+
+	@FunctionalInterface
+	public interface Flusher {
+		void flush(long botId, long serverCount, long[] shardServerCounts);
+	}
+}
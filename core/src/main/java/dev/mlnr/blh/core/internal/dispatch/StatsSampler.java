@@ -0,0 +1,41 @@
+package dev.mlnr.blh.core.internal.dispatch;
+
+import dev.mlnr.blh.core.internal.state.StatsSnapshot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Samples the stats for the {@link AutoPoster AutoPosters} of all bot lists at most once per autoposting period.
+ *
+ * <p>The bot lists are posted to at staggered phases, so without sharing, every bot list would walk the guilds of the bot on its own.
+ * The first bot list running in a period takes the snapshot, the others post from it until it's older than the period.
+ * Runs which collide wait for the sample being taken instead of taking their own.
+ */
+public class StatsSampler {
+	private final Supplier<StatsSnapshot> sampler;
+	private final long maxAgeNanos;
+
+	private StatsSnapshot snapshot;
+	private long sampledAtNanos;
+
+	public StatsSampler(Supplier<StatsSnapshot> sampler, long period) {
+		this.sampler = sampler;
+		this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(period);
+	}
+
+	/**
+	 * Returns the snapshot of the current period, taking it if there's none.
+	 *
+	 * @return The snapshot
+	 */
+	public synchronized StatsSnapshot sample() {
+		long now = System.nanoTime();
+		if (snapshot == null || now - sampledAtNanos >= maxAgeNanos) {
+			// a failed sample isn't cached, the next run tries again
+			snapshot = sampler.get();
+			sampledAtNanos = now;
+		}
+		return snapshot;
+	}
+}
@@ -0,0 +1,59 @@
+package dev.mlnr.blh.core.internal.executor;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import dev.mlnr.blh.core.internal.utils.SlotArray;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the amount of requests in flight per bot list, so a bot list which stalls can't take up the connections
+ * and threads of the other bot lists. A request which doesn't get a permit isn't queued, its count stays unacknowledged.
+ * The bot list is marked as blocked, so the handler reconciles it once a request to it finished and released its permit.
+ * If the last permit was released while the mark was being set, the periodic reconciliation sends the count instead.
+ */
+public class Bulkheads {
+	private final int[] limits;
+	private final int customLimit;
+	private final SlotArray<AtomicInteger> inFlight = new SlotArray<>(BotList.values().length, AtomicInteger::new);
+	private final SlotArray<AtomicBoolean> blocked = new SlotArray<>(BotList.values().length, AtomicBoolean::new);
+
+	public Bulkheads(int[] limits, int customLimit) {
+		this.limits = limits;
+		this.customLimit = customLimit;
+	}
+
+	public boolean tryAcquire(BotListTarget botList) {
+		int index = botList.getIndex();
+		int limit = botList.isBuiltIn() ? limits[index] : customLimit;
+		AtomicInteger requests = inFlight.get(index);
+		while (true) {
+			int current = requests.get();
+			if (current >= limit) {
+				blocked.get(index).set(true);
+				return false;
+			}
+			if (requests.compareAndSet(current, current + 1))
+				return true;
+		}
+	}
+
+	public void release(BotListTarget botList) {
+		inFlight.get(botList.getIndex()).decrementAndGet();
+	}
+
+	/**
+	 * Clears the blocked mark of the bot list.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @return {@code true} if a request was refused a permit since the last call
+	 */
+	public boolean takeBlocked(BotListTarget botList) {
+		AtomicBoolean mark = blocked.get(botList.getIndex());
+		// the plain read keeps the common case of nothing being blocked free of writes
+		return mark.get() && mark.getAndSet(false);
+	}
+}
@@ -0,0 +1,47 @@
+package dev.mlnr.blh.core.internal.executor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the requests which have been sent but haven't been answered yet, so a shutdown can wait for them.
+ */
+public class InFlightTracker {
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	public void begin() {
+		inFlight.incrementAndGet();
+	}
+
+	public void end() {
+		if (inFlight.decrementAndGet() == 0) {
+			synchronized (this) {
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Waits until all requests have been answered or the timeout elapses.
+	 *
+	 * @param  timeout
+	 *         The maximum time to wait
+	 * @param  unit
+	 *         The time unit of the timeout
+	 *
+	 * @throws InterruptedException
+	 *         If the current thread is interrupted while waiting
+	 *
+	 * @return {@code true} if all requests have been answered
+	 */
+	public synchronized boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (inFlight.get() > 0) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0)
+				return false;
+			TimeUnit.NANOSECONDS.timedWait(this, remaining);
+		}
+		return true;
+	}
+}
@@ -0,0 +1,168 @@
+package dev.mlnr.blh.core.internal.executor;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules the tasks of a single handler and keeps track of them, so they can be cancelled once the handler shuts down.
+ *
+ * <p>If no executor was provided, a daemon single thread executor is created and owned by this scheduler.
+ * Its thread is only started once the first task is scheduled, so a handler which never posts doesn't start a thread.
+ * Provided executors are never shut down, only the tasks scheduled through this scheduler are cancelled.
+ *
+ * <p>Tasks are only tracked until they finished or got cancelled, so tracking stays cheap no matter how many tasks were scheduled.
+ * Scheduling after the shutdown, including a shutdown racing the scheduling, is a no-op which returns {@code null}.
+ *
+ * <p>If a task executor is provided, it's owned by this scheduler and the scheduling thread only hands due tasks over to it,
+ * so tasks may block without delaying the other tasks. This is used to run tasks on virtual threads.
+ */
+public class TaskScheduler {
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	private final ScheduledExecutorService executor;
+	private final boolean ownsExecutor;
+	private final ExecutorService taskExecutor;
+	private final Set<TrackedTask> tasks = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean shutdown;
+
+	public TaskScheduler(ScheduledExecutorService executor) {
+		this(executor, null);
+	}
+
+	public TaskScheduler(ScheduledExecutorService executor, ExecutorService taskExecutor) {
+		this.ownsExecutor = executor == null;
+		this.executor = ownsExecutor ? Executors.newSingleThreadScheduledExecutor(TaskScheduler::newThread) : executor;
+		this.taskExecutor = taskExecutor;
+	}
+
+	public Future<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		if (shutdown)
+			return null;
+		TrackedTask tracked = new TrackedTask(task, false);
+		tasks.add(tracked);
+		try {
+			return tracked.track(executor.schedule(tracked, delay, unit));
+		}
+		catch (RejectedExecutionException e) {
+			// shut down in the meantime
+			tasks.remove(tracked);
+			return null;
+		}
+	}
+
+	public void scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+		if (shutdown)
+			return;
+		TrackedTask tracked = new TrackedTask(task, true);
+		tasks.add(tracked);
+		try {
+			tracked.track(executor.scheduleAtFixedRate(tracked, initialDelay, period, unit));
+		}
+		catch (RejectedExecutionException e) {
+			tasks.remove(tracked);
+		}
+	}
+
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	/**
+	 * Cancels all scheduled tasks and shuts down the executor if it's owned by this scheduler.
+	 */
+	public void shutdown() {
+		shutdown = true;
+		tasks.forEach(task -> task.cancel(false));
+		if (ownsExecutor)
+			executor.shutdownNow();
+		// tasks already handed over may still be posting, they're awaited by the handler
+		if (taskExecutor != null)
+			taskExecutor.shutdown();
+	}
+
+	// internal
+
+	private Runnable handOver(Runnable task) {
+		if (taskExecutor == null)
+			return task;
+		return () -> {
+			try {
+				taskExecutor.execute(task);
+			}
+			catch (RejectedExecutionException ignored) {
+				// shut down in the meantime
+			}
+		};
+	}
+
+	/**
+	 * A task which drops itself from the tracked tasks once it ran or got cancelled.
+	 * Periodic tasks only drop themselves when cancelled.
+	 */
+	private class TrackedTask implements Runnable, Future<Object> {
+		private final Runnable task;
+		private final boolean periodic;
+		private volatile Future<?> future;
+
+		private TrackedTask(Runnable task, boolean periodic) {
+			this.task = handOver(task);
+			this.periodic = periodic;
+		}
+
+		private Future<?> track(Future<?> future) {
+			this.future = future;
+			// the shutdown may have iterated the tasks before the future was known
+			if (shutdown)
+				cancel(false);
+			return this;
+		}
+
+		@Override
+		public void run() {
+			try {
+				task.run();
+			}
+			finally {
+				if (!periodic)
+					tasks.remove(this);
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			tasks.remove(this);
+			Future<?> future = this.future;
+			return future != null && future.cancel(mayInterruptIfRunning);
+		}
+
+		@Override
+		public boolean isCancelled() {
+			Future<?> future = this.future;
+			return future != null && future.isCancelled();
+		}
+
+		@Override
+		public boolean isDone() {
+			Future<?> future = this.future;
+			return future != null && future.isDone();
+		}
+
+		@Override
+		public Object get() throws InterruptedException, ExecutionException {
+			return future.get();
+		}
+
+		@Override
+		public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			return future.get(timeout, unit);
+		}
+	}
+
+	private static Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, "BotListHandler-Scheduler-" + THREAD_COUNTER.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+}
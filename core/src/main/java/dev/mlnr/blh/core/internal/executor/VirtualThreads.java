@@ -0,0 +1,21 @@
+package dev.mlnr.blh.core.internal.executor;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates executors running every task on its own virtual thread.
+ *
+ * <p>This is the Java 8 variant, which reports virtual threads as unsupported.
+ * On Java 21 and newer, the variant in {@code META-INF/versions/21} of the multi-release jar is loaded instead.
+ */
+public class VirtualThreads {
+	private VirtualThreads() {}
+
+	public static boolean isSupported() {
+		return false;
+	}
+
+	public static ExecutorService newExecutor(String namePrefix) {
+		throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+	}
+}
@@ -0,0 +1,73 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.BotListEndpoint;
+import dev.mlnr.blh.core.api.CustomBotList;
+
+/**
+ * A bot list a handler posts to, either a {@link BotList} or a {@link CustomBotList} added to the handler.
+ *
+ * <p>Every target has an index by which the handler and the bot contexts keep its state. The built-in bot lists use their ordinals,
+ * custom bot lists get the following indexes in the order they were added to the handler, see {@link EndpointRegistry}.
+ */
+public final class BotListTarget {
+	private static final BotListTarget[] BUILT_IN = new BotListTarget[BotList.values().length];
+
+	static {
+		for (BotList botList : BotList.values())
+			BUILT_IN[botList.ordinal()] = new BotListTarget(botList.ordinal(), botList, null);
+	}
+
+	private final int index;
+	private final BotList botList;
+	private final CustomBotList customBotList;
+
+	BotListTarget(int index, BotList botList, CustomBotList customBotList) {
+		this.index = index;
+		this.botList = botList;
+		this.customBotList = customBotList;
+	}
+
+	public static BotListTarget of(BotList botList) {
+		return BUILT_IN[botList.ordinal()];
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	// null for custom bot lists
+	public BotList getBotList() {
+		return botList;
+	}
+
+	// null for built-in bot lists
+	public CustomBotList getCustomBotList() {
+		return customBotList;
+	}
+
+	public boolean isBuiltIn() {
+		return botList != null;
+	}
+
+	public String getName() {
+		return botList != null ? botList.name() : customBotList.getName();
+	}
+
+	public int getRatelimit() {
+		return botList != null ? botList.getRatelimit() : customBotList.getRatelimit();
+	}
+
+	public long getRatelimitPeriod() {
+		return botList != null ? botList.getRatelimitPeriod() : customBotList.getRatelimitPeriod();
+	}
+
+	public BotListEndpoint getDefaultEndpoint() {
+		return botList != null ? BotListEndpoint.of(botList) : customBotList.getEndpoint();
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+}
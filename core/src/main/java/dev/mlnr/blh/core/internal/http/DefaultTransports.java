@@ -0,0 +1,35 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.HttpTransport;
+import dev.mlnr.blh.core.internal.config.HttpConfig;
+import dev.mlnr.blh.core.internal.utils.Checks;
+
+/**
+ * Creates the transport of handlers which weren't given one.
+ *
+ * <p>OkHttp is an optional dependency, so it's only used if it's on the classpath or an OkHttpClient was provided.
+ * Otherwise the requests are sent with the JDK HTTP client. No OkHttp class is referenced by this class,
+ * they're only loaded through {@link OkHttpTransport}.
+ */
+public class DefaultTransports {
+	private static final boolean OKHTTP_AVAILABLE = isOkHttpAvailable();
+
+	private DefaultTransports() {}
+
+	public static HttpTransport create(HttpConfig httpConfig, boolean virtualThreadsEnabled) {
+		if (httpConfig.getHttpClient() != null || OKHTTP_AVAILABLE)
+			return OkHttpTransport.create(httpConfig, virtualThreadsEnabled);
+		Checks.check(!JdkHttpTransports.isSupported(), "Posting on Java 8 requires OkHttp, add com.squareup.okhttp3:okhttp to the dependencies");
+		return JdkHttpTransports.shared();
+	}
+
+	private static boolean isOkHttpAvailable() {
+		try {
+			Class.forName("okhttp3.OkHttpClient", false, DefaultTransports.class.getClassLoader());
+			return true;
+		}
+		catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+}
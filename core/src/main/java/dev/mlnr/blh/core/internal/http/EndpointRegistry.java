@@ -0,0 +1,102 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.BotListEndpoint;
+import dev.mlnr.blh.core.api.CustomBotList;
+import dev.mlnr.blh.core.internal.utils.SlotArray;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The bot lists a handler posts to and their endpoints, compiled into renderers and indexed by the index of the {@link BotListTarget}.
+ *
+ * <p>The built-in endpoints are compiled once per process and shared by every registry.
+ * A replaced endpoint is compiled when it's registered, the request templates notice the new renderer by identity.
+ * Custom bot lists are only known to the registry of the handler they were added to and get the indexes after the built-in bot lists.
+ */
+public class EndpointRegistry {
+	private static final EndpointRenderer[] BUILT_IN = new EndpointRenderer[BotList.values().length];
+
+	static {
+		for (BotList botList : BotList.values())
+			BUILT_IN[botList.ordinal()] = new EndpointRenderer(BotListEndpoint.of(botList));
+	}
+
+	private final SlotArray<AtomicReference<EndpointRenderer>> renderers = new SlotArray<>(BUILT_IN.length, AtomicReference::new);
+	private final Map<String, BotListTarget> customTargets = new ConcurrentHashMap<>();
+	private volatile BotListTarget[] targets;
+
+	public EndpointRegistry(Map<BotList, BotListEndpoint> endpoints, Iterable<CustomBotList> customBotLists) {
+		BotList[] botLists = BotList.values();
+		BotListTarget[] targets = new BotListTarget[botLists.length];
+		for (BotList botList : botLists) {
+			targets[botList.ordinal()] = BotListTarget.of(botList);
+			renderers.get(botList.ordinal()).set(BUILT_IN[botList.ordinal()]);
+		}
+		this.targets = targets;
+		endpoints.forEach(this::set);
+		customBotLists.forEach(this::register);
+	}
+
+	/**
+	 * Returns the bot lists of this registry ordered by their indexes. The returned array must not be modified.
+	 *
+	 * @return The bot lists
+	 */
+	public BotListTarget[] targets() {
+		return targets;
+	}
+
+	/**
+	 * Adds a custom bot list, or replaces the custom bot list with the same name, which keeps its index.
+	 *
+	 * @param  customBotList
+	 *         The custom bot list
+	 *
+	 * @return The bot list
+	 */
+	public synchronized BotListTarget register(CustomBotList customBotList) {
+		BotListTarget[] current = targets;
+		BotListTarget previous = customTargets.get(customBotList.getName());
+		int index = previous == null ? current.length : previous.getIndex();
+		BotListTarget target = new BotListTarget(index, null, customBotList);
+		// the renderer is set before the bot list is published, so every published bot list has one
+		renderers.get(index).set(new EndpointRenderer(customBotList.getEndpoint()));
+		BotListTarget[] updated = previous == null ? Arrays.copyOf(current, index + 1) : current.clone();
+		updated[index] = target;
+		customTargets.put(customBotList.getName(), target);
+		targets = updated;
+		return target;
+	}
+
+	/**
+	 * Looks up a custom bot list by its name.
+	 *
+	 * @param  customBotList
+	 *         The custom bot list
+	 *
+	 * @return The bot list, or {@code null} if no custom bot list with its name has been added
+	 */
+	public BotListTarget find(CustomBotList customBotList) {
+		return customTargets.get(customBotList.getName());
+	}
+
+	public EndpointRenderer get(BotListTarget target) {
+		return renderers.get(target.getIndex()).get();
+	}
+
+	public EndpointRenderer get(BotList botList) {
+		return renderers.get(botList.ordinal()).get();
+	}
+
+	public void set(BotList botList, BotListEndpoint endpoint) {
+		renderers.get(botList.ordinal()).set(new EndpointRenderer(endpoint));
+	}
+
+	public void reset(BotList botList) {
+		renderers.get(botList.ordinal()).set(BUILT_IN[botList.ordinal()]);
+	}
+}
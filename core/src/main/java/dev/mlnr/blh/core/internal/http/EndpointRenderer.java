@@ -0,0 +1,142 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.BotListEndpoint;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link BotListEndpoint} compiled for posting.
+ *
+ * <p>The URL template is split around the bot id and the payload is encoded up front up to the counts,
+ * so rendering a URL is a single concatenation and encoding a payload only has to write the digits of the counts
+ * into an exactly sized array. If shard counts are provided, they are added to the same payload in the richest form
+ * the endpoint accepts, the shard count and/or the array of per-shard server counts.
+ */
+public class EndpointRenderer {
+	private static final byte PAYLOAD_SUFFIX = '}';
+
+	private final BotListEndpoint endpoint;
+	private final String urlPrefix;
+	private final String urlSuffix;
+	private final String authorizationPrefix;
+	private final byte[] payloadPrefix;
+	private final byte[] shardCountPrefix;
+	private final byte[] shardsPrefix;
+
+	public EndpointRenderer(BotListEndpoint endpoint) {
+		this.endpoint = endpoint;
+		String urlTemplate = endpoint.getUrlTemplate();
+		int placeholder = urlTemplate.indexOf(BotListEndpoint.BOT_ID_PLACEHOLDER);
+		this.urlPrefix = urlTemplate.substring(0, placeholder);
+		this.urlSuffix = urlTemplate.substring(placeholder + BotListEndpoint.BOT_ID_PLACEHOLDER.length());
+		this.authorizationPrefix = endpoint.getAuthorizationScheme() == null ? "" : endpoint.getAuthorizationScheme() + ' ';
+		this.payloadPrefix = ("{\"" + escape(endpoint.getServersField()) + "\":").getBytes(StandardCharsets.UTF_8);
+		this.shardCountPrefix = fieldPrefix(endpoint.getShardCountField(), "");
+		this.shardsPrefix = fieldPrefix(endpoint.getShardsField(), "[");
+	}
+
+	public BotListEndpoint getEndpoint() {
+		return endpoint;
+	}
+
+	public String getAuthorizationHeader() {
+		return endpoint.getAuthorizationHeader();
+	}
+
+	public String renderUrl(long botId) {
+		return urlPrefix + botId + urlSuffix;
+	}
+
+	public String renderAuthorization(String token) {
+		return authorizationPrefix.isEmpty() ? token : authorizationPrefix + token;
+	}
+
+	public byte[] renderPayload(long serverCount, long[] shardServerCounts) {
+		byte[] body = new byte[contentLength(serverCount, shardServerCounts)];
+		int position = put(body, 0, payloadPrefix);
+		position = putDecimal(body, position, serverCount);
+		if (shardServerCounts != null) {
+			if (shardCountPrefix != null) {
+				position = put(body, position, shardCountPrefix);
+				position = putDecimal(body, position, shardServerCounts.length);
+			}
+			if (shardsPrefix != null) {
+				position = put(body, position, shardsPrefix);
+				for (int i = 0; i < shardServerCounts.length; i++) {
+					if (i > 0)
+						body[position++] = ',';
+					position = putDecimal(body, position, shardServerCounts[i]);
+				}
+				body[position++] = ']';
+			}
+		}
+		body[position] = PAYLOAD_SUFFIX;
+		return body;
+	}
+
+	// internal
+
+	private int contentLength(long serverCount, long[] shardServerCounts) {
+		int length = payloadPrefix.length + digits(serverCount) + 1;
+		if (shardServerCounts == null)
+			return length;
+		if (shardCountPrefix != null)
+			length += shardCountPrefix.length + digits(shardServerCounts.length);
+		if (shardsPrefix != null) {
+			// the closing bracket and the commas between the counts
+			length += shardsPrefix.length + Math.max(1, shardServerCounts.length);
+			for (long shardServerCount : shardServerCounts)
+				length += digits(shardServerCount);
+		}
+		return length;
+	}
+
+	private static int put(byte[] body, int position, byte[] bytes) {
+		System.arraycopy(bytes, 0, body, position, bytes.length);
+		return position + bytes.length;
+	}
+
+	private static int putDecimal(byte[] body, int position, long value) {
+		int end = position + digits(value);
+		int index = end;
+		do {
+			body[--index] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		while (value > 0);
+		return end;
+	}
+
+	private static int digits(long value) {
+		int digits = 1;
+		while (value >= 10) {
+			value /= 10;
+			digits++;
+		}
+		return digits;
+	}
+
+	private static byte[] fieldPrefix(String field, String valuePrefix) {
+		return field == null ? null : (",\"" + escape(field) + "\":" + valuePrefix).getBytes(StandardCharsets.UTF_8);
+	}
+
+	// field names of custom endpoints may contain characters which have to be escaped in JSON
+	private static String escape(String field) {
+		StringBuilder builder = null;
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (c != '"' && c != '\\' && c >= 0x20) {
+				if (builder != null)
+					builder.append(c);
+				continue;
+			}
+			if (builder == null)
+				builder = new StringBuilder(field.length() + 8).append(field, 0, i);
+			if (c == '"' || c == '\\')
+				builder.append('\\').append(c);
+			else
+				builder.append(String.format("\\u%04x", (int) c));
+		}
+		return builder == null ? field : builder.toString();
+	}
+}
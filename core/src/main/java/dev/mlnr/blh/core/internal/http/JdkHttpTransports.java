@@ -0,0 +1,21 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.HttpTransport;
+
+/**
+ * Creates transports backed by {@code java.net.http.HttpClient}.
+ *
+ * <p>This is the Java 8 variant, which reports the JDK client as unsupported.
+ * On Java 11 and newer, the variant in {@code META-INF/versions/11} of the multi-release jar is loaded instead.
+ */
+public class JdkHttpTransports {
+	private JdkHttpTransports() {}
+
+	public static boolean isSupported() {
+		return false;
+	}
+
+	public static HttpTransport shared() {
+		throw new UnsupportedOperationException("The JDK HTTP client requires Java 11 or newer");
+	}
+}
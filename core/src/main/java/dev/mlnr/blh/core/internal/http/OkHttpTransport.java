@@ -0,0 +1,140 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.HttpTransport;
+import dev.mlnr.blh.core.api.StatsRequest;
+import dev.mlnr.blh.core.api.StatsResponse;
+import dev.mlnr.blh.core.internal.config.HttpConfig;
+import dev.mlnr.blh.core.internal.executor.VirtualThreads;
+import okhttp3.*;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends stats requests using an OkHttpClient.
+ *
+ * <p>The parsed URL and the headers are prepared once per {@link RequestTemplate}, every post only adds its payload to the prepared request.
+ *
+ * <p>If the dispatcher of the client is owned by this transport, e.g. a dispatcher running on virtual threads,
+ * its executor is shut down once the transport is closed. The client itself is never shut down, as its connection pool may be shared.
+ */
+public class OkHttpTransport implements PreparingTransport<Request> {
+	private static final MediaType JSON = MediaType.get(StatsRequest.CONTENT_TYPE);
+
+	private final OkHttpClient httpClient;
+	private final boolean ownsDispatcher;
+
+	public OkHttpTransport(OkHttpClient httpClient, boolean ownsDispatcher) {
+		this.httpClient = httpClient;
+		this.ownsDispatcher = ownsDispatcher;
+	}
+
+	/**
+	 * Creates the transport of a handler, using the configured client or the shared one.
+	 *
+	 * @param  httpConfig
+	 *         The HTTP config of the handler
+	 * @param  virtualThreadsEnabled
+	 *         Whether the requests should be dispatched on virtual threads
+	 *
+	 * @return The transport
+	 */
+	public static OkHttpTransport create(HttpConfig httpConfig, boolean virtualThreadsEnabled) {
+		OkHttpClient baseClient = httpConfig.getHttpClient() == null ? SharedHttpClient.get() : httpConfig.getHttpClient();
+		if (httpConfig.getConnectTimeout() == 0 && httpConfig.getReadTimeout() == 0 && !virtualThreadsEnabled)
+			return new OkHttpTransport(baseClient, false);
+		// derived clients share the connection pool of the base client, and its dispatcher unless virtual threads are used
+		OkHttpClient.Builder builder = baseClient.newBuilder();
+		if (httpConfig.getConnectTimeout() != 0)
+			builder.connectTimeout(httpConfig.getConnectTimeout(), TimeUnit.MILLISECONDS);
+		if (httpConfig.getReadTimeout() != 0)
+			builder.readTimeout(httpConfig.getReadTimeout(), TimeUnit.MILLISECONDS);
+		if (virtualThreadsEnabled) {
+			Dispatcher dispatcher = new Dispatcher(VirtualThreads.newExecutor("BotListHandler-Http-"));
+			dispatcher.setMaxRequestsPerHost(baseClient.dispatcher().getMaxRequestsPerHost());
+			builder.dispatcher(dispatcher);
+		}
+		return new OkHttpTransport(builder.build(), virtualThreadsEnabled);
+	}
+
+	@Nonnull
+	@Override
+	public CompletableFuture<StatsResponse> send(@Nonnull StatsRequest statsRequest) {
+		return send(prepare(statsRequest), statsRequest);
+	}
+
+	@Override
+	public Request prepare(StatsRequest statsRequest) {
+		return new Request.Builder()
+				.url(HttpUrl.get(statsRequest.getUrl()))
+				.header(statsRequest.getAuthorizationHeader(), statsRequest.getAuthorization())
+				.build();
+	}
+
+	/**
+	 * Creates the request sent for the stats request, adding the payload to the prepared request.
+	 *
+	 * @param  prepared
+	 *         The prepared request
+	 * @param  statsRequest
+	 *         The stats request
+	 *
+	 * @return The request to send
+	 */
+	public Request newRequest(Request prepared, StatsRequest statsRequest) {
+		return prepared.newBuilder()
+				.post(RequestBody.create(statsRequest.getBody(), JSON))
+				.build();
+	}
+
+	@Override
+	public CompletableFuture<StatsResponse> send(Request prepared, StatsRequest statsRequest) {
+		Call call = httpClient.newCall(newRequest(prepared, statsRequest));
+		CompletableFuture<StatsResponse> future = new CompletableFuture<>();
+		future.whenComplete((response, throwable) -> {
+			if (future.isCancelled())
+				call.cancel();
+		});
+		call.enqueue(new Callback() {
+			@Override
+			public void onFailure(Call call, IOException e) {
+				future.completeExceptionally(e);
+			}
+
+			@Override
+			public void onResponse(Call call, Response response) {
+				response.close();
+				future.complete(new OkHttpResponse(response.code(), response.headers()));
+			}
+		});
+		return future;
+	}
+
+	@Override
+	public void close() {
+		if (ownsDispatcher)
+			httpClient.dispatcher().executorService().shutdown();
+	}
+
+	private static class OkHttpResponse implements StatsResponse {
+		private final int code;
+		private final Headers headers;
+
+		private OkHttpResponse(int code, Headers headers) {
+			this.code = code;
+			this.headers = headers;
+		}
+
+		@Override
+		public int getCode() {
+			return code;
+		}
+
+		@Override
+		public String getHeader(@Nonnull String name) {
+			return headers.get(name);
+		}
+	}
+}
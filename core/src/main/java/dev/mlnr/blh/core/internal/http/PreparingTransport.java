@@ -0,0 +1,37 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.HttpTransport;
+import dev.mlnr.blh.core.api.StatsRequest;
+import dev.mlnr.blh.core.api.StatsResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A built-in transport which prepares the parts of a request which are the same for every post of a {@link RequestTemplate},
+ * such as the parsed URL and the headers. The prepared form is cached by the template, so posting only has to add the payload.
+ *
+ * @param <P> The type of the prepared request
+ */
+public interface PreparingTransport<P> extends HttpTransport {
+	/**
+	 * Prepares the URL and the headers of the request, the payload is ignored.
+	 *
+	 * @param  request
+	 *         The request to prepare
+	 *
+	 * @return The prepared request
+	 */
+	P prepare(StatsRequest request);
+
+	/**
+	 * Sends the request, using the prepared form for everything but the payload.
+	 *
+	 * @param  prepared
+	 *         The prepared form of the request
+	 * @param  request
+	 *         The request to send
+	 *
+	 * @return A future completing with the response
+	 */
+	CompletableFuture<StatsResponse> send(P prepared, StatsRequest request);
+}
@@ -0,0 +1,112 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.StatsRequest;
+import dev.mlnr.blh.core.api.StatsResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A prepared stats request for a bot list and a bot id.
+ *
+ * <p>The URL and the authorization are rendered once, so posting only has to encode the payload
+ * through the compiled {@link EndpointRenderer} of the bot list. Built-in transports additionally prepare their own form of the request,
+ * e.g. the parsed URL and the headers, once per template, see {@link PreparingTransport}.
+ */
+public class RequestTemplate {
+	private final BotListTarget botList;
+	private final EndpointRenderer renderer;
+	private final long botId;
+	private final String token;
+	private final String url;
+	private final String authorization;
+	// the request prepared by the transport which sent the last request, replaced if the transport changes
+	private volatile Prepared prepared;
+
+	public RequestTemplate(BotListTarget botList, EndpointRenderer renderer, long botId, String token) {
+		this.botList = botList;
+		this.renderer = renderer;
+		this.botId = botId;
+		this.token = token;
+		this.url = renderer.renderUrl(botId);
+		this.authorization = renderer.renderAuthorization(token);
+	}
+
+	/**
+	 * Returns whether this template was prepared for the provided renderer, bot id and token.
+	 * The renderer and the token are compared by identity as a replaced endpoint or a swapped token is always a different instance.
+	 *
+	 * @param  renderer
+	 *         The current renderer of the bot list
+	 * @param  botId
+	 *         The bot id
+	 * @param  token
+	 *         The token
+	 *
+	 * @return Whether this template can be reused
+	 */
+	public boolean matches(EndpointRenderer renderer, long botId, String token) {
+		return this.renderer == renderer && this.botId == botId && this.token == token;
+	}
+
+	/**
+	 * Creates a request posting the provided counts.
+	 *
+	 * @param  serverCount
+	 *         The total server count
+	 * @param  shardServerCounts
+	 *         The server count of each shard, indexed by shard id, or {@code null} if the bot isn't sharded
+	 *
+	 * @return The request
+	 */
+	public StatsRequest createRequest(long serverCount, long[] shardServerCounts) {
+		byte[] body = renderer.renderPayload(serverCount, shardServerCounts);
+		return botList.isBuiltIn()
+				? new StatsRequest(botList.getBotList(), url, renderer.getAuthorizationHeader(), authorization, body)
+				: new StatsRequest(botList.getCustomBotList(), url, renderer.getAuthorizationHeader(), authorization, body);
+	}
+
+	/**
+	 * Sends a request created by this template, preparing the transport's form of the request on the first send.
+	 *
+	 * @param  transport
+	 *         The transport
+	 * @param  request
+	 *         The request created by {@link #createRequest(long, long[])}
+	 *
+	 * @return A future completing with the response
+	 */
+	public <P> CompletableFuture<StatsResponse> send(PreparingTransport<P> transport, StatsRequest request) {
+		return transport.send(prepare(transport, request), request);
+	}
+
+	/**
+	 * Returns the transport's form of the requests created by this template, preparing it if needed.
+	 *
+	 * @param  transport
+	 *         The transport
+	 * @param  request
+	 *         A request created by {@link #createRequest(long, long[])}
+	 *
+	 * @return The prepared request
+	 */
+	@SuppressWarnings("unchecked")
+	public <P> P prepare(PreparingTransport<P> transport, StatsRequest request) {
+		Prepared current = prepared;
+		// racing senders may both prepare, the results are equal
+		if (current == null || current.transport != transport) {
+			current = new Prepared(transport, transport.prepare(request));
+			prepared = current;
+		}
+		return (P) current.request;
+	}
+
+	private static class Prepared {
+		private final PreparingTransport<?> transport;
+		private final Object request;
+
+		private Prepared(PreparingTransport<?> transport, Object request) {
+			this.transport = transport;
+			this.request = request;
+		}
+	}
+}
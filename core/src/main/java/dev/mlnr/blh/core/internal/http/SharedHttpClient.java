@@ -0,0 +1,32 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.BotList;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the process-wide OkHttpClient used by every handler which wasn't given its own client.
+ *
+ * <p>Sharing one client means sharing one connection pool, dispatcher and TLS session cache, so handlers posting to the same
+ * bot list hosts reuse connections instead of each keeping their own idle pool. The client is created on first use.
+ */
+public class SharedHttpClient {
+	// one idle connection per bot list host
+	private static final int MAX_IDLE_CONNECTIONS = BotList.values().length;
+	// stats are usually posted every few minutes, keep connections around for at least one interval
+	private static final long KEEP_ALIVE_MINUTES = 10;
+
+	private SharedHttpClient() {}
+
+	public static OkHttpClient get() {
+		return Holder.CLIENT;
+	}
+
+	private static class Holder {
+		private static final OkHttpClient CLIENT = new OkHttpClient.Builder()
+				.connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+				.build();
+	}
+}
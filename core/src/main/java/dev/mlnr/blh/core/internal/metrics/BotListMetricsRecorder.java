@@ -0,0 +1,94 @@
+package dev.mlnr.blh.core.internal.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the requests of a single bot list.
+ *
+ * <p>Counters are {@link LongAdder LongAdders}, so recording from many OkHttp threads doesn't contend on a single value.
+ */
+public class BotListMetricsRecorder {
+	public static final int SUCCESS = 0;
+	public static final int UNAUTHORIZED = 1;
+	public static final int RATELIMITED = 2;
+	public static final int CLIENT_ERROR = 3;
+	public static final int SERVER_ERROR = 4;
+	public static final int IO_FAILURE = 5;
+	public static final int OUTCOMES = 6;
+
+	private final LongAdder[] outcomes = new LongAdder[OUTCOMES];
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private final LongAdder ratelimitedNanos = new LongAdder();
+	private final AtomicLong ratelimitedSince = new AtomicLong();
+	private volatile long lastSuccessTimestamp;
+
+	public BotListMetricsRecorder() {
+		for (int i = 0; i < OUTCOMES; i++)
+			outcomes[i] = new LongAdder();
+	}
+
+	public void recordResponse(int code, long latencyNanos) {
+		int outcome;
+		if (code >= 200 && code < 300)
+			outcome = SUCCESS;
+		else if (code == 401)
+			outcome = UNAUTHORIZED;
+		else if (code == 429)
+			outcome = RATELIMITED;
+		else if (code >= 500)
+			outcome = SERVER_ERROR;
+		else
+			outcome = CLIENT_ERROR;
+		record(outcome, latencyNanos);
+
+		if (outcome == SUCCESS) {
+			lastSuccessTimestamp = System.currentTimeMillis();
+			endRatelimit();
+		}
+		else if (outcome == RATELIMITED) {
+			ratelimitedSince.compareAndSet(0, System.nanoTime());
+		}
+	}
+
+	public void recordFailure(long latencyNanos) {
+		record(IO_FAILURE, latencyNanos);
+	}
+
+	public long getCount(int outcome) {
+		return outcomes[outcome].sum();
+	}
+
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	/**
+	 * Returns the total time spent ratelimited, including the current ratelimit if there is one.
+	 *
+	 * @return The time spent ratelimited in nanoseconds
+	 */
+	public long getRatelimitedNanos() {
+		long since = ratelimitedSince.get();
+		long current = since == 0 ? 0 : System.nanoTime() - since;
+		return ratelimitedNanos.sum() + current;
+	}
+
+	public long getLastSuccessTimestamp() {
+		return lastSuccessTimestamp;
+	}
+
+	// internal
+
+	private void record(int outcome, long latencyNanos) {
+		outcomes[outcome].increment();
+		latencies.record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+	}
+
+	private void endRatelimit() {
+		long since = ratelimitedSince.getAndSet(0);
+		if (since != 0)
+			ratelimitedNanos.add(System.nanoTime() - since);
+	}
+}
@@ -0,0 +1,76 @@
+package dev.mlnr.blh.core.internal.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A lock-free log-linear histogram of latencies in microseconds.
+ *
+ * <p>Every power of two is split into 8 linear sub-buckets, so reported quantiles are at most 12.5% above the recorded value.
+ * Values up to 2^40 microseconds (about 12 days) are tracked, larger values land in the last bucket.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 40;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	public void record(long micros) {
+		long value = Math.max(0, micros);
+		buckets.incrementAndGet(Math.min(index(value), BUCKETS - 1));
+		max.accumulate(value);
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the upper bound of the bucket holding the provided quantile.
+	 *
+	 * @param  quantile
+	 *         The quantile between {@code 0} and {@code 1}
+	 *
+	 * @return The latency in microseconds, or {@code 0} if nothing was recorded
+	 */
+	public long getValueAtQuantile(double quantile) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(quantile * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			// the last bucket has no upper bound of its own
+			if (seen >= rank)
+				return i == BUCKETS - 1 ? getMax() : Math.min(upperBound(i), getMax());
+		}
+		return getMax();
+	}
+
+	// internal
+
+	private static int index(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long upperBound(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		int subBucket = index % SUB_BUCKETS;
+		return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
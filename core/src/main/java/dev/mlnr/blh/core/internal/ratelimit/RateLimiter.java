@@ -0,0 +1,200 @@
+package dev.mlnr.blh.core.internal.ratelimit;
+
+import dev.mlnr.blh.core.api.StatsResponse;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket for a single bot list.
+ *
+ * <p>The bucket is seeded with the default limits of the bot list and is corrected from the
+ * {@code X-RateLimit-*} and {@code Retry-After} headers of every response.
+ * Tokens may go negative, the debt is paid off by the refill, so every reservation gets its own slot in time.
+ * While the bucket is blocked by the server, the refill starts once the block ends.
+ *
+ * <p>Header values which aren't finite or are negative are ignored, so the default backoff is used instead.
+ * Waits are capped at an hour, so a bogus header can neither block a bot list for good nor overflow the deadline.
+ */
+public class RateLimiter {
+	private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+	private static final long EPOCH_MILLIS_THRESHOLD = 1_000_000_000_000L;
+	private static final long MAX_WAIT_NANOS = TimeUnit.HOURS.toNanos(1);
+
+	private final long periodNanos;
+
+	private double capacity;
+	private double tokens;
+	private long lastRefillNanos;
+	private long blockedUntilNanos;
+
+	public RateLimiter(BotListTarget botList) {
+		this.periodNanos = TimeUnit.MILLISECONDS.toNanos(botList.getRatelimitPeriod());
+		this.capacity = botList.getRatelimit();
+		this.tokens = capacity;
+		this.lastRefillNanos = System.nanoTime();
+		this.blockedUntilNanos = lastRefillNanos;
+	}
+
+	/**
+	 * Takes a token from the bucket.
+	 *
+	 * @return The amount of nanoseconds to wait before the request may be sent
+	 */
+	public synchronized long reserve() {
+		long now = System.nanoTime();
+		refill(now);
+		long wait = Math.max(0, blockedUntilNanos - now);
+		double deficit = 1 - tokens;
+		tokens -= 1;
+		if (deficit > 0)
+			wait += (long) (deficit * nanosPerToken());
+		return wait;
+	}
+
+	/**
+	 * Learns the budget of the bot list from the headers of a response.
+	 *
+	 * @param response
+	 *        The response
+	 */
+	public synchronized void update(StatsResponse response) {
+		long now = System.nanoTime();
+		refill(now);
+		long limit = parseLong(response.getHeader("X-RateLimit-Limit"));
+		if (limit > 0)
+			capacity = limit;
+		long remaining = parseLong(response.getHeader("X-RateLimit-Remaining"));
+		if (remaining >= 0)
+			tokens = Math.min(tokens, remaining);
+		long resetAfter = parseResetAfter(response);
+		if (remaining == 0 && resetAfter > 0)
+			blockUntil(now + resetAfter, capacity);
+	}
+
+	/**
+	 * Blocks the bucket after a 429 response for exactly as long as the server requested.
+	 *
+	 * @param  response
+	 *         The 429 response
+	 * @param  fallbackNanos
+	 *         The time to wait if the server didn't say for how long
+	 *
+	 * @return The amount of nanoseconds to wait before retrying
+	 */
+	public synchronized long onRatelimited(StatsResponse response, long fallbackNanos) {
+		long now = System.nanoTime();
+		long retryAfter = parseRetryAfter(response);
+		if (retryAfter < 0)
+			retryAfter = parseResetAfter(response);
+		if (retryAfter < 0)
+			retryAfter = Math.min(fallbackNanos, MAX_WAIT_NANOS);
+		blockUntil(now + retryAfter, 1);
+		return retryAfter;
+	}
+
+	/**
+	 * Blocks the bucket for a block which was persisted before a restart.
+	 *
+	 * @param  waitNanos
+	 *         The amount of nanoseconds left until the block ends
+	 */
+	public synchronized void restoreBlock(long waitNanos) {
+		if (waitNanos > 0)
+			blockUntil(System.nanoTime() + Math.min(waitNanos, MAX_WAIT_NANOS), 1);
+	}
+
+	/**
+	 * Returns for how long the bucket is blocked by the server.
+	 *
+	 * @return The amount of nanoseconds left until the block ends, or {@code 0} if the bucket isn't blocked
+	 */
+	public synchronized long getBlockedNanos() {
+		return Math.max(0, blockedUntilNanos - System.nanoTime());
+	}
+
+	// internal
+
+	private void blockUntil(long deadline, double tokensAfter) {
+		tokens = tokensAfter;
+		lastRefillNanos = deadline;
+		blockedUntilNanos = Math.max(blockedUntilNanos, deadline);
+	}
+
+	private void refill(long now) {
+		long elapsed = now - lastRefillNanos;
+		if (elapsed <= 0)
+			return;
+		tokens = Math.min(capacity, tokens + elapsed / nanosPerToken());
+		lastRefillNanos = now;
+	}
+
+	private double nanosPerToken() {
+		return periodNanos / capacity;
+	}
+
+	private static long parseRetryAfter(StatsResponse response) {
+		String retryAfter = response.getHeader("Retry-After");
+		if (retryAfter == null)
+			return -1;
+		double seconds = parseDouble(retryAfter);
+		if (!Double.isNaN(seconds))
+			return secondsToNanos(seconds);
+		try {
+			long date = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+			return millisToNanos(date - System.currentTimeMillis());
+		}
+		catch (DateTimeParseException ignored) {
+			return -1;
+		}
+	}
+
+	private static long parseResetAfter(StatsResponse response) {
+		double resetAfter = parseDouble(response.getHeader("X-RateLimit-Reset-After"));
+		if (!Double.isNaN(resetAfter))
+			return secondsToNanos(resetAfter);
+		long reset = parseLong(response.getHeader("X-RateLimit-Reset"));
+		if (reset < 0)
+			return -1;
+		// the reset header is either an epoch timestamp (seconds or millis) or the amount of seconds until the reset
+		long resetMillis;
+		if (reset >= EPOCH_MILLIS_THRESHOLD)
+			resetMillis = reset - System.currentTimeMillis();
+		else if (reset >= EPOCH_SECONDS_THRESHOLD)
+			resetMillis = reset * 1000 - System.currentTimeMillis();
+		else
+			resetMillis = reset * 1000;
+		return millisToNanos(resetMillis);
+	}
+
+	private static long parseLong(String value) {
+		double parsed = parseDouble(value);
+		// values beyond the range of a long saturate at Long.MAX_VALUE
+		return Double.isNaN(parsed) ? -1 : (long) parsed;
+	}
+
+	// returns NaN for missing, malformed, infinite and negative values
+	private static double parseDouble(String value) {
+		if (value == null)
+			return Double.NaN;
+		try {
+			double parsed = Double.parseDouble(value);
+			return Double.isInfinite(parsed) || parsed < 0 ? Double.NaN : parsed;
+		}
+		catch (NumberFormatException ignored) {
+			return Double.NaN;
+		}
+	}
+
+	// the cap is compared before converting, so huge values can't overflow
+	private static long secondsToNanos(double seconds) {
+		return seconds >= TimeUnit.NANOSECONDS.toSeconds(MAX_WAIT_NANOS) ? MAX_WAIT_NANOS : (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+	}
+
+	private static long millisToNanos(long millis) {
+		return millis >= TimeUnit.NANOSECONDS.toMillis(MAX_WAIT_NANOS) ? MAX_WAIT_NANOS : TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+	}
+}
@@ -0,0 +1,68 @@
+package dev.mlnr.blh.core.internal.state;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.internal.dispatch.RetryMailbox;
+import dev.mlnr.blh.core.internal.dispatch.StatsCoalescer;
+import dev.mlnr.blh.core.internal.http.RequestTemplate;
+import dev.mlnr.blh.core.internal.utils.SlotArray;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Everything a handler keeps per bot: the tokens, the bot list states, the request templates, the latest stats and the pending retries.
+ * Everything shared by all bots of a handler, such as the HTTP client, the scheduler, the rate limiters and the circuit breakers,
+ * is kept by the handler.
+ *
+ * <p>Bots without their own bot lists share the tokens of the bot lists added without a bot id, but every bot has its own context,
+ * so the states and the coalesced stats of one bot never affect another bot.
+ */
+public class BotContext {
+	private final SlotArray<AtomicReference<String>> tokens;
+	private final BotListStates states = new BotListStates();
+	private final SlotArray<AtomicReference<RequestTemplate>> requestTemplates = new SlotArray<>(BotList.values().length, AtomicReference::new);
+	// requests sent or scheduled per bot list, a count is only reconciled if nothing is pending
+	private final SlotArray<AtomicInteger> pendingRequests = new SlotArray<>(BotList.values().length, AtomicInteger::new);
+	private final AtomicReference<StatsSnapshot> latestStats = new AtomicReference<>();
+	private final RetryMailbox retries = new RetryMailbox();
+	private final StatsCoalescer coalescer;
+
+	public BotContext(SlotArray<AtomicReference<String>> tokens, Function<BotContext, StatsCoalescer> coalescerFactory) {
+		this.tokens = tokens;
+		// the coalescer posts through the context it belongs to, even once the bot has been removed
+		this.coalescer = coalescerFactory == null ? null : coalescerFactory.apply(this);
+	}
+
+	public static SlotArray<AtomicReference<String>> newTokens() {
+		return new SlotArray<>(BotList.values().length, AtomicReference::new);
+	}
+
+	public SlotArray<AtomicReference<String>> getTokens() {
+		return tokens;
+	}
+
+	public BotListStates getStates() {
+		return states;
+	}
+
+	public SlotArray<AtomicReference<RequestTemplate>> getRequestTemplates() {
+		return requestTemplates;
+	}
+
+	public SlotArray<AtomicInteger> getPendingRequests() {
+		return pendingRequests;
+	}
+
+	public AtomicReference<StatsSnapshot> getLatestStats() {
+		return latestStats;
+	}
+
+	public RetryMailbox getRetries() {
+		return retries;
+	}
+
+	public StatsCoalescer getCoalescer() {
+		return coalescer;
+	}
+}
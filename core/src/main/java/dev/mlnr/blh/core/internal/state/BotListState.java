@@ -0,0 +1,107 @@
+package dev.mlnr.blh.core.internal.state;
+
+/**
+ * An immutable snapshot of the state of a single bot list for a single bot.
+ *
+ * <p>Every transition creates a new instance which is swapped in by {@link BotListStates} using CAS.
+ * The circuit breaker of the bot list is shared by all bots and kept by {@link CircuitBreakers}.
+ */
+public class BotListState {
+	public static final BotListState INITIAL = new BotListState(Status.HEALTHY, -1, 0, -1);
+
+	private final Status status;
+	private final long lastPostedCount;
+	private final long lastPostedAt;
+	private final long lastAcknowledgedCount;
+
+	private BotListState(Status status, long lastPostedCount, long lastPostedAt, long lastAcknowledgedCount) {
+		this.status = status;
+		this.lastPostedCount = lastPostedCount;
+		this.lastPostedAt = lastPostedAt;
+		this.lastAcknowledgedCount = lastAcknowledgedCount;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public long getLastPostedCount() {
+		return lastPostedCount;
+	}
+
+	public long getLastPostedAt() {
+		return lastPostedAt;
+	}
+
+	public long getLastAcknowledgedCount() {
+		return lastAcknowledgedCount;
+	}
+
+	/**
+	 * Returns whether the last claimed count hasn't been acknowledged by the bot list. If no request is in flight, it should be sent again.
+	 * Ratelimited requests are retried on their own, unauthorized and parked bot lists aren't posted to.
+	 */
+	public boolean needsReconciliation() {
+		if (status == Status.RATELIMITED || status == Status.UNAUTHORIZED || status == Status.PARKED)
+			return false;
+		return lastPostedCount >= 0 && lastPostedCount != lastAcknowledgedCount;
+	}
+
+	public BotListState posted(long lastPostedCount, long lastPostedAt) {
+		return new BotListState(status, lastPostedCount, lastPostedAt, lastAcknowledgedCount);
+	}
+
+	public BotListState acknowledged(long lastAcknowledgedCount) {
+		return new BotListState(status, lastPostedCount, lastPostedAt, lastAcknowledgedCount);
+	}
+
+	// a request which went through or failed for another reason ends the ratelimit
+	public BotListState succeeded() {
+		if (status != Status.RATELIMITED)
+			return this;
+		return withStatus(Status.HEALTHY);
+	}
+
+	public BotListState failed() {
+		return succeeded();
+	}
+
+	public BotListState ratelimited() {
+		if (status == Status.PARKED)
+			return this;
+		return withStatus(Status.RATELIMITED);
+	}
+
+	public BotListState unauthorized() {
+		if (status == Status.PARKED)
+			return this;
+		return withStatus(Status.UNAUTHORIZED);
+	}
+
+	public BotListState authorized() {
+		if (status != Status.UNAUTHORIZED)
+			return this;
+		return withStatus(Status.HEALTHY);
+	}
+
+	public BotListState parked() {
+		return withStatus(Status.PARKED);
+	}
+
+	public BotListState unparked() {
+		if (status != Status.PARKED)
+			return this;
+		return INITIAL;
+	}
+
+	private BotListState withStatus(Status status) {
+		return new BotListState(status, lastPostedCount, lastPostedAt, lastAcknowledgedCount);
+	}
+
+	public enum Status {
+		HEALTHY,
+		RATELIMITED,
+		UNAUTHORIZED,
+		PARKED
+	}
+}
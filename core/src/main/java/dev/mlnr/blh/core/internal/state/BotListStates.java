@@ -0,0 +1,55 @@
+package dev.mlnr.blh.core.internal.state;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.PostingPolicy;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import dev.mlnr.blh.core.internal.utils.SlotArray;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds one {@link BotListState} per bot list, indexed by the index of the {@link BotListTarget}.
+ *
+ * <p>All transitions are lock-free CAS loops, so OkHttp threads, scheduler threads and event threads
+ * can update the same bot list without losing updates.
+ */
+public class BotListStates {
+	private final SlotArray<AtomicReference<BotListState>> states =
+			new SlotArray<>(BotList.values().length, () -> new AtomicReference<>(BotListState.INITIAL));
+
+	public BotListState get(BotListTarget botList) {
+		return states.get(botList.getIndex()).get();
+	}
+
+	public BotListState update(BotListTarget botList, UnaryOperator<BotListState> transition) {
+		return states.get(botList.getIndex()).updateAndGet(transition);
+	}
+
+	/**
+	 * Atomically claims posting the provided count for the bot list, if the posting policy wants to post it.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 * @param  serverCount
+	 *         The count to post
+	 * @param  postingPolicy
+	 *         The policy deciding whether the count should be posted
+	 *
+	 * @return {@code true} if this caller should post the count, {@code false} if it's still waiting for its acknowledgement or the policy declined it
+	 */
+	public boolean claim(BotListTarget botList, long serverCount, PostingPolicy postingPolicy) {
+		AtomicReference<BotListState> state = states.get(botList.getIndex());
+		while (true) {
+			BotListState current = state.get();
+			// a claimed count which hasn't been acknowledged is either in flight or left to the reconciliation,
+			// once it's acknowledged, the policy decides whether to post it again, e.g. to refresh a stale count
+			if (current.getLastPostedCount() == serverCount && serverCount != current.getLastAcknowledgedCount())
+				return false;
+			if (!postingPolicy.shouldPost(botList.getBotList(), serverCount, current.getLastAcknowledgedCount(), current.getLastPostedAt()))
+				return false;
+			if (state.compareAndSet(current, current.posted(serverCount, System.currentTimeMillis())))
+				return true;
+		}
+	}
+}
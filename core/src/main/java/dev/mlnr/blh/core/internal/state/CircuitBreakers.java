@@ -0,0 +1,129 @@
+package dev.mlnr.blh.core.internal.state;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.CircuitState;
+import dev.mlnr.blh.core.internal.config.CircuitBreakerConfig;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import dev.mlnr.blh.core.internal.utils.SlotArray;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the circuit breaker of every bot list of a handler, indexed by the index of the {@link BotListTarget}.
+ *
+ * <p>A circuit tracks whether the bot list itself is reachable, so it's shared by every bot of the handler.
+ * An outage opens the circuit once instead of once per bot, and a single probe decides for every bot whether the bot list is back.
+ * Whether a bot list is ratelimited, unauthorized or parked depends on the token, so it's kept in the {@link BotListState} of every bot.
+ *
+ * <p>All transitions are lock-free CAS loops, like the transitions of {@link BotListStates}.
+ */
+public class CircuitBreakers {
+	private final CircuitBreakerConfig config;
+	private final SlotArray<AtomicReference<Circuit>> circuits =
+			new SlotArray<>(BotList.values().length, () -> new AtomicReference<>(Circuit.CLOSED));
+
+	public CircuitBreakers(CircuitBreakerConfig config) {
+		this.config = config;
+	}
+
+	public Circuit get(BotListTarget botList) {
+		return circuits.get(botList.getIndex()).get();
+	}
+
+	/**
+	 * Checks whether the circuit of the bot list lets a request through.
+	 * If the backoff of an open circuit elapsed, exactly one caller is let through as the probe.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @return {@code true} if the request may be sent, {@code false} if the circuit is open or a probe is already in flight
+	 */
+	public boolean tryAcquire(BotListTarget botList) {
+		AtomicReference<Circuit> circuit = circuits.get(botList.getIndex());
+		while (true) {
+			Circuit current = circuit.get();
+			if (current.state == CircuitState.HALF_OPEN)
+				return false;
+			if (current.state != CircuitState.OPEN)
+				return true;
+			if (System.nanoTime() - current.openUntil < 0)
+				return false;
+			if (circuit.compareAndSet(current, new Circuit(CircuitState.HALF_OPEN, current.errorCount, current.openUntil, false)))
+				return true;
+		}
+	}
+
+	/**
+	 * Closes the circuit of the bot list once it answered, even if the answer is an error code which doesn't count as a failure,
+	 * such as {@code 401} or {@code 429}.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 */
+	public void onAnswered(BotListTarget botList) {
+		AtomicReference<Circuit> circuit = circuits.get(botList.getIndex());
+		if (circuit.get() != Circuit.CLOSED)
+			circuit.set(Circuit.CLOSED);
+	}
+
+	/**
+	 * Counts a failed request and opens the circuit once the failure threshold is reached.
+	 * Requests which were sent before the circuit opened and fail afterwards are counted, but don't extend the backoff.
+	 *
+	 * @param  botList
+	 *         The bot list
+	 *
+	 * @return The circuit after the failure
+	 */
+	public Circuit onFailure(BotListTarget botList) {
+		return circuits.get(botList.getIndex()).updateAndGet(current -> current.failed(config));
+	}
+
+	/**
+	 * The immutable state of a single circuit.
+	 */
+	public static class Circuit {
+		static final Circuit CLOSED = new Circuit(CircuitState.CLOSED, 0, 0, false);
+
+		private final CircuitState state;
+		private final int errorCount;
+		// System.nanoTime() after which an open circuit may be probed
+		private final long openUntil;
+		// whether this failure opened the circuit
+		private final boolean opened;
+
+		private Circuit(CircuitState state, int errorCount, long openUntil, boolean opened) {
+			this.state = state;
+			this.errorCount = errorCount;
+			this.openUntil = openUntil;
+			this.opened = opened;
+		}
+
+		public CircuitState getState() {
+			return state;
+		}
+
+		public int getErrorCount() {
+			return errorCount;
+		}
+
+		public long getOpenUntil() {
+			return openUntil;
+		}
+
+		public boolean isOpened() {
+			return opened;
+		}
+
+		private Circuit failed(CircuitBreakerConfig config) {
+			int errors = errorCount + 1;
+			if (state == CircuitState.OPEN)
+				return new Circuit(CircuitState.OPEN, errors, openUntil, false);
+			int threshold = config.getFailureThreshold();
+			if (!config.isCircuitBreakerEnabled() || errors < threshold)
+				return new Circuit(CircuitState.CLOSED, errors, 0, false);
+			return new Circuit(CircuitState.OPEN, errors, System.nanoTime() + config.getBackoff(errors - threshold), true);
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package dev.mlnr.blh.core.internal.state;
+
+import dev.mlnr.blh.core.api.BotList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Persists the state of every bot list in a small memory-mapped file, so a restarted handler doesn't post to every bot list at once.
+ *
+ * <p>The file starts with a header (magic, version, amount of records) followed by one record per {@link BotList}, indexed by its ordinal:
+ * the last acknowledged count and the epoch millis it was acknowledged at, the epoch millis until which the bot list is ratelimited,
+ * the fingerprint of the token which was rejected and flags. The fingerprint is the first 64 bits of the SHA-256 of the token,
+ * so the token isn't stored and a different token practically never matches, unlike with a 32-bit {@link String#hashCode()}.
+ * Writes go to the mapped pages, which the OS writes back even if the process crashes, so no write blocks on disk IO.
+ * A file which doesn't match the layout is reset.
+ */
+public class StateStore {
+	private static final Logger logger = LoggerFactory.getLogger(StateStore.class);
+
+	private static final int MAGIC = 0x424C4853; // BLHS
+	private static final int VERSION = 3;
+	private static final int HEADER_SIZE = 12;
+	private static final int RECORD_SIZE = 40;
+
+	private static final int LAST_ACKNOWLEDGED_COUNT = 0;
+	private static final int RATELIMITED_UNTIL = 8;
+	private static final int ACKNOWLEDGED_AT = 16;
+	private static final int TOKEN_FINGERPRINT = 24;
+	private static final int FLAGS = 32;
+
+	private static final int UNAUTHORIZED_FLAG = 1;
+	private static final int PARKED_FLAG = 1 << 1;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+
+	private StateStore(FileChannel channel, MappedByteBuffer buffer) {
+		this.channel = channel;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Opens or creates the state file.
+	 *
+	 * @param  path
+	 *         The path of the state file
+	 *
+	 * @return The state store, or {@code null} if the file couldn't be opened, in which case the handler runs without persisted state
+	 */
+	public static StateStore open(Path path) {
+		int records = BotList.values().length;
+		int size = HEADER_SIZE + records * RECORD_SIZE;
+		try {
+			FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			try {
+				boolean valid = channel.size() == size;
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				if (!valid || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != records)
+					reset(buffer, records);
+				return new StateStore(channel, buffer);
+			}
+			catch (IOException | RuntimeException e) {
+				channel.close();
+				throw e;
+			}
+		}
+		catch (IOException e) {
+			logger.warn("Could not open the state file {}, the state of the bot lists won't be persisted", path, e);
+			return null;
+		}
+	}
+
+	public synchronized long getLastAcknowledgedCount(BotList botList) {
+		return buffer.getLong(offset(botList) + LAST_ACKNOWLEDGED_COUNT);
+	}
+
+	public synchronized long getAcknowledgedAt(BotList botList) {
+		return buffer.getLong(offset(botList) + ACKNOWLEDGED_AT);
+	}
+
+	public synchronized long getRatelimitedUntil(BotList botList) {
+		return buffer.getLong(offset(botList) + RATELIMITED_UNTIL);
+	}
+
+	/**
+	 * Returns whether the provided token has been rejected by the bot list, a different token is assumed to be valid.
+	 */
+	public synchronized boolean isUnauthorized(BotList botList, String token) {
+		int offset = offset(botList);
+		return (buffer.getInt(offset + FLAGS) & UNAUTHORIZED_FLAG) != 0 && buffer.getLong(offset + TOKEN_FINGERPRINT) == fingerprint(token);
+	}
+
+	public synchronized boolean isParked(BotList botList) {
+		return (buffer.getInt(offset(botList) + FLAGS) & PARKED_FLAG) != 0;
+	}
+
+	public synchronized void acknowledged(BotList botList, long serverCount, long acknowledgedAt) {
+		int offset = offset(botList);
+		buffer.putLong(offset + LAST_ACKNOWLEDGED_COUNT, serverCount);
+		buffer.putLong(offset + ACKNOWLEDGED_AT, acknowledgedAt);
+	}
+
+	public synchronized void ratelimitedUntil(BotList botList, long epochMillis) {
+		buffer.putLong(offset(botList) + RATELIMITED_UNTIL, epochMillis);
+	}
+
+	public synchronized void unauthorized(BotList botList, String token) {
+		int offset = offset(botList);
+		buffer.putLong(offset + TOKEN_FINGERPRINT, fingerprint(token));
+		setFlag(offset, UNAUTHORIZED_FLAG, true);
+	}
+
+	public synchronized void authorized(BotList botList) {
+		setFlag(offset(botList), UNAUTHORIZED_FLAG, false);
+	}
+
+	public synchronized void parked(BotList botList, boolean parked) {
+		setFlag(offset(botList), PARKED_FLAG, parked);
+	}
+
+	/**
+	 * Writes the mapped pages back to the file and closes it.
+	 */
+	public synchronized void close() {
+		try {
+			buffer.force();
+			channel.close();
+		}
+		catch (IOException e) {
+			logger.warn("Could not close the state file", e);
+		}
+	}
+
+	// internal
+
+	private void setFlag(int offset, int flag, boolean set) {
+		int flags = buffer.getInt(offset + FLAGS);
+		buffer.putInt(offset + FLAGS, set ? flags | flag : flags & ~flag);
+	}
+
+	private static long fingerprint(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return ByteBuffer.wrap(digest).getLong();
+		}
+		catch (NoSuchAlgorithmException e) {
+			// every Java platform has to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static int offset(BotList botList) {
+		return HEADER_SIZE + botList.ordinal() * RECORD_SIZE;
+	}
+
+	private static void reset(MappedByteBuffer buffer, int records) {
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.putInt(8, records);
+		for (int i = 0; i < records; i++) {
+			int offset = HEADER_SIZE + i * RECORD_SIZE;
+			buffer.putLong(offset + LAST_ACKNOWLEDGED_COUNT, -1);
+			buffer.putLong(offset + ACKNOWLEDGED_AT, 0);
+			buffer.putLong(offset + RATELIMITED_UNTIL, 0);
+			buffer.putLong(offset + TOKEN_FINGERPRINT, 0);
+			buffer.putInt(offset + FLAGS, 0);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package dev.mlnr.blh.core.internal.state;
+
+/**
+ * The latest stats passed to the handler, used to send unacknowledged counts again.
+ */
+public class StatsSnapshot {
+	private final long botId;
+	private final long serverCount;
+	private final long[] shardServerCounts;
+
+	public StatsSnapshot(long botId, long serverCount, long[] shardServerCounts) {
+		this.botId = botId;
+		this.serverCount = serverCount;
+		this.shardServerCounts = shardServerCounts;
+	}
+
+	public long getBotId() {
+		return botId;
+	}
+
+	public long getServerCount() {
+		return serverCount;
+	}
+
+	public long[] getShardServerCounts() {
+		return shardServerCounts;
+	}
+}
@@ -1,6 +1,7 @@
 package dev.mlnr.blh.core.internal.utils;
 
 import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.CustomBotList;
 
 import java.util.Collection;
 import java.util.Map;
@@ -35,6 +36,13 @@ public class Checks {
 			throw new IllegalArgumentException(name + " may not be negative");
 	}
 
+	public static void notNegative(double d, String name) {
+		if (Double.isNaN(d))
+			throw new IllegalArgumentException(name + " may not be NaN");
+		if (d < 0)
+			throw new IllegalArgumentException(name + " may not be negative");
+	}
+
 	public static void noneNull(Object[] objects, String name) {
 		for (Object o : objects) {
 			notNull(o, name);
@@ -52,6 +60,11 @@ public class Checks {
 		checkToken(token);
 	}
 
+	public static void checkListAndToken(CustomBotList customBotList, String token) {
+		notNull(customBotList, "The custom bot list");
+		checkToken(token);
+	}
+
 	public static void checkToken(String token) {
 		notEmpty(token, "The bot list token");
 	}
@@ -0,0 +1,123 @@
+package dev.mlnr.blh.core.internal.utils;
+
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * A map keyed by primitive longs, without boxing the keys.
+ *
+ * <p>Reads are lock-free and read the current table through a volatile field. Writes are rare (bots being added or removed),
+ * so they're synchronized and copy the table, which keeps every published table immutable. Keys are stored using open addressing
+ * with linear probing, the table is kept at most half full.
+ */
+public class LongObjectMap<V> {
+	private static final int INITIAL_CAPACITY = 8;
+
+	private volatile Table<V> table = new Table<>(INITIAL_CAPACITY);
+
+	public V get(long key) {
+		Table<V> current = table;
+		int index = current.indexOf(key);
+		return index < 0 ? null : current.values[index];
+	}
+
+	public synchronized V computeIfAbsent(long key, LongFunction<V> mappingFunction) {
+		V value = get(key);
+		if (value != null)
+			return value;
+		value = mappingFunction.apply(key);
+		put(key, value);
+		return value;
+	}
+
+	public synchronized V put(long key, V value) {
+		Table<V> current = table;
+		int index = current.indexOf(key);
+		V previous = index < 0 ? null : current.values[index];
+		int size = index < 0 ? current.size + 1 : current.size;
+		int capacity = current.keys.length;
+		while (size * 2 > capacity)
+			capacity *= 2;
+		Table<V> copy = new Table<>(capacity);
+		current.forEachEntry((k, v) -> copy.insert(k, k == key ? value : v));
+		if (index < 0)
+			copy.insert(key, value);
+		table = copy;
+		return previous;
+	}
+
+	public synchronized V remove(long key) {
+		Table<V> current = table;
+		int index = current.indexOf(key);
+		if (index < 0)
+			return null;
+		// rebuilding the table keeps the probe sequences intact without tombstones
+		Table<V> copy = new Table<>(current.keys.length);
+		current.forEachEntry((k, v) -> {
+			if (k != key)
+				copy.insert(k, v);
+		});
+		table = copy;
+		return current.values[index];
+	}
+
+	public int size() {
+		return table.size;
+	}
+
+	public void forEachValue(Consumer<V> action) {
+		table.forEachEntry((key, value) -> action.accept(value));
+	}
+
+	private static class Table<V> {
+		private final long[] keys;
+		private final V[] values;
+		private final boolean[] used;
+		private int size;
+
+		@SuppressWarnings("unchecked")
+		private Table(int capacity) {
+			this.keys = new long[capacity];
+			this.values = (V[]) new Object[capacity];
+			this.used = new boolean[capacity];
+		}
+
+		private int indexOf(long key) {
+			int mask = keys.length - 1;
+			for (int index = hash(key) & mask; used[index]; index = (index + 1) & mask) {
+				if (keys[index] == key)
+					return index;
+			}
+			return -1;
+		}
+
+		private void insert(long key, V value) {
+			int mask = keys.length - 1;
+			int index = hash(key) & mask;
+			while (used[index])
+				index = (index + 1) & mask;
+			keys[index] = key;
+			values[index] = value;
+			used[index] = true;
+			size++;
+		}
+
+		private void forEachEntry(EntryConsumer<V> action) {
+			for (int i = 0; i < keys.length; i++) {
+				if (used[i])
+					action.accept(keys[i], values[i]);
+			}
+		}
+
+		// snowflakes share their timestamp bits, spread the low bits
+		private static int hash(long key) {
+			long hash = key * 0x9E3779B97F4A7C15L;
+			return (int) (hash ^ (hash >>> 32));
+		}
+	}
+
+	@FunctionalInterface
+	private interface EntryConsumer<V> {
+		void accept(long key, V value);
+	}
+}
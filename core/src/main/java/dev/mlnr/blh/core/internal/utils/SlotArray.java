@@ -0,0 +1,49 @@
+package dev.mlnr.blh.core.internal.utils;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * An array of holders indexed by the index of a bot list, growing when custom bot lists are added to a handler.
+ *
+ * <p>Reads are lock-free and read the current array through a volatile field. Growing is rare (custom bot lists being added),
+ * so it's synchronized and copies the array. A holder is created once and never replaced, so the state kept in it
+ * is never lost by a copy, and callers can keep a holder while the array grows.
+ */
+public class SlotArray<T> {
+	private final Supplier<T> factory;
+	private volatile Object[] holders;
+
+	public SlotArray(int length, Supplier<T> factory) {
+		this.factory = factory;
+		Object[] holders = new Object[length];
+		for (int i = 0; i < length; i++)
+			holders[i] = factory.get();
+		this.holders = holders;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int index) {
+		Object[] current = holders;
+		return index < current.length ? (T) current[index] : grow(index);
+	}
+
+	@SuppressWarnings("unchecked")
+	public void forEach(Consumer<T> action) {
+		for (Object holder : holders)
+			action.accept((T) holder);
+	}
+
+	@SuppressWarnings("unchecked")
+	private synchronized T grow(int index) {
+		Object[] current = holders;
+		if (index < current.length)
+			return (T) current[index];
+		Object[] grown = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+		for (int i = current.length; i < grown.length; i++)
+			grown[i] = factory.get();
+		holders = grown;
+		return (T) grown[index];
+	}
+}
@@ -0,0 +1,72 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.StatsRequest;
+import dev.mlnr.blh.core.api.StatsResponse;
+
+import javax.annotation.Nonnull;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends stats requests using {@code java.net.http.HttpClient}. The response body is discarded.
+ * The URL is parsed once per {@link RequestTemplate}.
+ */
+class JdkHttpTransport implements PreparingTransport<URI> {
+	private final HttpClient httpClient;
+
+	JdkHttpTransport(HttpClient httpClient) {
+		this.httpClient = httpClient;
+	}
+
+	@Nonnull
+	@Override
+	public CompletableFuture<StatsResponse> send(@Nonnull StatsRequest statsRequest) {
+		return send(prepare(statsRequest), statsRequest);
+	}
+
+	@Override
+	public URI prepare(StatsRequest statsRequest) {
+		return URI.create(statsRequest.getUrl());
+	}
+
+	@Override
+	public CompletableFuture<StatsResponse> send(URI uri, StatsRequest statsRequest) {
+		HttpRequest request = HttpRequest.newBuilder(uri)
+				.header(statsRequest.getAuthorizationHeader(), statsRequest.getAuthorization())
+				.header("Content-Type", StatsRequest.CONTENT_TYPE)
+				.POST(HttpRequest.BodyPublishers.ofByteArray(statsRequest.getBody()))
+				.build();
+		CompletableFuture<HttpResponse<Void>> call = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+		CompletableFuture<StatsResponse> future = call.thenApply(response -> new JdkResponse(response.statusCode(), response.headers()));
+		future.whenComplete((response, throwable) -> {
+			// aborts the exchange on Java 16 and newer
+			if (future.isCancelled())
+				call.cancel(true);
+		});
+		return future;
+	}
+
+	private static class JdkResponse implements StatsResponse {
+		private final int code;
+		private final HttpHeaders headers;
+
+		private JdkResponse(int code, HttpHeaders headers) {
+			this.code = code;
+			this.headers = headers;
+		}
+
+		@Override
+		public int getCode() {
+			return code;
+		}
+
+		@Override
+		public String getHeader(@Nonnull String name) {
+			return headers.firstValue(name).orElse(null);
+		}
+	}
+}
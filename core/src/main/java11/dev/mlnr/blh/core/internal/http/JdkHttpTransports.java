@@ -0,0 +1,28 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.HttpTransport;
+
+import java.net.http.HttpClient;
+
+/**
+ * Creates transports backed by {@code java.net.http.HttpClient}.
+ *
+ * <p>This is the Java 11 variant, packaged in {@code META-INF/versions/11} of the multi-release jar.
+ */
+public class JdkHttpTransports {
+	private JdkHttpTransports() {}
+
+	public static boolean isSupported() {
+		return true;
+	}
+
+	public static HttpTransport shared() {
+		return Holder.TRANSPORT;
+	}
+
+	private static class Holder {
+		private static final HttpTransport TRANSPORT = new JdkHttpTransport(HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.build());
+	}
+}
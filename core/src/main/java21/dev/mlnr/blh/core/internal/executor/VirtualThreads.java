@@ -0,0 +1,21 @@
+package dev.mlnr.blh.core.internal.executor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors running every task on its own virtual thread.
+ *
+ * <p>This is the Java 21 variant, packaged in {@code META-INF/versions/21} of the multi-release jar.
+ */
+public class VirtualThreads {
+	private VirtualThreads() {}
+
+	public static boolean isSupported() {
+		return true;
+	}
+
+	public static ExecutorService newExecutor(String namePrefix) {
+		return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 1).factory());
+	}
+}
@@ -0,0 +1,86 @@
+package dev.mlnr.blh.core.api;
+
+import dev.mlnr.blh.core.internal.executor.VirtualThreads;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+public class BLHBuilderTest {
+	private static final IBLHUpdater UPDATER = new IBLHUpdater() {
+		@Override
+		public long getBotId() {
+			return 42;
+		}
+
+		@Override
+		public long getServerCount() {
+			return 0;
+		}
+	};
+
+	@Test
+	public void bindsTheLoopbackAddressOfThisNode() throws IOException {
+		List<InetSocketAddress> nodes = loopbackAddresses(2);
+		BotListHandler botListHandler = new BLHBuilder(UPDATER).addBotList(BotList.TOP_GG, "token").setAutoPostDelay(30, TimeUnit.MINUTES)
+				.setCluster(1, nodes).setTransport(request -> new CompletableFuture<>()).build();
+		try (DatagramChannel channel = DatagramChannel.open()) {
+			try {
+				channel.bind(nodes.get(1));
+				fail("The address of node 1 should be bound by the handler");
+			}
+			catch (BindException expected) {}
+			// the address of the other node is left alone
+			channel.bind(nodes.get(0));
+		}
+		finally {
+			botListHandler.close();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsVirtualThreadsBeforeJava21() {
+		assumeFalse(VirtualThreads.isSupported());
+		new BLHBuilder().addBotList(BotList.TOP_GG, "token").setVirtualThreadsEnabled(true).build();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsWildcardClusterNodes() {
+		new BLHBuilder(UPDATER).setCluster(0, Collections.singletonList(new InetSocketAddress(47001)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsUnresolvedClusterNodes() {
+		new BLHBuilder(UPDATER).setCluster(0, Collections.singletonList(InetSocketAddress.createUnresolved("node.invalid", 47001)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsClusterNodesWithoutPort() {
+		new BLHBuilder(UPDATER).setCluster(0, Collections.singletonList(new InetSocketAddress("127.0.0.1", 0)));
+	}
+
+	// internal
+
+	private static List<InetSocketAddress> loopbackAddresses(int count) throws IOException {
+		InetAddress loopback = InetAddress.getByName("127.0.0.1");
+		List<InetSocketAddress> addresses = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			try (DatagramChannel channel = DatagramChannel.open()) {
+				channel.bind(new InetSocketAddress(loopback, 0));
+				addresses.add((InetSocketAddress) channel.getLocalAddress());
+			}
+		}
+		return addresses;
+	}
+}
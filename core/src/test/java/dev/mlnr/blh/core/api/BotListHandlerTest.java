@@ -0,0 +1,134 @@
+package dev.mlnr.blh.core.api;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that bots without bot lists of their own still keep their stats apart but share the circuits of the bot lists,
+ * posting through a transport which records the requests.
+ */
+public class BotListHandlerTest {
+	private static final StatsResponse OK = new StatsResponse() {
+		@Override
+		public int getCode() {
+			return 200;
+		}
+
+		@Override
+		public String getHeader(@Nonnull String name) {
+			return null;
+		}
+	};
+
+	private final BlockingQueue<StatsRequest> requests = new LinkedBlockingQueue<>();
+	private BotListHandler botListHandler;
+
+	@After
+	public void tearDown() {
+		botListHandler.close();
+	}
+
+	@Test
+	public void postsTheSameCountForEveryBot() throws InterruptedException {
+		botListHandler = builder().build();
+		botListHandler.updateAllStats(1, 100);
+		botListHandler.updateAllStats(2, 100);
+
+		Set<String> posted = new HashSet<>();
+		posted.add(describe(requests.poll(5, TimeUnit.SECONDS)));
+		posted.add(describe(requests.poll(5, TimeUnit.SECONDS)));
+		assertTrue(posted.contains("bots/1 default-token {\"server_count\":100}"));
+		assertTrue(posted.contains("bots/2 default-token {\"server_count\":100}"));
+	}
+
+	@Test
+	public void postsAllShardCountsInOneRequestPerBotList() throws InterruptedException {
+		botListHandler = builder().addBotList(BotList.DBOTS_GG, "dbots-token").build();
+		botListHandler.updateAllShardStats(1, new long[] {60, 40});
+
+		Set<String> posted = new HashSet<>();
+		posted.add(describe(requests.poll(5, TimeUnit.SECONDS)));
+		posted.add(describe(requests.poll(5, TimeUnit.SECONDS)));
+		assertTrue(posted.contains("bots/1 default-token {\"server_count\":100,\"shard_count\":2,\"shards\":[60,40]}"));
+		assertTrue(posted.contains("bots/1 dbots-token {\"guildCount\":100,\"shardCount\":2}"));
+		assertNull(requests.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void coalescesTheStatsOfEveryBotApart() throws InterruptedException {
+		botListHandler = builder().setCoalescingWindow(50, 1000, TimeUnit.MILLISECONDS).build();
+		botListHandler.updateAllStats(1, 111);
+		botListHandler.updateAllStats(2, 222);
+
+		Set<String> posted = new HashSet<>();
+		posted.add(describe(requests.poll(5, TimeUnit.SECONDS)));
+		posted.add(describe(requests.poll(5, TimeUnit.SECONDS)));
+		assertTrue(posted.contains("bots/1 default-token {\"server_count\":111}"));
+		assertTrue(posted.contains("bots/2 default-token {\"server_count\":222}"));
+	}
+
+	@Test
+	public void flushesARemovedBotWithItsOwnToken() throws InterruptedException {
+		botListHandler = builder().addBotList(42, BotList.TOP_GG, "bot-token").setCoalescingWindow(10_000, 10_000, TimeUnit.MILLISECONDS).build();
+		botListHandler.updateAllStats(42, 500);
+		botListHandler.removeBot(42);
+
+		assertEquals("bots/42 bot-token {\"server_count\":500}", describe(requests.poll(5, TimeUnit.SECONDS)));
+		assertNull(requests.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void opensTheCircuitOnceForEveryBot() throws Exception {
+		StatsResponse serverError = new StatsResponse() {
+			@Override
+			public int getCode() {
+				return 500;
+			}
+
+			@Override
+			public String getHeader(@Nonnull String name) {
+				return null;
+			}
+		};
+		botListHandler = new BLHBuilder().addBotList(BotList.TOP_GG, "default-token").setCircuitBreaker(2, 1, 1, TimeUnit.HOURS)
+				.setTransport(request -> {
+					requests.add(request);
+					return CompletableFuture.completedFuture(serverError);
+				}).build();
+		botListHandler.updateAllStatsAsync(1, 100).get(5, TimeUnit.SECONDS);
+		botListHandler.updateAllStatsAsync(2, 100).get(5, TimeUnit.SECONDS);
+
+		assertEquals(CircuitState.OPEN, botListHandler.getCircuitState(BotList.TOP_GG));
+		assertEquals(CircuitState.OPEN, botListHandler.getCircuitState(3, BotList.TOP_GG));
+		UpdateReport report = botListHandler.updateAllStatsAsync(3, 100).get(5, TimeUnit.SECONDS);
+		assertEquals(UpdateResult.Status.BLOCKED, report.getResult(BotList.TOP_GG).getStatus());
+		assertEquals(2, requests.size());
+	}
+
+	// internal
+
+	private BLHBuilder builder() {
+		return new BLHBuilder().addBotList(BotList.TOP_GG, "default-token").setTransport(request -> {
+			requests.add(request);
+			return CompletableFuture.completedFuture(OK);
+		});
+	}
+
+	private static String describe(StatsRequest request) {
+		assertNotNull(request);
+		String url = request.getUrl();
+		String bot = url.substring(url.indexOf("bots/"), url.lastIndexOf("/stats"));
+		return bot + " " + request.getAuthorization() + " " + new String(request.getBody(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,107 @@
+package dev.mlnr.blh.core.api;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Posts to custom bot lists through a transport which records the requests. Every test builds its own custom bot lists,
+ * as they're only known to the handlers they're added to.
+ */
+public class CustomBotListTest {
+	private static final StatsResponse OK = new StatsResponse() {
+		@Override
+		public int getCode() {
+			return 200;
+		}
+
+		@Override
+		public String getHeader(@Nonnull String name) {
+			return null;
+		}
+	};
+
+	private final BlockingQueue<StatsRequest> requests = new LinkedBlockingQueue<>();
+	private BotListHandler botListHandler;
+
+	@After
+	public void tearDown() {
+		botListHandler.close();
+	}
+
+	@Test
+	public void postsToACustomBotListAddedAtRuntime() throws InterruptedException {
+		CustomBotList customBotList = customBotList("https://example.com/api/bots/%s/stats");
+		botListHandler = builder().build();
+		botListHandler.addBotList(customBotList, "custom-token");
+		botListHandler.updateAllStats(1, 100);
+
+		StatsRequest request = poll(customBotList);
+		assertNull(request.getBotList());
+		assertEquals("example", request.getBotListName());
+		assertEquals("https://example.com/api/bots/1/stats", request.getUrl());
+		assertEquals("X-Token", request.getAuthorizationHeader());
+		assertEquals("Bot custom-token", request.getAuthorization());
+		assertEquals("{\"guilds\":100}", new String(request.getBody(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void replacesACustomBotListWithTheSameName() throws InterruptedException {
+		botListHandler = new BLHBuilder().addBotList(customBotList("https://example.com/api/v1/bots/%s/stats"), "custom-token")
+				.setTransport(this::record).build();
+		// another handler, e.g. the one built on a reload, may add a custom bot list of the same name as well
+		new BLHBuilder().addBotList(customBotList("https://example.com/api/v1/bots/%s/stats"), "other-token")
+				.setTransport(request -> CompletableFuture.completedFuture(OK)).build().close();
+		CustomBotList replaced = customBotList("https://example.com/api/v2/bots/%s/stats");
+		botListHandler.addBotList(replaced, "custom-token");
+		botListHandler.updateAllStats(1, 100);
+
+		assertEquals("https://example.com/api/v2/bots/1/stats", poll(replaced).getUrl());
+		assertEquals(1, botListHandler.getMetrics().getCustomBotListMetrics().size());
+	}
+
+	@Test
+	public void reportsTheResultsOfCustomBotLists() throws Exception {
+		CustomBotList customBotList = customBotList("https://example.com/api/bots/%s/stats");
+		botListHandler = builder().addBotList(customBotList, "custom-token").build();
+
+		UpdateReport report = botListHandler.updateAllStatsAsync(1, 100).get(5, TimeUnit.SECONDS);
+		assertEquals(UpdateResult.Status.SUCCESS, report.getResult(BotList.TOP_GG).getStatus());
+		assertEquals(UpdateResult.Status.SUCCESS, report.getResult(customBotList).getStatus());
+		assertTrue(report.isSuccessful());
+		assertEquals(1, botListHandler.getMetrics().getBotListMetrics(customBotList).getRequestCount(BLHMetrics.Outcome.SUCCESS));
+	}
+
+	// internal
+
+	private BLHBuilder builder() {
+		return new BLHBuilder().addBotList(BotList.TOP_GG, "default-token").setTransport(this::record);
+	}
+
+	private CompletableFuture<StatsResponse> record(StatsRequest request) {
+		requests.add(request);
+		return CompletableFuture.completedFuture(OK);
+	}
+
+	private StatsRequest poll(CustomBotList customBotList) throws InterruptedException {
+		StatsRequest request;
+		do
+			request = requests.poll(5, TimeUnit.SECONDS);
+		while (request != null && !customBotList.equals(request.getCustomBotList()));
+		assertNotNull(request);
+		return request;
+	}
+
+	private static CustomBotList customBotList(String urlTemplate) {
+		return CustomBotList.of("example",
+				BotListEndpoint.builder(urlTemplate, "guilds").setAuthorization("X-Token", "Bot").build(), 10, 1, TimeUnit.MINUTES);
+	}
+}
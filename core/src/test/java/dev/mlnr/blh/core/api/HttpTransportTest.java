@@ -0,0 +1,102 @@
+package dev.mlnr.blh.core.api;
+
+import dev.mlnr.blh.core.internal.http.JdkHttpTransports;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Sends requests through the built-in transports to a local server. The JDK transport is only tested where the JDK has an HTTP client,
+ * which is the case for the tests run against the multi-release jar.
+ */
+public class HttpTransportTest {
+	private final MockWebServer server = new MockWebServer();
+
+	@Before
+	public void setUp() throws IOException {
+		server.start();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		server.shutdown();
+	}
+
+	@Test
+	public void sendsTheRequestThroughOkHttp() throws Exception {
+		assertSendsTheRequest(HttpTransport.okHttp(new OkHttpClient()));
+	}
+
+	@Test
+	public void sendsTheRequestThroughTheJdk() throws Exception {
+		assumeTrue(JdkHttpTransports.isSupported());
+		assertSendsTheRequest(HttpTransport.jdk());
+	}
+
+	@Test
+	public void failsTheRequestThroughOkHttpWithoutAServer() throws Exception {
+		assertFailsWithoutAServer(HttpTransport.okHttp(new OkHttpClient()));
+	}
+
+	@Test
+	public void failsTheRequestThroughTheJdkWithoutAServer() throws Exception {
+		assumeTrue(JdkHttpTransports.isSupported());
+		assertFailsWithoutAServer(HttpTransport.jdk());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsTheJdkTransportBeforeJava11() {
+		assumeFalse(JdkHttpTransports.isSupported());
+		HttpTransport.jdk();
+	}
+
+	// internal
+
+	private void assertSendsTheRequest(HttpTransport transport) throws Exception {
+		server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "12"));
+		StatsResponse response = transport.send(request()).get(5, TimeUnit.SECONDS);
+		assertEquals(429, response.getCode());
+		assertEquals("12", response.getHeader("Retry-After"));
+		// header names are case insensitive
+		assertEquals("12", response.getHeader("retry-after"));
+		assertNull(response.getHeader("X-RateLimit-Remaining"));
+
+		RecordedRequest recorded = server.takeRequest(5, TimeUnit.SECONDS);
+		assertNotNull(recorded);
+		assertEquals("POST", recorded.getMethod());
+		assertEquals("/bots/1/stats", recorded.getPath());
+		assertEquals("Bot token", recorded.getHeader("X-Token"));
+		assertTrue(recorded.getHeader("Content-Type").startsWith(StatsRequest.CONTENT_TYPE));
+		assertEquals("{\"guilds\":100}", recorded.getBody().readString(StandardCharsets.UTF_8));
+	}
+
+	private void assertFailsWithoutAServer(HttpTransport transport) throws Exception {
+		StatsRequest request = request();
+		server.shutdown();
+		try {
+			transport.send(request).get(10, TimeUnit.SECONDS);
+			fail("Got a response without a server");
+		}
+		catch (ExecutionException expected) {
+			// expected
+		}
+	}
+
+	private StatsRequest request() {
+		String url = "http://" + server.getHostName() + ":" + server.getPort() + "/bots/1/stats";
+		return new StatsRequest(BotList.TOP_GG, url, "X-Token", "Bot token", "{\"guilds\":100}".getBytes(StandardCharsets.UTF_8));
+	}
+}
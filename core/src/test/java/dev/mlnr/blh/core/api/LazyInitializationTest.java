@@ -0,0 +1,107 @@
+package dev.mlnr.blh.core.api;
+
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that handlers only start their scheduler thread and create their transport once they post,
+ * by comparing the live scheduler threads before and after.
+ */
+public class LazyInitializationTest {
+	private static final String SCHEDULER_THREAD_PREFIX = "BotListHandler-Scheduler-";
+
+	private final AtomicInteger transportCalls = new AtomicInteger();
+
+	@Test
+	public void buildsHandlersWithoutStartingAThread() {
+		Set<Thread> before = schedulerThreads();
+		BotListHandler[] botListHandlers = new BotListHandler[10];
+		for (int i = 0; i < botListHandlers.length; i++)
+			botListHandlers[i] = builder().build();
+		try {
+			assertEquals(Collections.emptySet(), startedSince(before));
+		}
+		finally {
+			for (BotListHandler botListHandler : botListHandlers)
+				botListHandler.close();
+		}
+	}
+
+	@Test
+	public void doesNotStartAnythingForADevModeBot() {
+		Set<Thread> before = schedulerThreads();
+		BotListHandler botListHandler = builder().setDevModeIdPredicate(botId -> true).build();
+		try {
+			botListHandler.updateAllStats(1, 100);
+			assertEquals(Collections.emptySet(), startedSince(before));
+			assertEquals(0, transportCalls.get());
+		}
+		finally {
+			botListHandler.close();
+		}
+	}
+
+	@Test
+	public void startsTheSchedulerOnTheFirstPost() throws Exception {
+		Set<Thread> before = schedulerThreads();
+		BotListHandler botListHandler = builder().build();
+		Set<Thread> started;
+		try {
+			botListHandler.updateAllStatsAsync(1, 100).get(5, TimeUnit.SECONDS);
+			assertEquals(1, transportCalls.get());
+			started = startedSince(before);
+			assertEquals(1, started.size());
+		}
+		finally {
+			botListHandler.close();
+		}
+		// the owned scheduler is shut down with the handler
+		Thread thread = started.iterator().next();
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+	}
+
+	// internal
+
+	private BLHBuilder builder() {
+		return new BLHBuilder().addBotList(BotList.TOP_GG, "token").setTransport(request -> {
+			transportCalls.incrementAndGet();
+			return CompletableFuture.completedFuture(new StatsResponse() {
+				@Override
+				public int getCode() {
+					return 200;
+				}
+
+				@Override
+				public String getHeader(@Nonnull String name) {
+					return null;
+				}
+			});
+		});
+	}
+
+	// threads of handlers closed by other tests may still be stopping, so only new threads are compared
+	private static Set<Thread> startedSince(Set<Thread> before) {
+		Set<Thread> threads = schedulerThreads();
+		threads.removeAll(before);
+		return threads;
+	}
+
+	private static Set<Thread> schedulerThreads() {
+		Set<Thread> threads = new HashSet<>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.isAlive() && thread.getName().startsWith(SCHEDULER_THREAD_PREFIX))
+				threads.add(thread);
+		}
+		return threads;
+	}
+}
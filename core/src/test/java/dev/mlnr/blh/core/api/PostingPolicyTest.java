@@ -0,0 +1,107 @@
+package dev.mlnr.blh.core.api;
+
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PostingPolicyTest {
+	private static final long NEVER = 0;
+
+	@Test
+	public void postsEveryChangedCount() {
+		PostingPolicy policy = PostingPolicy.onChange();
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 100, -1, NEVER));
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 101, 100, now()));
+		assertFalse(policy.shouldPost(BotList.TOP_GG, 100, 100, now()));
+	}
+
+	@Test
+	public void postsOnceTheAbsoluteDeltaIsReached() {
+		PostingPolicy policy = PostingPolicy.absoluteDelta(10);
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 100, -1, NEVER));
+		assertFalse(policy.shouldPost(BotList.TOP_GG, 109, 100, now()));
+		assertFalse(policy.shouldPost(BotList.TOP_GG, 91, 100, now()));
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 110, 100, now()));
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 90, 100, now()));
+		// a delta of 0 still doesn't post an unchanged count
+		assertFalse(PostingPolicy.absoluteDelta(0).shouldPost(BotList.TOP_GG, 100, 100, now()));
+	}
+
+	@Test
+	public void postsOnceThePercentageDeltaIsReached() {
+		PostingPolicy policy = PostingPolicy.percentageDelta(1.5);
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 1000, -1, NEVER));
+		assertFalse(policy.shouldPost(BotList.TOP_GG, 1014, 1000, now()));
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 1015, 1000, now()));
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 985, 1000, now()));
+		// every change of an acknowledged count of 0 is a change of more than any percentage
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 1, 0, now()));
+	}
+
+	@Test
+	public void limitsHowOftenTheChangesArePosted() {
+		PostingPolicy policy = PostingPolicy.onChange().and(PostingPolicy.minInterval(5, TimeUnit.MINUTES));
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 100, -1, NEVER));
+		assertFalse(policy.shouldPost(BotList.TOP_GG, 200, 100, now()));
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 200, 100, now() - TimeUnit.MINUTES.toMillis(5)));
+	}
+
+	@Test
+	public void refreshesAStaleCount() {
+		PostingPolicy policy = PostingPolicy.onChange().or(PostingPolicy.maxStaleness(12, TimeUnit.HOURS));
+		assertFalse(policy.shouldPost(BotList.TOP_GG, 100, 100, now() - TimeUnit.HOURS.toMillis(11)));
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 100, 100, now() - TimeUnit.HOURS.toMillis(12)));
+		assertTrue(policy.shouldPost(BotList.TOP_GG, 101, 100, now()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsANaNPercentage() {
+		PostingPolicy.percentageDelta(Double.NaN);
+	}
+
+	@Test
+	public void skipsTheCountsDeclinedByThePolicyOfTheHandler() throws Exception {
+		AtomicInteger requests = new AtomicInteger();
+		BotListHandler botListHandler = new BLHBuilder().addBotList(BotList.TOP_GG, "token").setPostingPolicy(PostingPolicy.absoluteDelta(10))
+				.setTransport(request -> {
+					requests.incrementAndGet();
+					return CompletableFuture.completedFuture(new StatsResponse() {
+						@Override
+						public int getCode() {
+							return 200;
+						}
+
+						@Override
+						public String getHeader(@Nonnull String name) {
+							return null;
+						}
+					});
+				}).build();
+		try {
+			assertEquals(UpdateResult.Status.SUCCESS, update(botListHandler, 100));
+			// compared to the acknowledged count, not to the declined one
+			assertEquals(UpdateResult.Status.SKIPPED, update(botListHandler, 105));
+			assertEquals(UpdateResult.Status.SKIPPED, update(botListHandler, 109));
+			assertEquals(UpdateResult.Status.SUCCESS, update(botListHandler, 110));
+			assertEquals(2, requests.get());
+		}
+		finally {
+			botListHandler.close();
+		}
+	}
+
+	// internal
+
+	private static UpdateResult.Status update(BotListHandler botListHandler, long serverCount) throws Exception {
+		return botListHandler.updateAllStatsAsync(1, serverCount).get(5, TimeUnit.SECONDS).getResult(BotList.TOP_GG).getStatus();
+	}
+
+	private static long now() {
+		return System.currentTimeMillis();
+	}
+}
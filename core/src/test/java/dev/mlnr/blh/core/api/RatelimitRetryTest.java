@@ -0,0 +1,80 @@
+package dev.mlnr.blh.core.api;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ratelimits requests through a transport which records them and checks what the retry posts.
+ */
+public class RatelimitRetryTest {
+	private final BlockingQueue<String> requests = new LinkedBlockingQueue<>();
+	private BotListHandler botListHandler;
+
+	@After
+	public void tearDown() {
+		botListHandler.close();
+	}
+
+	@Test
+	public void retriesWithTheLatestCountAndTheCurrentToken() throws Exception {
+		botListHandler = builder(1).build();
+		// the report completes once the ratelimit has been handled
+		assertEquals(UpdateResult.Status.RATELIMITED, update(100));
+		assertEquals("token-a {\"server_count\":100}", requests.poll(5, TimeUnit.SECONDS));
+
+		// collected by the pending retry while the bot list is ratelimited
+		assertEquals(UpdateResult.Status.RATELIMITED, update(200));
+		assertEquals(UpdateResult.Status.RATELIMITED, update(300));
+		botListHandler.swapToken(BotList.TOP_GG, "token-b");
+
+		assertEquals("token-b {\"server_count\":300}", requests.poll(5, TimeUnit.SECONDS));
+		assertNull(requests.poll(500, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void schedulesASingleRetryForRepeatedRatelimits() throws Exception {
+		botListHandler = builder(2).build();
+		botListHandler.updateAllStats(1, 100);
+		assertEquals("token-a {\"server_count\":100}", requests.poll(5, TimeUnit.SECONDS));
+		// the retry is ratelimited again and schedules the next retry itself
+		assertEquals("token-a {\"server_count\":100}", requests.poll(5, TimeUnit.SECONDS));
+		assertEquals("token-a {\"server_count\":100}", requests.poll(5, TimeUnit.SECONDS));
+		assertNull(requests.poll(500, TimeUnit.MILLISECONDS));
+	}
+
+	// internal
+
+	private UpdateResult.Status update(long serverCount) throws Exception {
+		return botListHandler.updateAllStatsAsync(1, serverCount).get(5, TimeUnit.SECONDS).getResult(BotList.TOP_GG).getStatus();
+	}
+
+	// ratelimits the first requests for 200 ms each
+	private BLHBuilder builder(int ratelimitedRequests) {
+		AtomicInteger sent = new AtomicInteger();
+		return new BLHBuilder().addBotList(BotList.TOP_GG, "token-a").setTransport(request -> {
+			requests.add(request.getAuthorization() + " " + new String(request.getBody(), StandardCharsets.UTF_8));
+			boolean ratelimited = sent.incrementAndGet() <= ratelimitedRequests;
+			return CompletableFuture.completedFuture(new StatsResponse() {
+				@Override
+				public int getCode() {
+					return ratelimited ? 429 : 200;
+				}
+
+				@Override
+				public String getHeader(@Nonnull String name) {
+					return ratelimited && name.equals("Retry-After") ? "0.2" : null;
+				}
+			});
+		});
+	}
+}
@@ -0,0 +1,88 @@
+package dev.mlnr.blh.core.api;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the reconciliation pass of a handler directly, which otherwise runs once a minute.
+ */
+public class ReconciliationTest {
+	private final BlockingQueue<String> requests = new LinkedBlockingQueue<>();
+	private final AtomicBoolean dbotsDown = new AtomicBoolean(true);
+	private BotListHandler botListHandler;
+
+	@After
+	public void tearDown() {
+		botListHandler.close();
+	}
+
+	@Test
+	public void onlyResendsToTheBotListsWhichDidNotAcknowledgeTheCount() throws Exception {
+		botListHandler = new BLHBuilder().addBotList(BotList.TOP_GG, "token").addBotList(BotList.DBOTS_GG, "token").setTransport(request -> {
+			requests.add(request.getBotList() + " " + new String(request.getBody(), StandardCharsets.UTF_8));
+			boolean failed = request.getBotList() == BotList.DBOTS_GG && dbotsDown.get();
+			return CompletableFuture.completedFuture(response(failed ? 500 : 200));
+		}).build();
+
+		UpdateReport report = botListHandler.updateAllStatsAsync(1, 100).get(5, TimeUnit.SECONDS);
+		assertEquals(UpdateResult.Status.SUCCESS, report.getResult(BotList.TOP_GG).getStatus());
+		assertEquals(UpdateResult.Status.FAILED, report.getResult(BotList.DBOTS_GG).getStatus());
+		requests.clear();
+
+		dbotsDown.set(false);
+		botListHandler.reconcile();
+		assertEquals("DBOTS_GG {\"guildCount\":100}", requests.poll(5, TimeUnit.SECONDS));
+		assertNull(requests.poll(200, TimeUnit.MILLISECONDS));
+
+		// every bot list is up to date
+		botListHandler.reconcile();
+		assertNull(requests.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void keepsAFailedCountForTheNextPass() throws Exception {
+		botListHandler = new BLHBuilder().addBotList(BotList.DBOTS_GG, "token").setTransport(request -> {
+			requests.add(new String(request.getBody(), StandardCharsets.UTF_8));
+			return CompletableFuture.completedFuture(response(dbotsDown.get() ? 500 : 200));
+		}).build();
+		botListHandler.updateAllStatsAsync(1, 100).get(5, TimeUnit.SECONDS);
+		// an unchanged count isn't posted by an update, only by the reconciliation
+		assertEquals(UpdateResult.Status.SKIPPED, botListHandler.updateAllStatsAsync(1, 100).get(5, TimeUnit.SECONDS)
+				.getResult(BotList.DBOTS_GG).getStatus());
+		requests.clear();
+
+		botListHandler.reconcile();
+		assertEquals("{\"guildCount\":100}", requests.poll(5, TimeUnit.SECONDS));
+		dbotsDown.set(false);
+		botListHandler.reconcile();
+		assertEquals("{\"guildCount\":100}", requests.poll(5, TimeUnit.SECONDS));
+		botListHandler.reconcile();
+		assertNull(requests.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	// internal
+
+	private static StatsResponse response(int code) {
+		return new StatsResponse() {
+			@Override
+			public int getCode() {
+				return code;
+			}
+
+			@Override
+			public String getHeader(@Nonnull String name) {
+				return null;
+			}
+		};
+	}
+}
@@ -0,0 +1,87 @@
+package dev.mlnr.blh.core.api;
+
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that shutting a handler down drains the requests in flight, cancels the ones which don't finish in time and ignores later updates.
+ */
+public class ShutdownTest {
+	private static final StatsResponse OK = new StatsResponse() {
+		@Override
+		public int getCode() {
+			return 200;
+		}
+
+		@Override
+		public String getHeader(@Nonnull String name) {
+			return null;
+		}
+	};
+
+	private final BlockingQueue<CompletableFuture<StatsResponse>> calls = new LinkedBlockingQueue<>();
+
+	@Test
+	public void waitsForTheRequestsInFlight() throws InterruptedException {
+		BotListHandler botListHandler = builder().build();
+		botListHandler.updateAllStats(1, 100);
+		CompletableFuture<StatsResponse> call = calls.poll(5, TimeUnit.SECONDS);
+		assertNotNull(call);
+		new Thread(() -> {
+			sleep(100);
+			call.complete(OK);
+		}).start();
+
+		assertTrue(botListHandler.shutdown(Duration.ofSeconds(5)));
+		assertTrue(botListHandler.isShutdown());
+	}
+
+	@Test
+	public void cancelsTheRequestsWhichDidNotFinishInTime() throws InterruptedException {
+		BotListHandler botListHandler = builder().build();
+		botListHandler.updateAllStats(1, 100);
+		CompletableFuture<StatsResponse> call = calls.poll(5, TimeUnit.SECONDS);
+		assertNotNull(call);
+
+		assertFalse(botListHandler.shutdown(Duration.ofMillis(50)));
+		assertTrue(call.isCancelled());
+		// shutting down again has no effect
+		assertTrue(botListHandler.shutdown(Duration.ZERO));
+	}
+
+	@Test
+	public void ignoresUpdatesAfterTheShutdown() throws InterruptedException {
+		BotListHandler botListHandler = builder().build();
+		botListHandler.close();
+		botListHandler.updateAllStats(1, 100);
+
+		assertNull(calls.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	// internal
+
+	private BLHBuilder builder() {
+		return new BLHBuilder().addBotList(BotList.TOP_GG, "token").setTransport(request -> {
+			CompletableFuture<StatsResponse> call = new CompletableFuture<>();
+			calls.add(call);
+			return call;
+		});
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package dev.mlnr.blh.core.api;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that only updates which didn't need a request are reported as skipped, updates which couldn't be sent fail the report.
+ */
+public class UpdateReportTest {
+	private BotListHandler botListHandler;
+
+	@After
+	public void tearDown() {
+		botListHandler.close();
+	}
+
+	@Test
+	public void reportsAnUnchangedCountAsSkipped() throws Exception {
+		botListHandler = builder(respondingWith(200)).build();
+		update(100);
+
+		UpdateReport report = update(100);
+		assertEquals(UpdateResult.Status.SKIPPED, report.getResult(BotList.TOP_GG).getStatus());
+		assertTrue(report.isSuccessful());
+	}
+
+	@Test
+	public void reportsADroppedUpdateOfAnInvalidTokenAsUnauthorized() throws Exception {
+		botListHandler = builder(respondingWith(401)).build();
+		assertEquals(UpdateResult.Status.UNAUTHORIZED, update(100).getResult(BotList.TOP_GG).getStatus());
+
+		UpdateReport report = update(200);
+		UpdateResult result = report.getResult(BotList.TOP_GG);
+		assertEquals(UpdateResult.Status.UNAUTHORIZED, result.getStatus());
+		assertEquals(-1, result.getCode());
+		assertFalse(report.isSuccessful());
+	}
+
+	@Test
+	public void reportsAnUpdateBlockedByTheBulkheadAsBlocked() throws Exception {
+		// the first request never finishes, so it keeps the only permit
+		botListHandler = builder(request -> new CompletableFuture<>()).setMaxConcurrentRequests(1).build();
+		botListHandler.updateAllStats(1, 100);
+
+		UpdateReport report = update(200);
+		assertEquals(UpdateResult.Status.BLOCKED, report.getResult(BotList.TOP_GG).getStatus());
+		assertFalse(report.isSuccessful());
+	}
+
+	// internal
+
+	private UpdateReport update(long serverCount) throws Exception {
+		return botListHandler.updateAllStatsAsync(1, serverCount).get(5, TimeUnit.SECONDS);
+	}
+
+	private static BLHBuilder builder(HttpTransport transport) {
+		return new BLHBuilder().addBotList(BotList.TOP_GG, "token").setTransport(transport);
+	}
+
+	private static HttpTransport respondingWith(int code) {
+		StatsResponse response = new StatsResponse() {
+			@Override
+			public int getCode() {
+				return code;
+			}
+
+			@Override
+			public String getHeader(@Nonnull String name) {
+				return null;
+			}
+		};
+		return request -> CompletableFuture.completedFuture(response);
+	}
+}
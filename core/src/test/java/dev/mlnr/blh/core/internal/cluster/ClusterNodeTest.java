@@ -0,0 +1,135 @@
+package dev.mlnr.blh.core.internal.cluster;
+
+import dev.mlnr.blh.core.api.IBLHUpdater;
+import dev.mlnr.blh.core.internal.config.ClusterConfig;
+import dev.mlnr.blh.core.internal.state.StatsSnapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs a cluster of nodes on 127.0.0.1 in one process, heartbeating them by hand instead of on the scheduler.
+ */
+public class ClusterNodeTest {
+	private static final int NODES = 3;
+	private static final long BOT_ID = 42;
+	// short intervals keep the tests fast, a node only posts once it has been running for the node timeout
+	private static final long HEARTBEAT_INTERVAL = 20;
+	private static final long NODE_TIMEOUT = 200;
+	private static final long ELECTION_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+	private final List<ClusterNode> nodes = new ArrayList<>();
+	private final List<ClusterNode> running = new ArrayList<>();
+
+	@Before
+	public void setUp() throws IOException {
+		List<InetSocketAddress> addresses = loopbackAddresses(NODES);
+		for (int id = 0; id < NODES; id++) {
+			// every node runs a single shard with 10 servers per node id, e.g. node 1 runs shard 1 with 20 servers
+			long[] shardServerCounts = new long[NODES];
+			shardServerCounts[id] = (id + 1) * 10;
+			nodes.add(ClusterNode.open(new ClusterConfig(id, addresses, HEARTBEAT_INTERVAL, NODE_TIMEOUT), new FixedUpdater(shardServerCounts[id], shardServerCounts)));
+		}
+		running.addAll(nodes);
+	}
+
+	@After
+	public void tearDown() {
+		nodes.forEach(ClusterNode::close);
+	}
+
+	@Test
+	public void aggregatesTheCountsOfAllNodes() throws InterruptedException {
+		ClusterNode node = nodes.get(2);
+		assertTrue(heartbeatUntil(() -> node.aggregate().getServerCount() == 60, ELECTION_TIMEOUT));
+
+		StatsSnapshot stats = node.aggregate();
+		assertEquals(BOT_ID, stats.getBotId());
+		assertArrayEquals(new long[] {10, 20, 30}, stats.getShardServerCounts());
+	}
+
+	@Test
+	public void electsASinglePoster() throws InterruptedException {
+		assertTrue(heartbeatUntil(() -> nodes.get(0).isPoster(), ELECTION_TIMEOUT));
+		heartbeatUntil(() -> false, NODE_TIMEOUT);
+
+		assertTrue(nodes.get(0).isPoster());
+		assertFalse(nodes.get(1).isPoster());
+		assertFalse(nodes.get(2).isPoster());
+	}
+
+	@Test
+	public void failsOverWhenThePosterStops() throws InterruptedException {
+		assertTrue(heartbeatUntil(() -> nodes.get(0).isPoster(), ELECTION_TIMEOUT));
+
+		running.remove(nodes.get(0));
+		nodes.get(0).close();
+		assertTrue(heartbeatUntil(() -> nodes.get(1).isPoster(), ELECTION_TIMEOUT));
+
+		assertFalse(nodes.get(2).isPoster());
+		StatsSnapshot stats = nodes.get(1).aggregate();
+		assertEquals(50, stats.getServerCount());
+		assertArrayEquals(new long[] {0, 20, 30}, stats.getShardServerCounts());
+	}
+
+	// internal
+
+	private boolean heartbeatUntil(BooleanSupplier condition, long timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		while (System.nanoTime() - deadline < 0) {
+			running.forEach(ClusterNode::heartbeat);
+			if (condition.getAsBoolean())
+				return true;
+			Thread.sleep(HEARTBEAT_INTERVAL);
+		}
+		return condition.getAsBoolean();
+	}
+
+	private static List<InetSocketAddress> loopbackAddresses(int count) throws IOException {
+		InetAddress loopback = InetAddress.getByName("127.0.0.1");
+		List<InetSocketAddress> addresses = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			try (DatagramChannel channel = DatagramChannel.open()) {
+				channel.bind(new InetSocketAddress(loopback, 0));
+				addresses.add((InetSocketAddress) channel.getLocalAddress());
+			}
+		}
+		return addresses;
+	}
+
+	private static class FixedUpdater implements IBLHUpdater {
+		private final long serverCount;
+		private final long[] shardServerCounts;
+
+		private FixedUpdater(long serverCount, long[] shardServerCounts) {
+			this.serverCount = serverCount;
+			this.shardServerCounts = shardServerCounts;
+		}
+
+		@Override
+		public long getBotId() {
+			return BOT_ID;
+		}
+
+		@Override
+		public long getServerCount() {
+			return serverCount;
+		}
+
+		@Override
+		public long[] getShardServerCounts() {
+			return shardServerCounts;
+		}
+	}
+}
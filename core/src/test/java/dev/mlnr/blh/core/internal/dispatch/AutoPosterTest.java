@@ -0,0 +1,128 @@
+package dev.mlnr.blh.core.internal.dispatch;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.BotListEndpoint;
+import dev.mlnr.blh.core.api.CustomBotList;
+import dev.mlnr.blh.core.internal.executor.TaskScheduler;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import dev.mlnr.blh.core.internal.http.EndpointRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Schedules the runs of AutoPosters on an executor which only records them, so the delays can be checked without waiting for them.
+ */
+public class AutoPosterTest {
+	private static final BotListTarget TOP_GG = BotListTarget.of(BotList.TOP_GG);
+	private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	private final RecordingExecutor executor = new RecordingExecutor();
+	private final TaskScheduler scheduler = new TaskScheduler(executor);
+
+	@After
+	public void tearDown() {
+		scheduler.shutdown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void startsEveryBotAndBotListAtTheSamePhaseEveryTime() throws InterruptedException {
+		long first = start(TOP_GG, 60_000, 0, AutoPoster.phaseSeed(1, TOP_GG));
+		long again = start(TOP_GG, 60_000, 0, AutoPoster.phaseSeed(1, TOP_GG));
+		assertEquals(first, again, TimeUnit.MILLISECONDS.toNanos(50));
+	}
+
+	@Test
+	public void spreadsThePhasesOverThePeriod() throws InterruptedException {
+		Set<Long> tenths = new HashSet<>();
+		for (long botId = 1; botId <= 100; botId++) {
+			long delay = start(TOP_GG, 60_000, 0, AutoPoster.phaseSeed(botId, TOP_GG));
+			assertTrue(delay >= 0 && delay < MINUTE_NANOS);
+			tenths.add(delay * 10 / MINUTE_NANOS);
+		}
+		// consecutive bot ids don't end up next to each other
+		assertEquals(10, tenths.size());
+	}
+
+	@Test
+	public void boundsTheJitterToATenthOfThePeriod() throws InterruptedException {
+		long phase = start(TOP_GG, 60_000, 0, 42);
+		for (int i = 0; i < 20; i++) {
+			// asks for more jitter than the period allows
+			long delay = start(TOP_GG, 60_000, 60_000, 42);
+			assertTrue(Math.abs(delay - phase) <= MINUTE_NANOS / 10 + TimeUnit.MILLISECONDS.toNanos(50));
+		}
+	}
+
+	@Test
+	public void neverRunsMoreOftenThanTheRatelimitAllows() throws InterruptedException {
+		// top.gg allows a request every second
+		long first = start(TOP_GG, 10, 0, 42);
+		Runnable run = executor.takeTask();
+		run.run();
+		long second = executor.takeDelay();
+		assertEquals(TimeUnit.SECONDS.toNanos(1), second - first, TimeUnit.MILLISECONDS.toNanos(50));
+	}
+
+	@Test
+	public void skipsTheSlotsMissedDuringAStall() throws InterruptedException {
+		CustomBotList customBotList = CustomBotList.of("example",
+				BotListEndpoint.builder("https://example.com/bots/%s", "servers").build(), 1000, 1, TimeUnit.SECONDS);
+		BotListTarget botList = new EndpointRegistry(Collections.emptyMap(), Collections.emptyList()).register(customBotList);
+		long period = TimeUnit.MILLISECONDS.toNanos(100);
+
+		start(botList, 100, 0, 42);
+		Runnable run = executor.takeTask();
+		// stalls for more than three periods before the first run
+		Thread.sleep(350);
+		run.run();
+		long delay = executor.takeDelay();
+		// the next run is in the next slot, instead of right away to catch up
+		assertTrue(delay > 0 && delay <= period);
+	}
+
+	// internal
+
+	private long start(BotListTarget botList, long delay, long jitter, long phaseSeed) throws InterruptedException {
+		new AutoPoster(scheduler, botList, delay, jitter, () -> {}).start(0, phaseSeed);
+		return executor.takeDelay();
+	}
+
+	/**
+	 * Records the delays of the scheduled tasks and never runs them.
+	 */
+	private static class RecordingExecutor extends ScheduledThreadPoolExecutor {
+		private final BlockingQueue<Long> delays = new LinkedBlockingQueue<>();
+		private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+		private RecordingExecutor() {
+			super(1);
+		}
+
+		@Override
+		public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+			delays.add(unit.toNanos(delay));
+			tasks.add(command);
+			return super.schedule(() -> {}, 1, TimeUnit.DAYS);
+		}
+
+		private long takeDelay() throws InterruptedException {
+			Long delay = delays.poll(5, TimeUnit.SECONDS);
+			assertNotNull(delay);
+			return delay;
+		}
+
+		private Runnable takeTask() throws InterruptedException {
+			Runnable task = tasks.poll(5, TimeUnit.SECONDS);
+			assertNotNull(task);
+			return task;
+		}
+	}
+}
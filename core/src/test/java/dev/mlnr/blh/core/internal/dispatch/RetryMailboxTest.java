@@ -0,0 +1,63 @@
+package dev.mlnr.blh.core.internal.dispatch;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import dev.mlnr.blh.core.internal.state.StatsSnapshot;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RetryMailboxTest {
+	private static final BotListTarget TOP_GG = BotListTarget.of(BotList.TOP_GG);
+	private static final BotListTarget DBOTS_GG = BotListTarget.of(BotList.DBOTS_GG);
+
+	@Test
+	public void collapsesRepeatedRetriesIntoTheLatestStats() {
+		RetryMailbox retries = new RetryMailbox();
+		assertTrue(retries.offer(TOP_GG, stats(100)));
+		// the retry is already scheduled, so these callers don't schedule another one
+		assertFalse(retries.offer(TOP_GG, stats(200)));
+		assertFalse(retries.offer(TOP_GG, stats(300)));
+
+		assertEquals(300, retries.take(TOP_GG).getServerCount());
+		assertNull(retries.take(TOP_GG));
+		// the slot is empty again, the next ratelimit schedules a new retry
+		assertTrue(retries.offer(TOP_GG, stats(400)));
+	}
+
+	@Test
+	public void onlyReplacesTheStatsOfAScheduledRetry() {
+		RetryMailbox retries = new RetryMailbox();
+		retries.replace(TOP_GG, stats(100));
+		assertNull(retries.take(TOP_GG));
+
+		retries.offer(TOP_GG, stats(100));
+		retries.replace(TOP_GG, stats(200));
+		assertEquals(200, retries.take(TOP_GG).getServerCount());
+	}
+
+	@Test
+	public void keepsTheBotListsApart() {
+		RetryMailbox retries = new RetryMailbox();
+		assertTrue(retries.offer(TOP_GG, stats(100)));
+		assertTrue(retries.offer(DBOTS_GG, stats(200)));
+		assertEquals(100, retries.take(TOP_GG).getServerCount());
+		assertEquals(200, retries.take(DBOTS_GG).getServerCount());
+	}
+
+	@Test
+	public void dropsEveryPendingRetryOnClear() {
+		RetryMailbox retries = new RetryMailbox();
+		retries.offer(TOP_GG, stats(100));
+		retries.offer(DBOTS_GG, stats(200));
+		retries.clear();
+		assertNull(retries.take(TOP_GG));
+		assertNull(retries.take(DBOTS_GG));
+	}
+
+	// internal
+
+	private static StatsSnapshot stats(long serverCount) {
+		return new StatsSnapshot(1, serverCount, null);
+	}
+}
@@ -0,0 +1,106 @@
+package dev.mlnr.blh.core.internal.dispatch;
+
+import dev.mlnr.blh.core.internal.config.CoalescingConfig;
+import dev.mlnr.blh.core.internal.executor.TaskScheduler;
+import dev.mlnr.blh.core.internal.state.StatsSnapshot;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class StatsCoalescerTest {
+	private final TaskScheduler scheduler = new TaskScheduler(null);
+	private final BlockingQueue<StatsSnapshot> flushed = new LinkedBlockingQueue<>();
+
+	@After
+	public void tearDown() {
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void flushesOnlyTheLatestStatsOfABurst() throws InterruptedException {
+		StatsCoalescer coalescer = coalescer(50, 1000);
+		for (int i = 1; i <= 100; i++)
+			coalescer.mark(1, i, new long[] {i});
+
+		StatsSnapshot stats = flushed.poll(5, TimeUnit.SECONDS);
+		assertNotNull(stats);
+		assertEquals(100, stats.getServerCount());
+		assertArrayEquals(new long[] {100}, stats.getShardServerCounts());
+		assertNull(flushed.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void flushesOnceTheMaxLatencyElapsed() throws InterruptedException {
+		StatsCoalescer coalescer = coalescer(200, 300);
+		long start = System.nanoTime();
+		// the counts never go quiet, the max latency still flushes them
+		while (flushed.isEmpty() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5)) {
+			coalescer.mark(1, 1, null);
+			Thread.sleep(10);
+		}
+		assertFalse(flushed.isEmpty());
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Test
+	public void flushNowPostsThePendingStatsOnce() {
+		StatsCoalescer coalescer = coalescer(10_000, 10_000);
+		coalescer.mark(1, 100, null);
+		coalescer.flushNow();
+		coalescer.flushNow();
+
+		assertEquals(1, flushed.size());
+		assertEquals(100, flushed.peek().getServerCount());
+	}
+
+	@Test
+	public void neverMixesTheValuesOfTwoUpdates() throws Exception {
+		AtomicBoolean mixed = new AtomicBoolean();
+		AtomicInteger flushes = new AtomicInteger();
+		StatsCoalescer coalescer = new StatsCoalescer(scheduler, new CoalescingConfig(10_000, 10_000), (botId, serverCount, shardServerCounts) -> {
+			flushes.incrementAndGet();
+			if (botId != serverCount || shardServerCounts[0] != serverCount)
+				mixed.set(true);
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			Future<?>[] futures = new Future<?>[4];
+			for (int thread = 0; thread < 3; thread++) {
+				long offset = thread * 1_000_000L;
+				futures[thread] = executor.submit(() -> {
+					start.await();
+					for (long i = offset; i < offset + 100_000; i++)
+						coalescer.mark(i, i, new long[] {i});
+					return null;
+				});
+			}
+			futures[3] = executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < 100_000; i++)
+					coalescer.flushNow();
+				return null;
+			});
+			start.countDown();
+			for (Future<?> future : futures)
+				future.get(30, TimeUnit.SECONDS);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertTrue(flushes.get() > 0);
+		assertFalse(mixed.get());
+	}
+
+	// internal
+
+	private StatsCoalescer coalescer(long quietPeriod, long maxLatency) {
+		return new StatsCoalescer(scheduler, new CoalescingConfig(quietPeriod, maxLatency),
+				(botId, serverCount, shardServerCounts) -> flushed.add(new StatsSnapshot(botId, serverCount, shardServerCounts)));
+	}
+}
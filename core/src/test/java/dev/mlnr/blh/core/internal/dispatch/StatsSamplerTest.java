@@ -0,0 +1,96 @@
+package dev.mlnr.blh.core.internal.dispatch;
+
+import dev.mlnr.blh.core.internal.state.StatsSnapshot;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class StatsSamplerTest {
+	private final AtomicInteger samples = new AtomicInteger();
+
+	@Test
+	public void sharesTheSampleOfAPeriod() {
+		StatsSampler sampler = new StatsSampler(this::sample, TimeUnit.MINUTES.toMillis(1));
+		StatsSnapshot first = sampler.sample();
+		assertSame(first, sampler.sample());
+		assertSame(first, sampler.sample());
+		assertEquals(1, samples.get());
+	}
+
+	@Test
+	public void samplesAgainOnceThePeriodElapsed() throws InterruptedException {
+		StatsSampler sampler = new StatsSampler(this::sample, 50);
+		StatsSnapshot first = sampler.sample();
+		Thread.sleep(100);
+		StatsSnapshot second = sampler.sample();
+		assertNotSame(first, second);
+		assertEquals(2, second.getServerCount());
+	}
+
+	@Test
+	public void doesNotCacheAFailedSample() {
+		AtomicInteger attempts = new AtomicInteger();
+		StatsSampler sampler = new StatsSampler(() -> {
+			if (attempts.incrementAndGet() == 1)
+				throw new IllegalStateException("The guild cache isn't ready yet");
+			return sample();
+		}, TimeUnit.MINUTES.toMillis(1));
+
+		try {
+			sampler.sample();
+			fail("The failed sample wasn't thrown");
+		}
+		catch (IllegalStateException expected) {
+			// expected
+		}
+		assertEquals(1, sampler.sample().getServerCount());
+		assertEquals(2, attempts.get());
+	}
+
+	@Test
+	public void letsCollidingRunsWaitForTheSample() throws Exception {
+		CountDownLatch sampling = new CountDownLatch(1);
+		StatsSampler sampler = new StatsSampler(() -> {
+			sampling.countDown();
+			sleep(100);
+			return sample();
+		}, TimeUnit.MINUTES.toMillis(1));
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<StatsSnapshot>> futures = new ArrayList<>();
+			futures.add(executor.submit(sampler::sample));
+			assertTrue(sampling.await(5, TimeUnit.SECONDS));
+			for (int i = 0; i < 3; i++)
+				futures.add(executor.submit(sampler::sample));
+
+			StatsSnapshot first = futures.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<StatsSnapshot> future : futures)
+				assertSame(first, future.get(5, TimeUnit.SECONDS));
+			assertEquals(1, samples.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// internal
+
+	private StatsSnapshot sample() {
+		return new StatsSnapshot(1, samples.incrementAndGet(), null);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
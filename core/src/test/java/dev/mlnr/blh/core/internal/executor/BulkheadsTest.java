@@ -0,0 +1,88 @@
+package dev.mlnr.blh.core.internal.executor;
+
+import dev.mlnr.blh.core.api.*;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BulkheadsTest {
+	private static final BotListTarget TOP_GG = BotListTarget.of(BotList.TOP_GG);
+	private static final BotListTarget DBOTS_GG = BotListTarget.of(BotList.DBOTS_GG);
+
+	@Test
+	public void refusesPermitsBeyondTheLimitOfTheBotList() {
+		int[] limits = new int[BotList.values().length];
+		limits[TOP_GG.getIndex()] = 2;
+		limits[DBOTS_GG.getIndex()] = 1;
+		Bulkheads bulkheads = new Bulkheads(limits, 1);
+
+		assertTrue(bulkheads.tryAcquire(TOP_GG));
+		assertTrue(bulkheads.tryAcquire(TOP_GG));
+		assertFalse(bulkheads.tryAcquire(TOP_GG));
+		assertTrue(bulkheads.tryAcquire(DBOTS_GG));
+
+		bulkheads.release(TOP_GG);
+		assertTrue(bulkheads.tryAcquire(TOP_GG));
+	}
+
+	@Test
+	public void marksABotListBlockedUntilTheMarkIsTaken() {
+		int[] limits = new int[BotList.values().length];
+		limits[TOP_GG.getIndex()] = 1;
+		Bulkheads bulkheads = new Bulkheads(limits, 1);
+
+		assertTrue(bulkheads.tryAcquire(TOP_GG));
+		assertFalse(bulkheads.takeBlocked(TOP_GG));
+		assertFalse(bulkheads.tryAcquire(TOP_GG));
+		assertTrue(bulkheads.takeBlocked(TOP_GG));
+		assertFalse(bulkheads.takeBlocked(TOP_GG));
+	}
+
+	@Test
+	public void postsTheRefusedCountOnceTheRequestInFlightFinished() throws Exception {
+		CompletableFuture<StatsResponse> firstResponse = new CompletableFuture<>();
+		BlockingQueue<String> posted = new LinkedBlockingQueue<>();
+		BotListHandler botListHandler = new BLHBuilder().addBotList(BotList.TOP_GG, "token").setMaxConcurrentRequests(1).setTransport(request -> {
+			posted.add(new String(request.getBody(), StandardCharsets.UTF_8));
+			return posted.size() == 1 ? firstResponse : CompletableFuture.completedFuture(response(200));
+		}).build();
+		try {
+			botListHandler.updateAllStats(1, 100);
+			assertEquals("{\"server_count\":100}", posted.poll(5, TimeUnit.SECONDS));
+			UpdateReport report = botListHandler.updateAllStatsAsync(1, 200).get(5, TimeUnit.SECONDS);
+			assertEquals(UpdateResult.Status.BLOCKED, report.getResult(BotList.TOP_GG).getStatus());
+
+			firstResponse.complete(response(200));
+			// sent right away instead of by the reconciliation a minute later
+			assertEquals("{\"server_count\":200}", posted.poll(5, TimeUnit.SECONDS));
+			assertNull(posted.poll(200, TimeUnit.MILLISECONDS));
+		}
+		finally {
+			botListHandler.close();
+		}
+	}
+
+	// internal
+
+	private static StatsResponse response(int code) {
+		return new StatsResponse() {
+			@Override
+			public int getCode() {
+				return code;
+			}
+
+			@Override
+			public String getHeader(@Nonnull String name) {
+				return null;
+			}
+		};
+	}
+}
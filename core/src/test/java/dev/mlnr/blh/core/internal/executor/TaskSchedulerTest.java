@@ -0,0 +1,75 @@
+package dev.mlnr.blh.core.internal.executor;
+
+import org.junit.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class TaskSchedulerTest {
+	@Test
+	public void runsScheduledTasks() throws Exception {
+		TaskScheduler scheduler = new TaskScheduler(null);
+		try {
+			CountDownLatch ran = new CountDownLatch(3);
+			scheduler.schedule(ran::countDown, 0, TimeUnit.MILLISECONDS);
+			scheduler.scheduleAtFixedRate(ran::countDown, 0, 10, TimeUnit.MILLISECONDS);
+			assertTrue(ran.await(5, TimeUnit.SECONDS));
+		}
+		finally {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void cancelsPendingTasksOnShutdown() {
+		TaskScheduler scheduler = new TaskScheduler(null);
+		Future<?> task = scheduler.schedule(() -> fail("The task should have been cancelled"), 1, TimeUnit.HOURS);
+		scheduler.shutdown();
+
+		assertTrue(scheduler.isShutdown());
+		assertTrue(task.isCancelled());
+	}
+
+	@Test
+	public void ignoresTasksScheduledAfterShutdown() {
+		TaskScheduler scheduler = new TaskScheduler(null);
+		scheduler.shutdown();
+
+		assertNull(scheduler.schedule(() -> fail("The task should have been ignored"), 0, TimeUnit.MILLISECONDS));
+		scheduler.scheduleAtFixedRate(() -> fail("The task should have been ignored"), 0, 1, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void keepsAProvidedExecutorRunning() throws Exception {
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+		try {
+			TaskScheduler scheduler = new TaskScheduler(executor);
+			Future<?> task = scheduler.schedule(() -> {}, 1, TimeUnit.HOURS);
+			scheduler.shutdown();
+
+			assertTrue(task.isCancelled());
+			assertFalse(executor.isShutdown());
+			// the tasks of the executor's other users keep running
+			assertEquals("still running", executor.submit(() -> "still running").get(5, TimeUnit.SECONDS));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void handsDueTasksOverToTheTaskExecutor() throws Exception {
+		ExecutorService taskExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "task-executor"));
+		TaskScheduler scheduler = new TaskScheduler(null, taskExecutor);
+		try {
+			CompletableFuture<String> thread = new CompletableFuture<>();
+			scheduler.schedule(() -> thread.complete(Thread.currentThread().getName()), 0, TimeUnit.MILLISECONDS);
+			assertEquals("task-executor", thread.get(5, TimeUnit.SECONDS));
+		}
+		finally {
+			scheduler.shutdown();
+		}
+		assertTrue(taskExecutor.isShutdown());
+	}
+}
@@ -0,0 +1,52 @@
+package dev.mlnr.blh.core.internal.executor;
+
+import org.junit.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks the variant of {@link VirtualThreads} loaded by the running JDK, the Java 21 variant is only loaded from the multi-release jar.
+ */
+public class VirtualThreadsTest {
+	@Test
+	public void rejectsVirtualThreadsBeforeJava21() {
+		assumeFalse(VirtualThreads.isSupported());
+		try {
+			VirtualThreads.newExecutor("BLH-Test-");
+			fail("Created a virtual thread executor without virtual threads");
+		}
+		catch (UnsupportedOperationException expected) {
+			// expected
+		}
+	}
+
+	@Test
+	public void runsEveryTaskOnANamedThreadOfItsOwn() throws Exception {
+		assumeTrue(VirtualThreads.isSupported());
+		ExecutorService executor = VirtualThreads.newExecutor("BLH-Test-");
+		try {
+			// both tasks block until the other one started, so they only finish if they run at the same time
+			CountDownLatch started = new CountDownLatch(2);
+			Callable<String> task = () -> {
+				started.countDown();
+				assertTrue(started.await(5, TimeUnit.SECONDS));
+				return Thread.currentThread().getName();
+			};
+			Future<String> first = executor.submit(task);
+			Future<String> second = executor.submit(task);
+
+			String firstThread = first.get(5, TimeUnit.SECONDS);
+			String secondThread = second.get(5, TimeUnit.SECONDS);
+			assertTrue(firstThread.startsWith("BLH-Test-"));
+			assertTrue(secondThread.startsWith("BLH-Test-"));
+			assertNotEquals(firstThread, secondThread);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+}
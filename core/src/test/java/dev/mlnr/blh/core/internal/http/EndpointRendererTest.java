@@ -0,0 +1,62 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.BotListEndpoint;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class EndpointRendererTest {
+	private static final long[] SHARDS = {1200, 0, 34};
+
+	@Test
+	public void rendersTheServerCountOnlyIfTheBotIsNotSharded() {
+		EndpointRenderer renderer = new EndpointRenderer(BotListEndpoint.of(BotList.TOP_GG));
+		assertEquals("{\"server_count\":0}", payload(renderer, 0, null));
+		assertEquals("{\"server_count\":9223372036854775807}", payload(renderer, Long.MAX_VALUE, null));
+	}
+
+	@Test
+	public void rendersTheRichestShardPayloadOfEveryBotList() {
+		assertEquals("{\"server_count\":1234,\"shard_count\":3,\"shards\":[1200,0,34]}",
+				payload(new EndpointRenderer(BotListEndpoint.of(BotList.TOP_GG)), 1234, SHARDS));
+		assertEquals("{\"guildCount\":1234,\"shardCount\":3}",
+				payload(new EndpointRenderer(BotListEndpoint.of(BotList.DBOTS_GG)), 1234, SHARDS));
+		assertEquals("{\"guilds\":1234}",
+				payload(new EndpointRenderer(BotListEndpoint.of(BotList.DBL)), 1234, SHARDS));
+	}
+
+	@Test
+	public void rendersTheShardsArrayWithoutAShardCount() {
+		EndpointRenderer renderer = new EndpointRenderer(BotListEndpoint.builder("https://example.com/bots/%s", "servers")
+				.setShardsField("shards").build());
+		assertEquals("{\"servers\":1234,\"shards\":[1200,0,34]}", payload(renderer, 1234, SHARDS));
+		assertEquals("{\"servers\":5,\"shards\":[5]}", payload(renderer, 5, new long[] {5}));
+	}
+
+	@Test
+	public void escapesTheFieldNamesOfCustomEndpoints() {
+		EndpointRenderer renderer = new EndpointRenderer(BotListEndpoint.builder("https://example.com/bots/%s", "a\"b\\c\n").build());
+		assertEquals("{\"a\\\"b\\\\c\\u000a\":1}", payload(renderer, 1, null));
+	}
+
+	@Test
+	public void rendersTheUrlAndTheAuthorization() {
+		EndpointRenderer renderer = new EndpointRenderer(BotListEndpoint.builder("https://example.com/bots/%s/stats?v=2", "servers")
+				.setAuthorization("X-Api-Key", "Bot").build());
+		assertEquals("https://example.com/bots/42/stats?v=2", renderer.renderUrl(42));
+		assertEquals("X-Api-Key", renderer.getAuthorizationHeader());
+		assertEquals("Bot token", renderer.renderAuthorization("token"));
+
+		EndpointRenderer withoutScheme = new EndpointRenderer(BotListEndpoint.of(BotList.TOP_GG));
+		assertEquals("token", withoutScheme.renderAuthorization("token"));
+	}
+
+	// internal
+
+	private static String payload(EndpointRenderer renderer, long serverCount, long[] shardServerCounts) {
+		return new String(renderer.renderPayload(serverCount, shardServerCounts), StandardCharsets.UTF_8);
+	}
+}
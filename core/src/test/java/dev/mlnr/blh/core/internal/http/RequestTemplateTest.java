@@ -0,0 +1,102 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.*;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RequestTemplateTest {
+	private static final BotListTarget TOP_GG = BotListTarget.of(BotList.TOP_GG);
+
+	@Test
+	public void rendersTheUrlAndTheAuthorizationOnce() {
+		EndpointRenderer renderer = new EndpointRenderer(BotListEndpoint.builder("https://example.com/bots/%s/stats", "guilds")
+				.setAuthorization("X-Token", "Bot").build());
+		RequestTemplate template = new RequestTemplate(TOP_GG, renderer, 1234, "token");
+
+		StatsRequest first = template.createRequest(100, null);
+		assertEquals(BotList.TOP_GG, first.getBotList());
+		assertEquals("https://example.com/bots/1234/stats", first.getUrl());
+		assertEquals("X-Token", first.getAuthorizationHeader());
+		assertEquals("Bot token", first.getAuthorization());
+		assertEquals("{\"guilds\":100}", body(first));
+
+		StatsRequest second = template.createRequest(12345, null);
+		assertSame(first.getUrl(), second.getUrl());
+		assertSame(first.getAuthorization(), second.getAuthorization());
+		assertEquals("{\"guilds\":12345}", body(second));
+	}
+
+	@Test
+	public void onlyMatchesTheSameRendererBotIdAndToken() {
+		EndpointRenderer renderer = new EndpointRenderer(BotListEndpoint.of(BotList.TOP_GG));
+		String token = "token";
+		RequestTemplate template = new RequestTemplate(TOP_GG, renderer, 1, token);
+
+		assertTrue(template.matches(renderer, 1, token));
+		assertFalse(template.matches(renderer, 2, token));
+		// a swapped token is a different instance, even if it's equal
+		assertFalse(template.matches(renderer, 1, new String(token)));
+		// as is the renderer of a replaced endpoint
+		assertFalse(template.matches(new EndpointRenderer(BotListEndpoint.of(BotList.TOP_GG)), 1, token));
+	}
+
+	@Test
+	public void preparesOncePerTransport() {
+		RequestTemplate template = new RequestTemplate(TOP_GG, new EndpointRenderer(BotListEndpoint.of(BotList.TOP_GG)), 1, "token");
+		CountingTransport transport = new CountingTransport();
+
+		template.send(transport, template.createRequest(100, null));
+		template.send(transport, template.createRequest(200, null));
+		assertEquals(1, transport.prepared.get());
+		assertEquals(2, transport.sent.get());
+
+		CountingTransport otherTransport = new CountingTransport();
+		template.send(otherTransport, template.createRequest(300, null));
+		assertEquals(1, otherTransport.prepared.get());
+	}
+
+	// internal
+
+	private static String body(StatsRequest request) {
+		return new String(request.getBody(), StandardCharsets.UTF_8);
+	}
+
+	private static class CountingTransport implements PreparingTransport<String> {
+		private final AtomicInteger prepared = new AtomicInteger();
+		private final AtomicInteger sent = new AtomicInteger();
+
+		@Override
+		public String prepare(StatsRequest request) {
+			prepared.incrementAndGet();
+			return request.getUrl();
+		}
+
+		@Override
+		public CompletableFuture<StatsResponse> send(String prepared, StatsRequest request) {
+			assertEquals(request.getUrl(), prepared);
+			sent.incrementAndGet();
+			return CompletableFuture.completedFuture(new StatsResponse() {
+				@Override
+				public int getCode() {
+					return 200;
+				}
+
+				@Override
+				public String getHeader(@Nonnull String name) {
+					return null;
+				}
+			});
+		}
+
+		@Override
+		public CompletableFuture<StatsResponse> send(@Nonnull StatsRequest request) {
+			return send(prepare(request), request);
+		}
+	}
+}
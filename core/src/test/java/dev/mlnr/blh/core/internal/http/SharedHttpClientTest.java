@@ -0,0 +1,66 @@
+package dev.mlnr.blh.core.internal.http;
+
+import dev.mlnr.blh.core.api.BLHBuilder;
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.BotListEndpoint;
+import dev.mlnr.blh.core.api.BotListHandler;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Posts through handlers to a local server and checks which of them share a connection, the sequence number of a request
+ * is the amount of requests sent on its connection before.
+ */
+public class SharedHttpClientTest {
+	private final MockWebServer server = new MockWebServer();
+
+	@Before
+	public void setUp() throws IOException {
+		server.start();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		server.shutdown();
+	}
+
+	@Test
+	public void sharesTheConnectionsOfHandlersWithoutAClient() throws Exception {
+		assertEquals(0, post(builder()));
+		assertEquals(1, post(builder()));
+		assertSame(SharedHttpClient.get(), SharedHttpClient.get());
+	}
+
+	@Test
+	public void sharesTheConnectionsOfAProvidedClient() throws Exception {
+		OkHttpClient httpClient = new OkHttpClient();
+		assertEquals(0, post(builder().setHttpClient(httpClient)));
+		// a derived client with its own timeouts keeps using the pool of the provided client
+		assertEquals(1, post(builder().setHttpClient(httpClient).setReadTimeout(5, TimeUnit.SECONDS)));
+		assertEquals(1, httpClient.connectionPool().connectionCount());
+	}
+
+	// internal
+
+	private BLHBuilder builder() {
+		String url = "http://" + server.getHostName() + ":" + server.getPort() + "/bots/%s/stats";
+		return new BLHBuilder().addBotList(BotList.TOP_GG, "token").setEndpoint(BotList.TOP_GG, BotListEndpoint.builder(url, "server_count").build());
+	}
+
+	private int post(BLHBuilder builder) throws Exception {
+		server.enqueue(new MockResponse());
+		try (BotListHandler botListHandler = builder.build()) {
+			botListHandler.updateAllStatsAsync(1, 100).get(5, TimeUnit.SECONDS);
+		}
+		return server.takeRequest(5, TimeUnit.SECONDS).getSequenceNumber();
+	}
+}
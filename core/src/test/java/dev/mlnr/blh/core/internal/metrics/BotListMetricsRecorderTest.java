@@ -0,0 +1,60 @@
+package dev.mlnr.blh.core.internal.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BotListMetricsRecorderTest {
+	@Test
+	public void countsTheResponsesByOutcome() {
+		BotListMetricsRecorder recorder = new BotListMetricsRecorder();
+		int[] codes = {200, 204, 401, 429, 400, 404, 500, 503};
+		for (int code : codes)
+			recorder.recordResponse(code, TimeUnit.MILLISECONDS.toNanos(10));
+		recorder.recordFailure(TimeUnit.MILLISECONDS.toNanos(20));
+
+		assertEquals(2, recorder.getCount(BotListMetricsRecorder.SUCCESS));
+		assertEquals(1, recorder.getCount(BotListMetricsRecorder.UNAUTHORIZED));
+		assertEquals(1, recorder.getCount(BotListMetricsRecorder.RATELIMITED));
+		assertEquals(2, recorder.getCount(BotListMetricsRecorder.CLIENT_ERROR));
+		assertEquals(2, recorder.getCount(BotListMetricsRecorder.SERVER_ERROR));
+		assertEquals(1, recorder.getCount(BotListMetricsRecorder.IO_FAILURE));
+		assertEquals(20_000, recorder.getLatencies().getMax());
+	}
+
+	@Test
+	public void recordsTheLastSuccess() {
+		BotListMetricsRecorder recorder = new BotListMetricsRecorder();
+		assertEquals(0, recorder.getLastSuccessTimestamp());
+
+		long before = System.currentTimeMillis();
+		recorder.recordResponse(200, 0);
+		assertTrue(recorder.getLastSuccessTimestamp() >= before);
+
+		long lastSuccess = recorder.getLastSuccessTimestamp();
+		recorder.recordResponse(500, 0);
+		assertEquals(lastSuccess, recorder.getLastSuccessTimestamp());
+	}
+
+	@Test
+	public void accumulatesTheTimeSpentRatelimitedUntilTheNextSuccess() throws InterruptedException {
+		BotListMetricsRecorder recorder = new BotListMetricsRecorder();
+		assertEquals(0, recorder.getRatelimitedNanos());
+
+		recorder.recordResponse(429, 0);
+		Thread.sleep(20);
+		// another 429 during the same ratelimit doesn't restart it
+		recorder.recordResponse(429, 0);
+		Thread.sleep(20);
+		// the current ratelimit is included while it lasts
+		assertTrue(recorder.getRatelimitedNanos() >= TimeUnit.MILLISECONDS.toNanos(40));
+
+		recorder.recordResponse(200, 0);
+		long ratelimited = recorder.getRatelimitedNanos();
+		assertTrue(ratelimited >= TimeUnit.MILLISECONDS.toNanos(40));
+		Thread.sleep(20);
+		assertEquals(ratelimited, recorder.getRatelimitedNanos());
+	}
+}
@@ -0,0 +1,56 @@
+package dev.mlnr.blh.core.internal.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+	@Test
+	public void reportsNothingBeforeTheFirstValue() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getValueAtQuantile(0.5));
+		assertEquals(0, histogram.getMax());
+	}
+
+	@Test
+	public void reportsSmallValuesExactly() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int micros = 1; micros <= 4; micros++)
+			histogram.record(micros);
+
+		assertEquals(2, histogram.getValueAtQuantile(0.5));
+		assertEquals(4, histogram.getValueAtQuantile(0.99));
+		assertEquals(4, histogram.getMax());
+	}
+
+	@Test
+	public void boundsTheErrorOfTheQuantiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int micros = 1; micros <= 100_000; micros++)
+			histogram.record(micros);
+
+		assertWithinBucket(50_000, histogram.getValueAtQuantile(0.5));
+		assertWithinBucket(99_000, histogram.getValueAtQuantile(0.99));
+		// the last bucket is capped at the largest recorded value
+		assertEquals(100_000, histogram.getValueAtQuantile(1));
+		assertEquals(100_000, histogram.getMax());
+	}
+
+	@Test
+	public void keepsValuesBeyondTheLastBucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(Long.MAX_VALUE);
+		histogram.record(-1);
+
+		assertEquals(Long.MAX_VALUE, histogram.getMax());
+		assertEquals(0, histogram.getValueAtQuantile(0.5));
+		assertEquals(Long.MAX_VALUE, histogram.getValueAtQuantile(1));
+	}
+
+	// internal
+
+	private static void assertWithinBucket(long expected, long actual) {
+		assertTrue(actual + " is below " + expected, actual >= expected);
+		assertTrue(actual + " is more than 12.5% above " + expected, actual <= expected + expected / 8);
+	}
+}
@@ -0,0 +1,139 @@
+package dev.mlnr.blh.core.internal.ratelimit;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.StatsResponse;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+	private static final long FALLBACK = TimeUnit.SECONDS.toNanos(15);
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+	@Test
+	public void waitsForRetryAfterSeconds() {
+		RateLimiter rateLimiter = new RateLimiter(BotListTarget.of(BotList.TOP_GG));
+		assertEquals(2_500_000_000L, rateLimiter.onRatelimited(response("Retry-After", "2.5"), FALLBACK));
+		assertBlockedFor(rateLimiter, 2_500_000_000L);
+	}
+
+	@Test
+	public void waitsForRetryAfterDate() {
+		RateLimiter rateLimiter = new RateLimiter(BotListTarget.of(BotList.TOP_GG));
+		String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(10));
+		long wait = rateLimiter.onRatelimited(response("Retry-After", date), FALLBACK);
+		// the date only has a precision of seconds
+		assertTrue(wait > 8 * SECOND && wait <= 10 * SECOND);
+	}
+
+	@Test
+	public void waitsForResetAfterWithoutRetryAfter() {
+		RateLimiter rateLimiter = new RateLimiter(BotListTarget.of(BotList.TOP_GG));
+		assertEquals(3 * SECOND, rateLimiter.onRatelimited(response("X-RateLimit-Reset-After", "3"), FALLBACK));
+	}
+
+	@Test
+	public void readsTheResetAsSecondsOrEpoch() {
+		assertEquals(4 * SECOND, new RateLimiter(BotListTarget.of(BotList.TOP_GG)).onRatelimited(response("X-RateLimit-Reset", "4"), FALLBACK));
+
+		long epochSeconds = System.currentTimeMillis() / 1000 + 5;
+		long wait = new RateLimiter(BotListTarget.of(BotList.TOP_GG)).onRatelimited(response("X-RateLimit-Reset", String.valueOf(epochSeconds)), FALLBACK);
+		assertTrue(wait > 3 * SECOND && wait <= 5 * SECOND);
+
+		long epochMillis = System.currentTimeMillis() + 5000;
+		wait = new RateLimiter(BotListTarget.of(BotList.TOP_GG)).onRatelimited(response("X-RateLimit-Reset", String.valueOf(epochMillis)), FALLBACK);
+		assertTrue(wait > 4 * SECOND && wait <= 5 * SECOND);
+	}
+
+	@Test
+	public void fallsBackWithoutUsableHeaders() {
+		RateLimiter rateLimiter = new RateLimiter(BotListTarget.of(BotList.TOP_GG));
+		assertEquals(FALLBACK, rateLimiter.onRatelimited(response("Retry-After", "soon"), FALLBACK));
+	}
+
+	@Test
+	public void fallsBackOnNonFiniteOrNegativeWaits() {
+		for (String value : new String[] {"NaN", "Infinity", "-Infinity", "-5"}) {
+			assertEquals(value, FALLBACK, new RateLimiter(BotListTarget.of(BotList.TOP_GG)).onRatelimited(response("Retry-After", value), FALLBACK));
+			assertEquals(value, FALLBACK,
+					new RateLimiter(BotListTarget.of(BotList.TOP_GG)).onRatelimited(response("X-RateLimit-Reset-After", value), FALLBACK));
+		}
+		assertEquals(FALLBACK, new RateLimiter(BotListTarget.of(BotList.TOP_GG)).onRatelimited(response("X-RateLimit-Reset", "-5"), FALLBACK));
+	}
+
+	@Test
+	public void capsHugeWaits() {
+		RateLimiter rateLimiter = new RateLimiter(BotListTarget.of(BotList.TOP_GG));
+		assertEquals(HOUR, rateLimiter.onRatelimited(response("Retry-After", "1e300"), FALLBACK));
+		assertBlockedFor(rateLimiter, HOUR);
+
+		assertEquals(HOUR, new RateLimiter(BotListTarget.of(BotList.TOP_GG)).onRatelimited(response("X-RateLimit-Reset-After", "9e18"), FALLBACK));
+		assertEquals(HOUR, new RateLimiter(BotListTarget.of(BotList.TOP_GG))
+				.onRatelimited(response("X-RateLimit-Reset", String.valueOf(Long.MAX_VALUE)), FALLBACK));
+		assertEquals(HOUR, new RateLimiter(BotListTarget.of(BotList.TOP_GG)).onRatelimited(response(), Long.MAX_VALUE));
+	}
+
+	@Test
+	public void ignoresANonFiniteRemainingBudget() {
+		RateLimiter rateLimiter = new RateLimiter(BotListTarget.of(BotList.TOP_GG));
+		rateLimiter.update(response("X-RateLimit-Limit", "Infinity", "X-RateLimit-Remaining", "NaN", "X-RateLimit-Reset-After", "2"));
+		assertEquals(0, rateLimiter.getBlockedNanos());
+		assertEquals(0, rateLimiter.reserve());
+	}
+
+	@Test
+	public void blocksOnceTheRemainingBudgetIsUsedUp() {
+		RateLimiter rateLimiter = new RateLimiter(BotListTarget.of(BotList.TOP_GG));
+		assertEquals(0, rateLimiter.reserve());
+
+		rateLimiter.update(response("X-RateLimit-Limit", "60", "X-RateLimit-Remaining", "0", "X-RateLimit-Reset-After", "2"));
+		assertBlockedFor(rateLimiter, 2 * SECOND);
+		assertTrue(rateLimiter.reserve() > SECOND);
+	}
+
+	@Test
+	public void spacesReservationsOnceTheBucketIsEmpty() {
+		RateLimiter rateLimiter = new RateLimiter(BotListTarget.of(BotList.DSERVICES));
+		for (int i = 0; i < BotList.DSERVICES.getRatelimit(); i++)
+			assertEquals(0, rateLimiter.reserve());
+		long spacing = TimeUnit.MILLISECONDS.toNanos(BotList.DSERVICES.getRatelimitPeriod()) / BotList.DSERVICES.getRatelimit();
+		long first = rateLimiter.reserve();
+		long second = rateLimiter.reserve();
+		assertTrue(first > 0 && first <= spacing);
+		assertTrue(second > first && second <= 2 * spacing);
+	}
+
+	// internal
+
+	private static void assertBlockedFor(RateLimiter rateLimiter, long expected) {
+		long blocked = rateLimiter.getBlockedNanos();
+		assertTrue(blocked > expected - SECOND && blocked <= expected);
+	}
+
+	private static StatsResponse response(String... headers) {
+		Map<String, String> map = new HashMap<>();
+		for (int i = 0; i < headers.length; i += 2)
+			map.put(headers[i], headers[i + 1]);
+		return new StatsResponse() {
+			@Override
+			public int getCode() {
+				return 429;
+			}
+
+			@Override
+			public String getHeader(@Nonnull String name) {
+				return map.get(name);
+			}
+		};
+	}
+}
@@ -0,0 +1,38 @@
+package dev.mlnr.blh.core.internal.state;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BotListStateTest {
+	@Test
+	public void reconcilesAnUnacknowledgedCount() {
+		assertFalse(BotListState.INITIAL.needsReconciliation());
+
+		BotListState posted = BotListState.INITIAL.posted(100, 1);
+		assertTrue(posted.needsReconciliation());
+		assertFalse(posted.acknowledged(100).needsReconciliation());
+		// a newer count posted after the acknowledged one
+		assertTrue(posted.acknowledged(100).posted(200, 2).needsReconciliation());
+	}
+
+	@Test
+	public void leavesRatelimitedUnauthorizedAndParkedBotListsAlone() {
+		BotListState posted = BotListState.INITIAL.posted(100, 1);
+		assertFalse(posted.ratelimited().needsReconciliation());
+		assertFalse(posted.unauthorized().needsReconciliation());
+		assertFalse(posted.parked().needsReconciliation());
+
+		// once the ratelimit or the invalid token is over, the count is reconciled again
+		assertTrue(posted.ratelimited().failed().needsReconciliation());
+		assertTrue(posted.unauthorized().authorized().needsReconciliation());
+	}
+
+	@Test
+	public void keepsAParkedBotListParked() {
+		BotListState parked = BotListState.INITIAL.posted(100, 1).parked();
+		assertEquals(BotListState.Status.PARKED, parked.ratelimited().getStatus());
+		assertEquals(BotListState.Status.PARKED, parked.unauthorized().getStatus());
+		assertSame(BotListState.INITIAL, parked.unparked());
+	}
+}
@@ -0,0 +1,93 @@
+package dev.mlnr.blh.core.internal.state;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.PostingPolicy;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BotListStatesTest {
+	private static final int THREADS = 8;
+	private static final BotListTarget TOP_GG = BotListTarget.of(BotList.TOP_GG);
+	private static final BotListTarget DBOTS_GG = BotListTarget.of(BotList.DBOTS_GG);
+	private static final BotListTarget DSERVICES = BotListTarget.of(BotList.DSERVICES);
+
+	@Test
+	public void claimsACountOnlyOnceUnderContention() throws Exception {
+		for (int round = 0; round < 100; round++) {
+			BotListStates states = new BotListStates();
+			AtomicInteger claimed = new AtomicInteger();
+			runConcurrently(() -> {
+				if (states.claim(TOP_GG, 100, PostingPolicy.onChange()))
+					claimed.incrementAndGet();
+			});
+			assertEquals(1, claimed.get());
+			assertEquals(100, states.get(TOP_GG).getLastPostedCount());
+		}
+	}
+
+	@Test
+	public void keepsEveryConcurrentTransition() throws Exception {
+		BotListStates states = new BotListStates();
+		runConcurrently(() -> {
+			for (int i = 0; i < 1000; i++)
+				states.update(TOP_GG, state -> state.posted(state.getLastPostedCount() + 1, 0));
+		});
+		assertEquals(BotListState.INITIAL.getLastPostedCount() + THREADS * 1000, states.get(TOP_GG).getLastPostedCount());
+	}
+
+	@Test
+	public void doesNotClaimAnUnacknowledgedCountAgain() {
+		BotListStates states = new BotListStates();
+		PostingPolicy always = PostingPolicy.maxStaleness(0, TimeUnit.MILLISECONDS);
+		assertTrue(states.claim(TOP_GG, 100, always));
+		assertFalse(states.claim(TOP_GG, 100, always));
+		assertTrue(states.claim(TOP_GG, 200, always));
+	}
+
+	@Test
+	public void letsThePolicyDecideOnAnAcknowledgedCount() {
+		BotListStates states = new BotListStates();
+		assertTrue(states.claim(TOP_GG, 100, PostingPolicy.onChange()));
+		states.update(TOP_GG, state -> state.acknowledged(100));
+
+		assertFalse(states.claim(TOP_GG, 100, PostingPolicy.onChange()));
+		assertTrue(states.claim(TOP_GG, 100, PostingPolicy.maxStaleness(0, TimeUnit.MILLISECONDS).or(PostingPolicy.onChange())));
+	}
+
+	@Test
+	public void isolatesTheBotLists() {
+		BotListStates states = new BotListStates();
+		assertTrue(states.claim(TOP_GG, 100, PostingPolicy.onChange()));
+		assertTrue(states.claim(DBOTS_GG, 100, PostingPolicy.onChange()));
+		assertEquals(-1, states.get(DSERVICES).getLastPostedCount());
+	}
+
+	// internal
+
+	private static void runConcurrently(Runnable task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(THREADS);
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(() -> {
+					barrier.await();
+					task.run();
+					return null;
+				}));
+			}
+			for (Future<?> future : futures)
+				future.get(10, TimeUnit.SECONDS);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package dev.mlnr.blh.core.internal.state;
+
+import dev.mlnr.blh.core.api.BotList;
+import dev.mlnr.blh.core.api.CircuitState;
+import dev.mlnr.blh.core.internal.config.CircuitBreakerConfig;
+import dev.mlnr.blh.core.internal.http.BotListTarget;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakersTest {
+	private static final BotListTarget TOP_GG = BotListTarget.of(BotList.TOP_GG);
+	private static final BotListTarget DBOTS_GG = BotListTarget.of(BotList.DBOTS_GG);
+
+	@Test
+	public void opensOnceTheFailureThresholdIsReached() {
+		CircuitBreakers circuitBreakers = new CircuitBreakers(new CircuitBreakerConfig(3, 60_000, 60_000));
+		assertFalse(circuitBreakers.onFailure(TOP_GG).isOpened());
+		assertFalse(circuitBreakers.onFailure(TOP_GG).isOpened());
+		assertTrue(circuitBreakers.tryAcquire(TOP_GG));
+
+		CircuitBreakers.Circuit circuit = circuitBreakers.onFailure(TOP_GG);
+		assertTrue(circuit.isOpened());
+		assertEquals(CircuitState.OPEN, circuit.getState());
+		assertEquals(3, circuit.getErrorCount());
+		assertFalse(circuitBreakers.tryAcquire(TOP_GG));
+		// the circuits of the other bot lists are independent
+		assertTrue(circuitBreakers.tryAcquire(DBOTS_GG));
+	}
+
+	@Test
+	public void doesNotExtendTheBackoffOnLateFailures() {
+		CircuitBreakers circuitBreakers = new CircuitBreakers(new CircuitBreakerConfig(1, 60_000, 60_000));
+		long openUntil = circuitBreakers.onFailure(TOP_GG).getOpenUntil();
+
+		// a request sent before the circuit opened
+		CircuitBreakers.Circuit circuit = circuitBreakers.onFailure(TOP_GG);
+		assertFalse(circuit.isOpened());
+		assertEquals(CircuitState.OPEN, circuit.getState());
+		assertEquals(2, circuit.getErrorCount());
+		assertEquals(openUntil, circuit.getOpenUntil());
+	}
+
+	@Test
+	public void letsASingleProbeThroughOnceTheBackoffElapsed() throws Exception {
+		for (int round = 0; round < 100; round++) {
+			CircuitBreakers circuitBreakers = new CircuitBreakers(new CircuitBreakerConfig(1, 0, 0));
+			circuitBreakers.onFailure(TOP_GG);
+
+			AtomicInteger probes = new AtomicInteger();
+			runConcurrently(() -> {
+				if (circuitBreakers.tryAcquire(TOP_GG))
+					probes.incrementAndGet();
+			});
+			assertEquals(1, probes.get());
+			assertEquals(CircuitState.HALF_OPEN, circuitBreakers.get(TOP_GG).getState());
+		}
+	}
+
+	@Test
+	public void reopensIfTheProbeFails() {
+		CircuitBreakers circuitBreakers = new CircuitBreakers(new CircuitBreakerConfig(1, 0, 0));
+		circuitBreakers.onFailure(TOP_GG);
+		assertTrue(circuitBreakers.tryAcquire(TOP_GG));
+
+		CircuitBreakers.Circuit circuit = circuitBreakers.onFailure(TOP_GG);
+		assertTrue(circuit.isOpened());
+		assertEquals(CircuitState.OPEN, circuit.getState());
+	}
+
+	@Test
+	public void closesOnceTheBotListAnswered() {
+		CircuitBreakers circuitBreakers = new CircuitBreakers(new CircuitBreakerConfig(1, 0, 0));
+		circuitBreakers.onFailure(TOP_GG);
+		assertTrue(circuitBreakers.tryAcquire(TOP_GG));
+
+		circuitBreakers.onAnswered(TOP_GG);
+		CircuitBreakers.Circuit circuit = circuitBreakers.get(TOP_GG);
+		assertEquals(CircuitState.CLOSED, circuit.getState());
+		assertEquals(0, circuit.getErrorCount());
+		assertTrue(circuitBreakers.tryAcquire(TOP_GG));
+		assertTrue(circuitBreakers.tryAcquire(TOP_GG));
+	}
+
+	@Test
+	public void neverOpensIfDisabled() {
+		CircuitBreakers circuitBreakers = new CircuitBreakers(new CircuitBreakerConfig(0, 60_000, 60_000));
+		for (int i = 0; i < 10; i++)
+			assertFalse(circuitBreakers.onFailure(TOP_GG).isOpened());
+		assertEquals(CircuitState.CLOSED, circuitBreakers.get(TOP_GG).getState());
+		assertTrue(circuitBreakers.tryAcquire(TOP_GG));
+	}
+
+	@Test
+	public void doublesTheBackoffUpToTheMaximum() {
+		CircuitBreakerConfig config = new CircuitBreakerConfig(1, 1_000, 60_000);
+		assertBackoff(1_000, config.getBackoff(0));
+		assertBackoff(2_000, config.getBackoff(1));
+		assertBackoff(32_000, config.getBackoff(5));
+		assertBackoff(60_000, config.getBackoff(6));
+		// shifting this far would overflow
+		assertBackoff(60_000, config.getBackoff(Integer.MAX_VALUE));
+	}
+
+	// internal
+
+	private static void assertBackoff(long backoffMillis, long actualNanos) {
+		long backoff = TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+		assertTrue(actualNanos + " is shorter than half of " + backoff, actualNanos >= backoff / 2);
+		assertTrue(actualNanos + " is longer than " + backoff, actualNanos <= backoff);
+	}
+
+	private static void runConcurrently(Runnable task) throws Exception {
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(threads);
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					barrier.await();
+					task.run();
+					return null;
+				}));
+			}
+			for (Future<?> future : futures)
+				future.get(5, TimeUnit.SECONDS);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
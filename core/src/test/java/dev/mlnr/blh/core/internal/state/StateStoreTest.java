@@ -0,0 +1,78 @@
+package dev.mlnr.blh.core.internal.state;
+
+import dev.mlnr.blh.core.api.BotList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class StateStoreTest {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void restoresTheStateAfterReopening() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("state.bin");
+		StateStore stateStore = StateStore.open(path);
+		stateStore.acknowledged(BotList.TOP_GG, 100, 1234);
+		stateStore.ratelimitedUntil(BotList.DBOTS_GG, 5678);
+		stateStore.unauthorized(BotList.DSERVICES, "rejected-token");
+		stateStore.parked(BotList.DSERVICES, true);
+		stateStore.close();
+
+		StateStore reopened = StateStore.open(path);
+		try {
+			assertEquals(100, reopened.getLastAcknowledgedCount(BotList.TOP_GG));
+			assertEquals(1234, reopened.getAcknowledgedAt(BotList.TOP_GG));
+			assertEquals(5678, reopened.getRatelimitedUntil(BotList.DBOTS_GG));
+			assertTrue(reopened.isUnauthorized(BotList.DSERVICES, "rejected-token"));
+			assertTrue(reopened.isParked(BotList.DSERVICES));
+			// the other bot lists keep their initial state
+			assertEquals(-1, reopened.getLastAcknowledgedCount(BotList.DBOTS_GG));
+			assertFalse(reopened.isParked(BotList.TOP_GG));
+		}
+		finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	public void onlyMatchesTheRejectedToken() {
+		StateStore stateStore = StateStore.open(folder.getRoot().toPath().resolve("state.bin"));
+		try {
+			// "Aa" and "BB" have the same String.hashCode()
+			stateStore.unauthorized(BotList.TOP_GG, "Aa");
+			assertTrue(stateStore.isUnauthorized(BotList.TOP_GG, "Aa"));
+			assertFalse(stateStore.isUnauthorized(BotList.TOP_GG, "BB"));
+			assertFalse(stateStore.isUnauthorized(BotList.DBOTS_GG, "Aa"));
+
+			stateStore.authorized(BotList.TOP_GG);
+			assertFalse(stateStore.isUnauthorized(BotList.TOP_GG, "Aa"));
+		}
+		finally {
+			stateStore.close();
+		}
+	}
+
+	@Test
+	public void resetsAFileWithAnotherLayout() throws IOException {
+		Path path = folder.newFile("state.bin").toPath();
+		Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+
+		StateStore stateStore = StateStore.open(path);
+		try {
+			assertEquals(-1, stateStore.getLastAcknowledgedCount(BotList.TOP_GG));
+			assertEquals(0, stateStore.getRatelimitedUntil(BotList.TOP_GG));
+			assertFalse(stateStore.isUnauthorized(BotList.TOP_GG, "token"));
+			assertFalse(stateStore.isParked(BotList.TOP_GG));
+		}
+		finally {
+			stateStore.close();
+		}
+	}
+}
@@ -4,8 +4,14 @@ import dev.mlnr.blh.core.api.BLHBuilder;
 import dev.mlnr.blh.core.api.BotListHandler;
 import dev.mlnr.blh.core.internal.utils.Checks;
 import org.javacord.api.DiscordApi;
+import org.javacord.api.event.connection.ReconnectEvent;
+import org.javacord.api.event.server.ServerBecomesAvailableEvent;
+import org.javacord.api.event.server.ServerBecomesUnavailableEvent;
 import org.javacord.api.event.server.ServerJoinEvent;
 import org.javacord.api.event.server.ServerLeaveEvent;
+import org.javacord.api.listener.connection.ReconnectListener;
+import org.javacord.api.listener.server.ServerBecomesAvailableListener;
+import org.javacord.api.listener.server.ServerBecomesUnavailableListener;
 import org.javacord.api.listener.server.ServerJoinListener;
 import org.javacord.api.listener.server.ServerLeaveListener;
 
@@ -14,8 +20,10 @@ import javax.annotation.Nonnull;
 /**
  * A Javacord listener which is used to update the bot's stats when the bot joins or leaves a guild.
  */
-public class BLHJavacordListener implements ServerJoinListener, ServerLeaveListener {
+public class BLHJavacordListener implements ServerJoinListener, ServerLeaveListener, ServerBecomesAvailableListener,
+		ServerBecomesUnavailableListener, ReconnectListener {
 	private final BotListHandler botListHandler;
+	private final ServerCounter serverCounter;
 
 	/**
 	 * Constructs a new event listener used to update the bot's stats.
@@ -31,21 +39,72 @@ public class BLHJavacordListener implements ServerJoinListener, ServerLeaveListe
 	 *         If the provided {@link BotListHandler} instance uses autoposting
 	 */
 	public BLHJavacordListener(@Nonnull BotListHandler botListHandler) {
+		this(botListHandler, false);
+	}
+
+	/**
+	 * Constructs a new event listener used to update the bot's stats.
+	 *
+	 * <br>The stats will be updated when the bot joins/leaves a guild.
+	 * <br>If incremental counting is enabled, the listener keeps the server count of every DiscordApi up to date from
+	 * join/leave and availability events instead of counting all servers on every event, which is significantly cheaper for large bots.
+	 * The counts are fully recounted every 10 minutes to correct missed events. The posted count is the sum of every DiscordApi
+	 * which delivered an event to this listener, so a single listener can be shared between shards.
+	 *
+	 * @param  botListHandler
+	 *         The {@link BotListHandler} instance built by a {@link BLHBuilder}
+	 * @param  countIncrementally
+	 *         Whether the server count should be maintained from events
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided {@link BotListHandler} instance is {@code null}
+	 * @throws IllegalStateException
+	 *         If the provided {@link BotListHandler} instance uses autoposting
+	 */
+	public BLHJavacordListener(@Nonnull BotListHandler botListHandler, boolean countIncrementally) {
 		Checks.notNull(botListHandler, "The BotListHandler instance");
 		Checks.check(botListHandler.isAutoPostingEnabled(), "Can only use event based updating if autoposting is disabled");
 
 		this.botListHandler = botListHandler;
+		this.serverCounter = countIncrementally ? new ServerCounter() : null;
 	}
 
 	@Override
 	public void onServerJoin(ServerJoinEvent event) {
-		DiscordApi javacord = event.getApi();
-		botListHandler.updateAllStats(javacord.getClientId(), javacord.getServers().size());
+		if (serverCounter != null)
+			serverCounter.onServerJoin(event);
+		updateStats(event.getApi());
 	}
 
 	@Override
 	public void onServerLeave(ServerLeaveEvent event) {
-		DiscordApi javacord = event.getApi();
-		botListHandler.updateAllStats(javacord.getClientId(), javacord.getServers().size());
+		if (serverCounter != null)
+			serverCounter.onServerLeave(event);
+		updateStats(event.getApi());
+	}
+
+	// only used for incremental counting
+
+	@Override
+	public void onServerBecomesAvailable(ServerBecomesAvailableEvent event) {
+		if (serverCounter != null)
+			serverCounter.onServerBecomesAvailable(event);
+	}
+
+	@Override
+	public void onServerBecomesUnavailable(ServerBecomesUnavailableEvent event) {
+		if (serverCounter != null)
+			serverCounter.onServerBecomesUnavailable(event);
+	}
+
+	@Override
+	public void onReconnect(ReconnectEvent event) {
+		if (serverCounter != null)
+			serverCounter.onReconnect(event);
+	}
+
+	private void updateStats(DiscordApi javacord) {
+		long serverCount = serverCounter == null ? javacord.getServers().size() : serverCounter.getServerCount();
+		botListHandler.updateAllStats(javacord.getClientId(), serverCount);
 	}
 }
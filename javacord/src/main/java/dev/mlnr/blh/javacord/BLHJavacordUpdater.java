@@ -12,6 +12,7 @@ import java.util.Collection;
  */
 public class BLHJavacordUpdater implements IBLHUpdater {
 	private final DiscordApi[] discordApis;
+	private final ServerCounter serverCounter;
 
 	/**
 	 * Creates a new updater for Javacord.
@@ -27,11 +28,35 @@ public class BLHJavacordUpdater implements IBLHUpdater {
 	 *         If the provided DiscordApi array contains {@code null}
 	 */
 	public BLHJavacordUpdater(@Nonnull DiscordApi... discordApis) {
+		this(false, discordApis);
+	}
+
+	/**
+	 * Creates a new updater for Javacord.
+	 *
+	 * <br>If incremental counting is enabled, the updater registers a listener on every DiscordApi which keeps the server count
+	 * up to date from join/leave and availability events, so reading the count doesn't have to count all servers.
+	 * The counts are fully recounted every 10 minutes to correct missed events.
+	 *
+	 * @param  countIncrementally
+	 *         Whether the server count should be maintained from events
+	 * @param  discordApis
+	 *         The DiscordApi objects to get the bot id and the guild amount from
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided DiscordApi array is {@code null}
+	 * @throws IllegalStateException
+	 *         If the provided DiscordApi array is empty
+	 * @throws IllegalArgumentException
+	 *         If the provided DiscordApi array contains {@code null}
+	 */
+	public BLHJavacordUpdater(boolean countIncrementally, @Nonnull DiscordApi... discordApis) {
 		Checks.notNull(discordApis, "The DiscordApi array");
 		Checks.check(discordApis.length == 0, "The DiscordApi array may not be empty");
 		Checks.noneNull(discordApis, "The DiscordApi object");
 
 		this.discordApis = discordApis;
+		this.serverCounter = countIncrementally ? createServerCounter(discordApis) : null;
 	}
 
 	/**
@@ -53,6 +78,7 @@ public class BLHJavacordUpdater implements IBLHUpdater {
 		Checks.noneNull(discordApis, "The DiscordApi object");
 
 		this.discordApis = discordApis.toArray(new DiscordApi[0]);
+		this.serverCounter = null;
 	}
 
 	@Override
@@ -62,9 +88,34 @@ public class BLHJavacordUpdater implements IBLHUpdater {
 
 	@Override
 	public long getServerCount() {
+		if (serverCounter != null)
+			return serverCounter.getServerCount();
 		long count = 0;
 		for (DiscordApi discordApi : discordApis)
 			count += discordApi.getServers().size();
 		return count;
 	}
+
+	@Override
+	public long[] getShardServerCounts() {
+		int totalShards = discordApis[0].getTotalShards();
+		if (totalShards <= 1)
+			return null;
+		long[] counts = new long[totalShards];
+		for (DiscordApi discordApi : discordApis) {
+			int shard = discordApi.getCurrentShard();
+			if (shard < counts.length)
+				counts[shard] = serverCounter == null ? discordApi.getServers().size() : serverCounter.getServerCount(discordApi);
+		}
+		return counts;
+	}
+
+	private static ServerCounter createServerCounter(DiscordApi[] discordApis) {
+		ServerCounter serverCounter = new ServerCounter();
+		for (DiscordApi discordApi : discordApis) {
+			discordApi.addListener(serverCounter);
+			serverCounter.seed(discordApi);
+		}
+		return serverCounter;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package dev.mlnr.blh.javacord;
+
+import org.javacord.api.DiscordApi;
+import org.javacord.api.event.connection.ReconnectEvent;
+import org.javacord.api.event.server.ServerBecomesAvailableEvent;
+import org.javacord.api.event.server.ServerBecomesUnavailableEvent;
+import org.javacord.api.event.server.ServerJoinEvent;
+import org.javacord.api.event.server.ServerLeaveEvent;
+import org.javacord.api.listener.connection.ReconnectListener;
+import org.javacord.api.listener.server.ServerBecomesAvailableListener;
+import org.javacord.api.listener.server.ServerBecomesUnavailableListener;
+import org.javacord.api.listener.server.ServerJoinListener;
+import org.javacord.api.listener.server.ServerLeaveListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the server count of every DiscordApi up to date from events, so reading the count doesn't have to build
+ * the server collection of Javacord.
+ *
+ * <p>A DiscordApi is seeded with a full count the first time it's seen. As events can be missed, for example while
+ * the counter is being registered, every count is fully recounted once the reconciliation interval elapses.
+ * The recount runs on the thread reading the count.
+ */
+class ServerCounter implements ServerJoinListener, ServerLeaveListener, ServerBecomesAvailableListener,
+		ServerBecomesUnavailableListener, ReconnectListener {
+	private static final long RECONCILIATION_INTERVAL = TimeUnit.MINUTES.toNanos(10);
+
+	private final Map<DiscordApi, LongAdder> counts = new ConcurrentHashMap<>();
+	private final AtomicLong lastReconciliation = new AtomicLong(System.nanoTime());
+	private final long reconciliationInterval;
+
+	ServerCounter() {
+		this(RECONCILIATION_INTERVAL);
+	}
+
+	ServerCounter(long reconciliationInterval) {
+		this.reconciliationInterval = reconciliationInterval;
+	}
+
+	void seed(DiscordApi discordApi) {
+		LongAdder count = new LongAdder();
+		count.add(discordApi.getServers().size());
+		counts.put(discordApi, count);
+	}
+
+	long getServerCount(DiscordApi discordApi) {
+		reconcileIfDue();
+		LongAdder count = counts.get(discordApi);
+		return count == null ? 0 : count.sum();
+	}
+
+	long getServerCount() {
+		reconcileIfDue();
+		long total = 0;
+		for (LongAdder count : counts.values())
+			total += count.sum();
+		return total;
+	}
+
+	@Override
+	public void onServerJoin(ServerJoinEvent event) {
+		adjust(event.getApi(), 1);
+	}
+
+	@Override
+	public void onServerLeave(ServerLeaveEvent event) {
+		adjust(event.getApi(), -1);
+	}
+
+	@Override
+	public void onServerBecomesAvailable(ServerBecomesAvailableEvent event) {
+		adjust(event.getApi(), 1);
+	}
+
+	@Override
+	public void onServerBecomesUnavailable(ServerBecomesUnavailableEvent event) {
+		adjust(event.getApi(), -1);
+	}
+
+	@Override
+	public void onReconnect(ReconnectEvent event) {
+		// the server cache is rebuilt on reconnect
+		seed(event.getApi());
+	}
+
+	// internal
+
+	private void adjust(DiscordApi discordApi, long delta) {
+		LongAdder count = counts.get(discordApi);
+		if (count == null) {
+			// the full count already includes the server of this event
+			seed(discordApi);
+			return;
+		}
+		count.add(delta);
+	}
+
+	private void reconcileIfDue() {
+		long last = lastReconciliation.get();
+		long now = System.nanoTime();
+		if (now - last < reconciliationInterval || !lastReconciliation.compareAndSet(last, now))
+			return;
+		counts.forEach((discordApi, count) -> count.add(discordApi.getServers().size() - count.sum()));
+	}
+}
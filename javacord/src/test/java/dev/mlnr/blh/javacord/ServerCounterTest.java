@@ -0,0 +1,129 @@
+package dev.mlnr.blh.javacord;
+
+import org.javacord.api.DiscordApi;
+import org.javacord.api.entity.server.Server;
+import org.javacord.api.event.connection.ReconnectEvent;
+import org.javacord.api.event.server.ServerBecomesAvailableEvent;
+import org.javacord.api.event.server.ServerBecomesUnavailableEvent;
+import org.javacord.api.event.server.ServerJoinEvent;
+import org.javacord.api.event.server.ServerLeaveEvent;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Counts the servers of fake DiscordApis, which only answer {@code getServers()} with a collection of the current size.
+ */
+public class ServerCounterTest {
+	@Test
+	public void followsTheEventsOfEveryDiscordApi() {
+		FakeApi first = new FakeApi(10);
+		FakeApi second = new FakeApi(5);
+		ServerCounter serverCounter = new ServerCounter();
+		serverCounter.seed(first.api);
+		serverCounter.seed(second.api);
+		assertEquals(15, serverCounter.getServerCount());
+
+		serverCounter.onServerJoin(event(ServerJoinEvent.class, first.api));
+		serverCounter.onServerJoin(event(ServerJoinEvent.class, first.api));
+		serverCounter.onServerLeave(event(ServerLeaveEvent.class, second.api));
+		serverCounter.onServerBecomesUnavailable(event(ServerBecomesUnavailableEvent.class, second.api));
+		serverCounter.onServerBecomesAvailable(event(ServerBecomesAvailableEvent.class, second.api));
+
+		assertEquals(12, serverCounter.getServerCount(first.api));
+		assertEquals(4, serverCounter.getServerCount(second.api));
+		assertEquals(16, serverCounter.getServerCount());
+		// the events were counted without building the server collection again
+		assertEquals(1, first.serverCalls.get());
+		assertEquals(1, second.serverCalls.get());
+	}
+
+	@Test
+	public void seedsAnUnknownDiscordApiWithAFullCount() {
+		FakeApi fakeApi = new FakeApi(10);
+		ServerCounter serverCounter = new ServerCounter();
+		assertEquals(0, serverCounter.getServerCount(fakeApi.api));
+
+		// the full count already includes the joined server
+		fakeApi.size = 11;
+		serverCounter.onServerJoin(event(ServerJoinEvent.class, fakeApi.api));
+		assertEquals(11, serverCounter.getServerCount(fakeApi.api));
+	}
+
+	@Test
+	public void recountsAfterAReconnect() {
+		FakeApi fakeApi = new FakeApi(10);
+		ServerCounter serverCounter = new ServerCounter();
+		serverCounter.seed(fakeApi.api);
+
+		// events missed while disconnected
+		fakeApi.size = 7;
+		serverCounter.onReconnect(event(ReconnectEvent.class, fakeApi.api));
+		assertEquals(7, serverCounter.getServerCount());
+	}
+
+	@Test
+	public void reconcilesMissedEventsOnceTheIntervalElapsed() {
+		FakeApi fakeApi = new FakeApi(10);
+		ServerCounter serverCounter = new ServerCounter(0);
+		serverCounter.seed(fakeApi.api);
+		serverCounter.onServerJoin(event(ServerJoinEvent.class, fakeApi.api));
+
+		// the join wasn't applied to the cache, so it's corrected by the recount
+		assertEquals(10, serverCounter.getServerCount());
+		fakeApi.size = 12;
+		assertEquals(12, serverCounter.getServerCount(fakeApi.api));
+	}
+
+	// internal
+
+	private static <T> T event(Class<T> type, DiscordApi discordApi) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+			if (method.getName().equals("getApi"))
+				return discordApi;
+			throw new UnsupportedOperationException(method.getName());
+		}));
+	}
+
+	private static class FakeApi {
+		private final AtomicInteger serverCalls = new AtomicInteger();
+		private final DiscordApi api;
+		private volatile int size;
+
+		private FakeApi(int size) {
+			this.size = size;
+			Collection<Server> servers = new AbstractCollection<Server>() {
+				@Override
+				public Iterator<Server> iterator() {
+					return Collections.emptyIterator();
+				}
+
+				@Override
+				public int size() {
+					return FakeApi.this.size;
+				}
+			};
+			this.api = (DiscordApi) Proxy.newProxyInstance(DiscordApi.class.getClassLoader(), new Class<?>[] {DiscordApi.class},
+					(proxy, method, args) -> {
+						switch (method.getName()) {
+							case "getServers":
+								serverCalls.incrementAndGet();
+								return servers;
+							case "hashCode":
+								return System.identityHashCode(proxy);
+							case "equals":
+								return proxy == args[0];
+							default:
+								throw new UnsupportedOperationException(method.getName());
+						}
+					});
+		}
+	}
+}
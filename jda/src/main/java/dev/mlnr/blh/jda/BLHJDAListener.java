@@ -2,23 +2,52 @@ package dev.mlnr.blh.jda;
 
 import dev.mlnr.blh.core.api.BLHBuilder;
 import dev.mlnr.blh.core.api.BotListHandler;
+import dev.mlnr.blh.core.internal.executor.TaskScheduler;
 import dev.mlnr.blh.core.internal.utils.Checks;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.events.ReadyEvent;
+import net.dv8tion.jda.api.events.ReconnectedEvent;
+import net.dv8tion.jda.api.events.guild.GuildAvailableEvent;
 import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
 import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildUnavailableEvent;
 import net.dv8tion.jda.api.events.guild.UnavailableGuildJoinedEvent;
 import net.dv8tion.jda.api.events.guild.UnavailableGuildLeaveEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.sharding.ShardManager;
 
 import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * A JDA listener which is used to update the bot's stats when the bot is ready or joins or leaves a guild.
+ *
+ * <br>The listener can be registered on every shard of a ShardManager. It keeps the guild count of every shard
+ * and posts the sum of all shards, without walking the guild cache of the ShardManager.
+ * Nothing is posted until every shard managed by this process reported its guild count, so the bot lists never get the count
+ * of the shards which started first. The shards of other processes aren't waited for, they're posted by their own processes.
+ * If a shard doesn't log in within the partial post delay after the first shard reported, the sum of the shards which did is posted
+ * and every later update is posted as well.
  */
 public class BLHJDAListener extends ListenerAdapter {
 	private final BotListHandler botListHandler;
 
+	private static final long NOT_REPORTED = -1;
+	private static final long DEFAULT_PARTIAL_POST_DELAY = TimeUnit.MINUTES.toMillis(2);
+
+	private final long partialPostDelay;
+	private final AtomicBoolean partialPostScheduled = new AtomicBoolean();
+	private volatile boolean postPartialCounts;
+
+	// guild count of every shard, indexed by the shard id, created once the shard total is known
+	private volatile AtomicLongArray shardGuildCounts;
+	private final AtomicLong totalGuildCount = new AtomicLong();
+	private final AtomicInteger reportedShards = new AtomicInteger();
+
 	/**
 	 * Constructs a new event listener used to update the bot's stats.
 	 *
@@ -35,45 +64,152 @@ public class BLHJDAListener extends ListenerAdapter {
 	 *         If the provided {@link BotListHandler} instance uses autoposting
 	 */
 	public BLHJDAListener(@Nonnull BotListHandler botListHandler) {
+		this(botListHandler, DEFAULT_PARTIAL_POST_DELAY, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Constructs a new event listener used to update the bot's stats, posting the guild count of the shards which are ready
+	 * if not every shard of this process is ready within the provided delay.
+	 *
+	 * @param  botListHandler
+	 *         The {@link BotListHandler} instance built by a {@link BLHBuilder}
+	 * @param  partialPostDelay
+	 *         The delay after the first shard is ready after which the guild count of the ready shards is posted
+	 *         <br>Default: {@code 2 minutes}
+	 * @param  unit
+	 *         The time unit of the delay
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided {@link BotListHandler} instance or unit is {@code null}, or if the provided delay is negative
+	 * @throws IllegalStateException
+	 *         If the provided {@link BotListHandler} instance uses autoposting
+	 */
+	public BLHJDAListener(@Nonnull BotListHandler botListHandler, long partialPostDelay, @Nonnull TimeUnit unit) {
 		Checks.notNull(botListHandler, "The BotListHandler instance");
 		Checks.check(botListHandler.isAutoPostingEnabled(), "Can only use event based updating if autoposting is disabled");
+		Checks.notNegative(partialPostDelay, "The partial post delay");
+		Checks.notNull(unit, "The time unit");
 
 		this.botListHandler = botListHandler;
+		this.partialPostDelay = unit.toMillis(partialPostDelay);
 	}
 
 	@Override
 	public void onReady(ReadyEvent event) {
-		JDA jda = event.getJDA();
-		botListHandler.updateAllStats(jda.getSelfUser().getIdLong(), jda.getGuildCache().size());
+		updateStats(event.getJDA());
+	}
+
+	@Override
+	public void onReconnected(ReconnectedEvent event) {
+		// the guild cache of the shard is rebuilt, the count is updated without posting
+		updateShardGuildCount(event.getJDA());
 	}
 
 	@Override
 	public void onGuildJoin(GuildJoinEvent event) {
-		JDA jda = event.getJDA();
-		botListHandler.updateAllStats(jda.getSelfUser().getIdLong(), jda.getGuildCache().size());
+		updateStats(event.getJDA());
 	}
 
 	@Override
 	public void onGuildLeave(GuildLeaveEvent event) {
-		JDA jda = event.getJDA();
-		botListHandler.updateAllStats(jda.getSelfUser().getIdLong(), jda.getGuildCache().size());
+		updateStats(event.getJDA());
+	}
+
+	@Override
+	public void onGuildAvailable(GuildAvailableEvent event) {
+		updateShardGuildCount(event.getJDA());
+	}
+
+	@Override
+	public void onGuildUnavailable(GuildUnavailableEvent event) {
+		updateShardGuildCount(event.getJDA());
 	}
 
 	// unavailable guilds
 
 	@Override
 	public void onUnavailableGuildJoined(UnavailableGuildJoinedEvent event) {
-		if (botListHandler.isUnavailableEventsHandlingEnabled()) {
-			JDA jda = event.getJDA();
-			botListHandler.updateAllStats(jda.getSelfUser().getIdLong(), jda.getGuildCache().size());
-		}
+		if (botListHandler.isUnavailableEventsHandlingEnabled())
+			updateStats(event.getJDA());
 	}
 
 	@Override
 	public void onUnavailableGuildLeave(UnavailableGuildLeaveEvent event) {
-		if (botListHandler.isUnavailableEventsHandlingEnabled()) {
-			JDA jda = event.getJDA();
-			botListHandler.updateAllStats(jda.getSelfUser().getIdLong(), jda.getGuildCache().size());
+		if (botListHandler.isUnavailableEventsHandlingEnabled())
+			updateStats(event.getJDA());
+	}
+
+	// internal
+
+	private void updateStats(JDA jda) {
+		long guildCount = updateShardGuildCount(jda);
+		// the shards which are still starting would be missing from the total
+		if (!postPartialCounts && reportedShards.get() < getManagedShards(jda)) {
+			schedulePartialPost(jda);
+			return;
+		}
+		botListHandler.updateAllStats(jda.getSelfUser().getIdLong(), guildCount);
+	}
+
+	/**
+	 * Returns the amount of shards this process manages, which is less than the shard total if the shards are spread over processes.
+	 * Shards queued for logging in count as well, they're only in the shard cache once they started.
+	 */
+	private int getManagedShards(JDA jda) {
+		ShardManager shardManager = jda.getShardManager();
+		if (shardManager == null)
+			return 1;
+		return Math.max(1, shardManager.getShardsRunning() + shardManager.getShardsQueued());
+	}
+
+	private void schedulePartialPost(JDA jda) {
+		if (!partialPostScheduled.compareAndSet(false, true))
+			return;
+		// a scheduler of its own, the handler's scheduler isn't exposed and this runs at most once
+		TaskScheduler scheduler = new TaskScheduler(null);
+		scheduler.schedule(() -> {
+			try {
+				postPartialCounts = true;
+				if (!botListHandler.isShutdown() && reportedShards.get() < getManagedShards(jda))
+					botListHandler.updateAllStats(jda.getSelfUser().getIdLong(), totalGuildCount.get());
+			}
+			finally {
+				scheduler.shutdown();
+			}
+		}, partialPostDelay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stores the guild count of the shard and returns the guild count of all shards.
+	 * The guild cache size of a single shard is a constant time lookup, unlike the size of the ShardManager's union cache.
+	 */
+	private long updateShardGuildCount(JDA jda) {
+		JDA.ShardInfo shardInfo = jda.getShardInfo();
+		AtomicLongArray counts = getShardGuildCounts(shardInfo.getShardTotal());
+		int shardId = shardInfo.getShardId();
+		if (shardId >= counts.length())
+			return totalGuildCount.get();
+		long guildCount = jda.getGuildCache().size();
+		long previous = counts.getAndSet(shardId, guildCount);
+		if (previous == NOT_REPORTED) {
+			reportedShards.incrementAndGet();
+			previous = 0;
+		}
+		return totalGuildCount.addAndGet(guildCount - previous);
+	}
+
+	private AtomicLongArray getShardGuildCounts(int shardTotal) {
+		AtomicLongArray counts = shardGuildCounts;
+		if (counts != null)
+			return counts;
+		synchronized (this) {
+			if (shardGuildCounts == null) {
+				AtomicLongArray created = new AtomicLongArray(Math.max(1, shardTotal));
+				for (int shardId = 0; shardId < created.length(); shardId++)
+					created.set(shardId, NOT_REPORTED);
+				shardGuildCounts = created;
+			}
+			return shardGuildCounts;
 		}
 	}
 }
\ No newline at end of file
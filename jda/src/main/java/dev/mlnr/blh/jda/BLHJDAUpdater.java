@@ -63,6 +63,25 @@ public class BLHJDAUpdater implements IBLHUpdater {
 
 	@Override
 	public long getServerCount() {
-		return jda == null ? shardManager.getGuildCache().size() : jda.getGuildCache().size();
+		if (jda != null)
+			return jda.getGuildCache().size();
+		// summing up the shards avoids walking the union cache of the ShardManager
+		long count = 0;
+		for (JDA shard : shardManager.getShardCache())
+			count += shard.getGuildCache().size();
+		return count;
+	}
+
+	@Override
+	public long[] getShardServerCounts() {
+		if (jda != null)
+			return null;
+		long[] counts = new long[shardManager.getShardsTotal()];
+		for (JDA shard : shardManager.getShardCache()) {
+			int shardId = shard.getShardInfo().getShardId();
+			if (shardId < counts.length)
+				counts[shardId] = shard.getGuildCache().size();
+		}
+		return counts;
 	}
 }
\ No newline at end of file
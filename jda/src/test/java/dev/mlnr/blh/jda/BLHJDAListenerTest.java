@@ -0,0 +1,168 @@
+package dev.mlnr.blh.jda;
+
+import dev.mlnr.blh.core.api.*;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.SelfUser;
+import net.dv8tion.jda.api.events.ReadyEvent;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildUnavailableEvent;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Feeds events of fake shards to the listener and checks the counts posted through a transport which records the requests.
+ */
+public class BLHJDAListenerTest {
+	private static final long BOT_ID = 1;
+	private static final StatsResponse OK = new StatsResponse() {
+		@Override
+		public int getCode() {
+			return 200;
+		}
+
+		@Override
+		public String getHeader(@Nonnull String name) {
+			return null;
+		}
+	};
+
+	private final BlockingQueue<String> posted = new LinkedBlockingQueue<>();
+	private BotListHandler botListHandler;
+
+	@Before
+	public void setUp() {
+		botListHandler = new BLHBuilder().addBotList(BotList.TOP_GG, "token").setTransport(request -> {
+			posted.add(new String(request.getBody(), StandardCharsets.UTF_8));
+			return CompletableFuture.completedFuture(OK);
+		}).build();
+	}
+
+	@After
+	public void tearDown() {
+		botListHandler.close();
+	}
+
+	@Test
+	public void postsTheGuildCountOfASingleShardRightAway() throws InterruptedException {
+		FakeShard shard = new FakeShard(0, 1, 10, null);
+		BLHJDAListener listener = new BLHJDAListener(botListHandler);
+
+		listener.onReady(new ReadyEvent(shard.jda, 0));
+		assertEquals("{\"server_count\":10}", posted.poll(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void postsTheSumOfEveryShardOnceAllShardsAreReady() throws InterruptedException {
+		ShardManager shardManager = shardManager(2);
+		FakeShard first = new FakeShard(0, 2, 10, shardManager);
+		FakeShard second = new FakeShard(1, 2, 5, shardManager);
+		BLHJDAListener listener = new BLHJDAListener(botListHandler);
+
+		listener.onReady(new ReadyEvent(first.jda, 0));
+		// the count of the first shard alone is never posted
+		assertNull(posted.poll(200, TimeUnit.MILLISECONDS));
+		listener.onReady(new ReadyEvent(second.jda, 0));
+		assertEquals("{\"server_count\":15}", posted.poll(5, TimeUnit.SECONDS));
+
+		first.guildCount.set(11);
+		listener.onGuildJoin(new GuildJoinEvent(first.jda, 1, null));
+		assertEquals("{\"server_count\":16}", posted.poll(5, TimeUnit.SECONDS));
+
+		// an unavailable guild only updates the count of its shard
+		second.guildCount.set(4);
+		listener.onGuildUnavailable(new GuildUnavailableEvent(second.jda, 1, null));
+		assertNull(posted.poll(200, TimeUnit.MILLISECONDS));
+		second.guildCount.set(3);
+		listener.onGuildLeave(new GuildLeaveEvent(second.jda, 2, null));
+		assertEquals("{\"server_count\":14}", posted.poll(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void postsThePartialSumIfAShardDoesNotStartInTime() throws InterruptedException {
+		ShardManager shardManager = shardManager(2);
+		FakeShard first = new FakeShard(0, 2, 10, shardManager);
+		BLHJDAListener listener = new BLHJDAListener(botListHandler, 100, TimeUnit.MILLISECONDS);
+
+		listener.onReady(new ReadyEvent(first.jda, 0));
+		assertEquals("{\"server_count\":10}", posted.poll(5, TimeUnit.SECONDS));
+
+		// every later update is posted right away
+		first.guildCount.set(12);
+		listener.onGuildJoin(new GuildJoinEvent(first.jda, 1, null));
+		assertEquals("{\"server_count\":12}", posted.poll(5, TimeUnit.SECONDS));
+	}
+
+	// internal
+
+	private static ShardManager shardManager(int runningShards) {
+		Map<String, Supplier<?>> answers = new HashMap<>();
+		answers.put("getShardsRunning", () -> runningShards);
+		answers.put("getShardsQueued", () -> 0);
+		// walking the union cache is what the listener avoids
+		answers.put("getGuildCache", () -> {
+			throw new AssertionError("The guild cache of the ShardManager was walked");
+		});
+		return fake(ShardManager.class, answers);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T fake(Class<T> type, Map<String, Supplier<?>> answers) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+			Supplier<?> answer = answers.get(method.getName());
+			if (answer != null)
+				return answer.get();
+			switch (method.getName()) {
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				default:
+					throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+
+	private static class FakeShard {
+		private final AtomicLong guildCount;
+		private final JDA jda;
+
+		@SuppressWarnings("unchecked")
+		private FakeShard(int shardId, int shardTotal, long guildCount, ShardManager shardManager) {
+			this.guildCount = new AtomicLong(guildCount);
+			SelfUser selfUser = fake(SelfUser.class, singleAnswer("getIdLong", () -> BOT_ID));
+			SnowflakeCacheView<Guild> guildCache = fake(SnowflakeCacheView.class, singleAnswer("size", this.guildCount::get));
+
+			Map<String, Supplier<?>> answers = new HashMap<>();
+			answers.put("getSelfUser", () -> selfUser);
+			answers.put("getGuildCache", () -> guildCache);
+			answers.put("getShardInfo", () -> new JDA.ShardInfo(shardId, shardTotal));
+			answers.put("getShardManager", () -> shardManager);
+			this.jda = fake(JDA.class, answers);
+		}
+
+		private static Map<String, Supplier<?>> singleAnswer(String method, Supplier<?> answer) {
+			Map<String, Supplier<?>> answers = new HashMap<>();
+			answers.put(method, answer);
+			return answers;
+		}
+	}
+}